@@ -0,0 +1,245 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.async;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs SeleniumTasks of one driver in the background, each at its own fixed rate.<br>
+ * <br>
+ * Tasks are serialized against the driver with a lock: the test thread holds it while a WebDriver call is in flight
+ * (see {@link AsyncListenerImp}), and a task runs only if it can take the lock without waiting. A task therefore
+ * never interleaves with a test command, and the test never waits for a task to be scheduled - at most for a task
+ * which is already running to finish.<br>
+ * The lock is taken only while the engine has tasks. Activity listeners (see
+ * {@link #addActivityListener(Consumer)}) are told when the first task is scheduled and when the last one is done, so
+ * the test calls of a driver without tasks do not touch the lock at all.<br>
+ * <br>
+ * Backpressure: a tick is dropped when the previous run of the task has not finished yet, or when the driver is busy.
+ * Dropped ticks are not made up for, so a task which runs longer than its interval runs back to back rather than
+ * piling up.<br>
+ * <br>
+ * The ticks of all engines come from one shared scheduler thread. Tasks run on daemon threads, or on virtual threads
+ * when the JVM supports them and async.virtual.threads=true in root.config.properties.
+ *
+ * @author <a href="mailto:nir@verisoft.co">Nir Gallner</a> @ <a href="http://www.verisoft.co">www.VeriSoft.co</a>
+ * @since 2.3.2
+ */
+@Slf4j
+@ToString
+public final class AsyncEngine {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "async-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Executor runner = createRunner();
+    // One engine per WebDriver session, shared by all the VerisoftDriver wrappers of a pooled or single session
+    private static final Map<WebDriver, AsyncEngine> sessions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @ToString.Exclude
+    private final ReentrantLock driverLock = new ReentrantLock();
+    @ToString.Exclude
+    private final Set<ScheduledSeleniumTask> tasks = ConcurrentHashMap.newKeySet();
+    @ToString.Exclude
+    private final Set<Consumer<Boolean>> activityListeners = ConcurrentHashMap.newKeySet();
+    private boolean active;
+
+
+    /**
+     * Get the engine of a WebDriver session, creating it on first use. Every wrapper of the session uses the same
+     * engine, so the tasks of all of them are serialized against the calls of all of them
+     *
+     * @param session the driver as created, before it was decorated with listeners
+     * @return the engine of the session
+     */
+    public static AsyncEngine forSession(WebDriver session) {
+        return sessions.computeIfAbsent(session, s -> new AsyncEngine());
+    }
+
+
+    /**
+     * Cancel the tasks of a WebDriver session and forget its engine. Called when a test gives its driver back - quits
+     * it or returns it to the driver pool - so tasks of one test do not keep running on the session while the next
+     * test uses it
+     *
+     * @param session the driver as created, before it was decorated with listeners
+     */
+    public static void release(WebDriver session) {
+        AsyncEngine engine = sessions.remove(session);
+        if (engine != null)
+            engine.cancelAll();
+    }
+
+
+    /**
+     * Schedule a task to run repeatedly, at a fixed rate, until it returns true or is cancelled
+     *
+     * @param task task to run. It may use the driver - it runs while the test does not
+     * @param rate time between the starts of two runs
+     * @return handle of the scheduled task
+     */
+    public ScheduledSeleniumTask schedule(SeleniumTask task, Duration rate) {
+        if (rate.isNegative() || rate.isZero())
+            throw new IllegalArgumentException("Rate must be positive, got " + rate);
+
+        ScheduledSeleniumTask scheduled = new ScheduledSeleniumTask(task, rate, this);
+        synchronized (this) {
+            tasks.add(scheduled);
+            activityChanged();
+        }
+        scheduled.setFuture(scheduler.scheduleAtFixedRate(scheduled::tick, rate.toNanos(), rate.toNanos(),
+                TimeUnit.NANOSECONDS));
+        log.debug("Scheduled {} every {}", task, rate);
+        return scheduled;
+    }
+
+
+    /**
+     * Cancel all the tasks of this engine, e.g. when the driver quits
+     */
+    public void cancelAll() {
+        tasks.forEach(ScheduledSeleniumTask::cancel);
+    }
+
+
+    /**
+     * @return the scheduled tasks which were not cancelled or done yet
+     */
+    public Set<ScheduledSeleniumTask> getTasks() {
+        return Set.copyOf(tasks);
+    }
+
+
+    /**
+     * Be told when the engine gets its first task (true) and when its last task is done or cancelled (false). The
+     * listener is called right away with the current state
+     *
+     * @param listener called with true when the engine has tasks, false when it has none
+     */
+    public synchronized void addActivityListener(Consumer<Boolean> listener) {
+        activityListeners.add(listener);
+        listener.accept(active);
+    }
+
+
+    /**
+     * @param listener a listener added with {@link #addActivityListener(Consumer)}
+     */
+    public synchronized void removeActivityListener(Consumer<Boolean> listener) {
+        activityListeners.remove(listener);
+    }
+
+
+    /**
+     * @return true if the engine has tasks which were not cancelled or done yet
+     */
+    public synchronized boolean isActive() {
+        return active;
+    }
+
+
+    /**
+     * Mark the driver busy. Called by the test thread before a WebDriver call. Waits only if a task is running
+     */
+    void lockDriver() {
+        // Not counted - a call whose unlock was missed, e.g. the hooks were removed while it ran, is undone by the next
+        if (!driverLock.isHeldByCurrentThread())
+            driverLock.lock();
+    }
+
+
+    /**
+     * Mark the driver free again, after a call marked by {@link #lockDriver()}
+     */
+    void unlockDriver() {
+        if (driverLock.isHeldByCurrentThread())
+            driverLock.unlock();
+    }
+
+
+    boolean tryLockDriver() {
+        return driverLock.tryLock();
+    }
+
+
+    void execute(Runnable run) {
+        runner.execute(run);
+    }
+
+
+    synchronized void remove(ScheduledSeleniumTask task) {
+        tasks.remove(task);
+        activityChanged();
+    }
+
+
+    // Called holding the engine monitor, so listeners see the changes in order
+    private void activityChanged() {
+        boolean hasTasks = !tasks.isEmpty();
+        if (hasTasks == active)
+            return;
+        active = hasTasks;
+        log.debug("Engine {} is {}", this, hasTasks ? "active" : "idle");
+        for (Consumer<Boolean> listener : activityListeners) {
+            try {
+                listener.accept(hasTasks);
+            } catch (RuntimeException e) {
+                log.warn("Activity listener {} failed", listener, e);
+            }
+        }
+    }
+
+
+    private static Executor createRunner() {
+        if (ConfigValues.getBoolean("async.virtual.threads", false)) {
+            try {
+                // Thread.ofVirtual() exists from Java 21 - looked up by reflection to keep compiling for Java 17
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "async-task-", 1L);
+                ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                log.debug("Async tasks run on virtual threads");
+                return r -> factory.newThread(r).start();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.warn("Virtual threads are not available on this JVM, async tasks run on platform threads");
+            }
+        }
+
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "async-task-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
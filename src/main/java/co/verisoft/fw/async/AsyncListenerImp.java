@@ -17,13 +17,18 @@
  */
 package co.verisoft.fw.async;
 
+import co.verisoft.fw.selenium.drivers.decorators.ListenerRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 
 /**
@@ -32,30 +37,36 @@ import java.util.List;
  * and the observer design pattern.<br>
  * <br>
  * <b>VeriSoft's framework asynchronous operation model explained:</b><br>
- * Since WebDriver is a single thread application, and it's operations are not
- * thread safe, a solution is needed to async operations within a single thread.
- * <br>
+ * Since WebDriver operations are not thread safe, async operations must not
+ * run while the test is using the driver.<br>
  * org.openqa.selenium. @see
  * JavascriptExecutor#executeAsyncScript(String, Object...) method does not
  * provide a solution since the js is indeed executed asynchronously, however
  * WebDriver does not, hence it is hanged while it waits for the JS to finish
  * it's execution.<br>
- * So, the current solution is based on the JS model of running async operations
- * on the same thread. It is async rather than paralel. In order to run
- * operations in an async way, breaking points during the execution are needed.
- * The most common breaking point in a Selenium WebDriver scenario is the
- * findElement operation. It is the most common operation and the most
- * frequently used operation. So... We hooked on, using the listener and
- * EventFiringWebDriver mechnism to hook in before every single findElement
- * method is invoked.<br>
- * In order to to not overdue, a time interval was introduced, so if <br>
- * a. a findElement method was invoked, and <br>
- * b. interval has elapsed, a method will be called. <br>
+ * So, async operations run on background threads of an {@link AsyncEngine},
+ * each at its own rate, and are serialized against the test: while the engine
+ * has tasks, this listener marks the driver busy for the duration of every
+ * WebDriver call of the test, and an async operation whose time has come while
+ * the driver is busy skips that turn. The test itself never waits for an async
+ * operation to be due.<br>
+ * The marking is done by hooks which are in the driver's
+ * {@link ListenerRegistry} (see {@link #attach(ListenerRegistry)}) only while
+ * the engine has tasks. Without tasks the calls of the test do not go through
+ * this listener, or take any lock, at all.<br>
+ * Contention that remains while tasks are scheduled: a test call which comes
+ * while a task is running waits for the whole run of that task (e.g. an
+ * observer taking a screenshot), and every call takes and releases the lock
+ * of the engine, which is shared by all the wrappers of a session. Keep tasks
+ * short, and cancel them when they are no longer needed.<br>
+ * Observers are notified together, every dispatch interval. Tasks which
+ * need a different rate can be scheduled on their own with
+ * {@link #schedule(SeleniumTask, Duration)}.<br>
  * We use the observer pattern to manage all the async code in one place. If you
  * are not familiar with the observer patter,
  * <a href="https://en.wikipedia.org/wiki/Observer_pattern">visit the wikipedia</a>
  * site. Essentially, this class serves as both listener, which
- * implements the SearchingEventListener interface, and subject (from the
+ * implements the WebDriverListener interface, and subject (from the
  * observer mechanism), which implements the Subject interface.
  *
  * @author <a href="mailto:nir@verisoft.co">Nir Gallner</a> @ <a href="http://www.verisoft.co">www.VeriSoft.co</a>
@@ -64,20 +75,24 @@ import java.util.List;
 @Slf4j
 public class AsyncListenerImp implements AsyncExecutor.AsyncListener {
 
-    private LocalDateTime baseTime;
-    private Duration interval;
+    private volatile Duration interval;
 
-    private final List<Observer> observers = new ArrayList<>();
+    // Iteration is weakly consistent - observers can be added and removed while the dispatcher notifies them
+    private final Set<Observer> observers = ConcurrentHashMap.newKeySet();
+    private volatile AsyncEngine engine = new AsyncEngine();
+    private volatile WebDriver session;
+    private ScheduledSeleniumTask dispatcher;
+    private ListenerRegistry registry;
+    private final DriverGuard guard = new DriverGuard();
+    private final Consumer<Boolean> activity = this::engineActivity;
 
     public AsyncListenerImp(Duration interval) {
         this.interval = interval;
         this.setDispatchInterval(interval);
-        baseTime = LocalDateTime.now();
     }
 
     public AsyncListenerImp() {
         interval = Duration.ofSeconds(5);
-        baseTime = LocalDateTime.now();
     }
 
     /**
@@ -88,14 +103,19 @@ public class AsyncListenerImp implements AsyncExecutor.AsyncListener {
      * @param duration new interval for invocation
      */
     public void setDispatchInterval(Duration duration) {
-        LocalDateTime t = LocalDateTime.now();
-        LocalDateTime t1 = t.plus(duration);
-        if (t1.minus(Duration.ofSeconds(5)).isBefore(t)) {
+        if (duration.compareTo(Duration.ofSeconds(5)) < 0) {
             interval = Duration.ofSeconds(5);
         } else {
             interval = duration;
         }
 
+        synchronized (this) {
+            if (dispatcher != null) {
+                dispatcher.cancel();
+                dispatcher = null;
+                startDispatcher();
+            }
+        }
     }
 
     /**
@@ -107,32 +127,113 @@ public class AsyncListenerImp implements AsyncExecutor.AsyncListener {
         return interval;
     }
 
+    /**
+     * Run a task in the background at its own rate, until it returns true or is cancelled. The task does not run
+     * while the test is using the driver
+     *
+     * @param task task to run
+     * @param rate time between the starts of two runs
+     * @return handle of the scheduled task, to cancel it or see how often it ran
+     */
+    public ScheduledSeleniumTask schedule(SeleniumTask task, Duration rate) {
+        return engine.schedule(task, rate);
+    }
+
+    /**
+     * @return the engine running the async operations of the driver
+     */
+    public AsyncEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Run the async operations on the engine of a WebDriver session (see {@link AsyncEngine#forSession(WebDriver)}),
+     * instead of an engine of this listener only. Called by VerisoftDriver before its first call
+     *
+     * @param session the driver as created, before it was decorated with listeners
+     */
+    public synchronized void bindSession(WebDriver session) {
+        this.session = session;
+        setEngine(AsyncEngine.forSession(session));
+    }
+
+    /**
+     * Serialize the async operations against the calls of a driver decorated with a registry: the hooks which mark
+     * the driver busy are added to the registry while the engine has tasks, and removed when it has none. Called by
+     * VerisoftDriver and DecoratedDriver when they decorate the driver
+     *
+     * @param registry the listeners of the decorated driver
+     */
+    public synchronized void attach(ListenerRegistry registry) {
+        if (this.registry != null)
+            this.registry.remove(guard);
+        this.registry = registry;
+        engine.removeActivityListener(activity);
+        engine.addActivityListener(activity);
+    }
+
+    /**
+     * Stop all async operations, e.g. when the driver quits
+     */
+    public synchronized void shutdown() {
+        engine.cancelAll();
+        if (session != null)
+            AsyncEngine.release(session);
+        dispatcher = null;
+    }
+
+    private synchronized void setEngine(AsyncEngine engine) {
+        this.engine.removeActivityListener(activity);
+        this.engine = engine;
+        // Told the state of the new engine right away, so the hooks follow it
+        if (registry != null)
+            engine.addActivityListener(activity);
+    }
+
+    private void engineActivity(boolean active) {
+        ListenerRegistry r = registry;
+        if (r == null)
+            return;
+        if (active) {
+            if (!r.getListeners().contains(guard))
+                r.add(guard);
+        } else {
+            r.remove(guard);
+        }
+    }
+
     @Override
     public void register(Observer o) {
         if (log.isDebugEnabled())
             log.debug("Added a new observer to the list " + o.toString());
         this.observers.add(o);
+        startDispatcher();
     }
 
     @Override
     public void unregister(Observer o) {
-        int index = observers.indexOf(o);
-        if (index == -1) {
+        if (!observers.remove(o)) {
             if (log.isDebugEnabled())
                 log.debug("Attempt to delete an unregistered observer " + o.toString());
             return;
         }
 
         if (log.isDebugEnabled())
-            log.debug("Observer " + index + 1 + " Deleted");
-        observers.remove(o);
+            log.debug("Observer " + o + " Deleted");
     }
 
     /**
      * Unregisters all observers from subject
      */
     public void unregisterAll() {
-        observers.forEach(this::unregister);
+        observers.clear();
+    }
+
+    /**
+     * @return the registered observers
+     */
+    public Set<Observer> getObservers() {
+        return Set.copyOf(observers);
     }
 
     @Override
@@ -144,25 +245,59 @@ public class AsyncListenerImp implements AsyncExecutor.AsyncListener {
      * Loops through the observers list and looks for observers which flags
      * themselves as observers who want to unregister themselves from the subject's
      * list. Technically, the method calls observer.isDisposed() for each observer
-     * on the list, and if the result is true, the method performs
-     * unregister(observer)
+     * on the list, and if the result is true, the observer is removed
      */
     public void collectGarbage() {
-        List<Observer> observersCopy = new ArrayList<>(observers);
-        observersCopy.forEach(observer -> {
+        observers.removeIf(Observer::isDisposed);
+    }
+
+    /**
+     * Notify all observers, removing the ones which are disposed after their update, in one pass
+     */
+    private void dispatch() {
+        for (Iterator<Observer> it = observers.iterator(); it.hasNext(); ) {
+            Observer observer = it.next();
+            observer.update();
             if (observer.isDisposed())
-                unregister(observer);
-        });
+                it.remove();
+        }
     }
 
 
     @Override
-    public void beforeAnyCall(Object target, Method method, Object[] args) {
-        LocalDateTime currentTime = LocalDateTime.now();
-        if (currentTime.minus(interval).isAfter(baseTime)) {
-            baseTime = currentTime;
-            notifyObservers();
-            collectGarbage();
+    public void beforeQuit(WebDriver driver) {
+        shutdown();
+    }
+
+
+    private synchronized void startDispatcher() {
+        if (dispatcher != null && !dispatcher.isDone())
+            return;
+        dispatcher = engine.schedule(() -> {
+            dispatch();
+            return false;
+        }, interval);
+    }
+
+
+    /**
+     * Marks the driver busy for the duration of a call. In the registry of the driver only while the engine has tasks
+     */
+    private final class DriverGuard implements WebDriverListener {
+
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            engine.lockDriver();
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            engine.unlockDriver();
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            engine.unlockDriver();
         }
     }
 }
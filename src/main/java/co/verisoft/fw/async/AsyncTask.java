@@ -23,10 +23,10 @@ import org.openqa.selenium.WebDriver;
 /**
  * Defines an async set of operations to be executed during the test, in an
  * async manner.<br>
- * <b>Important: tasks are executed in the same thread as the WebDriver main
- * thread.</b> It means that: <br>
- * 1. You should avoid long async operations, or use Wait Until in your async
- * operation. It will block the main thread and prevents execution. <br>
+ * <b>Important: tasks are executed on a background thread, but never while
+ * the test is using the driver.</b> It means that: <br>
+ * 1. You should avoid long async operations. A WebDriver call of the test
+ * which comes while the task runs waits for it to finish. <br>
  * 2. The async code will not be performing context switching - the code will
  * run from start to finish once it is invoked. and, <br>
  * 3. The async code uses the same driver as the test. You should consider it
@@ -35,12 +35,18 @@ import org.openqa.selenium.WebDriver;
  * <br>
  * <p>
  * Further practices to consider:<br>
- * 1. By default, the script is set to run each time a driver.findElement() is
- * invoked. You should change it to a different dispatch time. For example, to
- * change the dispatch time to 2 seconds use
+ * 1. By default, the script is set to run every 5 seconds. You can change it
+ * to a longer dispatch time. For example, to change the dispatch time to 10
+ * seconds use
  *
  * <pre>
- * {@code driver.async().setDispatchInterval(2, ChronoUnit.SECONDS);}
+ * {@code driver.async().setDispatchInterval(Duration.ofSeconds(10));}
+ * </pre>
+ * <p>
+ * A task which needs its own rate can be scheduled without an observer:
+ *
+ * <pre>
+ * {@code driver.async().schedule(task, Duration.ofMillis(500));}
  * </pre>
  * <p>
  * 2. doTask() returns a boolean value. True, means the async task is done and
@@ -0,0 +1,160 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.async;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.NoSuchSessionException;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A SeleniumTask scheduled on an {@link AsyncEngine}. Keeps count of how often the task ran and how often a run was
+ * dropped, which shows whether the rate of the task fits what it does.
+ *
+ * @author <a href="mailto:nir@verisoft.co">Nir Gallner</a> @ <a href="http://www.verisoft.co">www.VeriSoft.co</a>
+ * @since 2.3.2
+ */
+@Slf4j
+@ToString
+public final class ScheduledSeleniumTask {
+
+    private final SeleniumTask task;
+    @Getter
+    private final Duration rate;
+    @ToString.Exclude
+    private final AsyncEngine engine;
+    @ToString.Exclude
+    private final AtomicBoolean running = new AtomicBoolean();
+    @ToString.Exclude
+    private volatile ScheduledFuture<?> future;
+    private volatile boolean done;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong();
+
+
+    ScheduledSeleniumTask(SeleniumTask task, Duration rate, AsyncEngine engine) {
+        this.task = task;
+        this.rate = rate;
+        this.engine = engine;
+    }
+
+
+    /**
+     * Stop running the task. A run in progress is not interrupted
+     */
+    public void cancel() {
+        done = true;
+        engine.remove(this);
+        if (future != null)
+            future.cancel(false);
+    }
+
+
+    /**
+     * @return true if the task returned true, or was cancelled
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+
+    /**
+     * @return number of times the task ran
+     */
+    public long getRuns() {
+        return runs.get();
+    }
+
+
+    /**
+     * @return number of ticks dropped because the previous run had not finished
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+
+    /**
+     * @return number of ticks dropped because the test was using the driver
+     */
+    public long getBusy() {
+        return busy.get();
+    }
+
+
+    void setFuture(ScheduledFuture<?> future) {
+        this.future = future;
+        if (done)
+            future.cancel(false);
+    }
+
+
+    /**
+     * Called by the scheduler at the task's rate. Must return fast - the scheduler thread is shared
+     */
+    void tick() {
+        if (done)
+            return;
+        if (!running.compareAndSet(false, true)) {
+            overruns.incrementAndGet();
+            log.debug("Task {} is still running, tick dropped", task);
+            return;
+        }
+        try {
+            engine.execute(this::run);
+        } catch (RuntimeException e) {
+            running.set(false);
+            log.warn("Could not start task {}", task, e);
+        }
+    }
+
+
+    private void run() {
+        try {
+            if (done)
+                return;
+            if (!engine.tryLockDriver()) {
+                busy.incrementAndGet();
+                return;
+            }
+            try {
+                runs.incrementAndGet();
+                if (task.doTask()) {
+                    log.debug("Task {} is done", task);
+                    cancel();
+                }
+            } finally {
+                engine.unlockDriver();
+            }
+        } catch (NoSuchSessionException e) {
+            log.debug("Driver of task {} is gone, task cancelled", task);
+            cancel();
+        } catch (Throwable t) {
+            log.warn("Async task {} failed", task, t);
+        } finally {
+            running.set(false);
+        }
+    }
+}
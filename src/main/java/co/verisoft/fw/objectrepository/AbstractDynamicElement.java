@@ -1,8 +1,7 @@
 
 package co.verisoft.fw.objectrepository;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -10,19 +9,13 @@ import org.jetbrains.annotations.Nullable;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
-import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Getter
 @Setter
-@AllArgsConstructor
 
 public abstract class AbstractDynamicElement implements InvocationHandler {
 
@@ -31,36 +24,58 @@ public abstract class AbstractDynamicElement implements InvocationHandler {
     protected String elementObjectId;
     protected @Nullable String pageName;
 
+    // Looked up on first use, so a page can be built even if one of its items is missing from the repository
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ObjectRepositoryIndex.Entry entry;
+
+    public AbstractDynamicElement(WebDriver driver, ObjectRepository repository, String elementObjectId,
+                                  @Nullable String pageName) {
+        this.driver = driver;
+        this.repository = repository;
+        this.elementObjectId = elementObjectId;
+        this.pageName = pageName;
+    }
+
+    public void setRepository(ObjectRepository repository) {
+        this.repository = repository;
+        entry = null;
+    }
+
+    public void setElementObjectId(String elementObjectId) {
+        this.elementObjectId = elementObjectId;
+        entry = null;
+    }
+
+    public void setPageName(@Nullable String pageName) {
+        this.pageName = pageName;
+        entry = null;
+    }
+
+    /**
+     * @return the repository item of this element, with its locators sorted best first
+     * @throws IllegalArgumentException if the repository has no such item
+     */
+    protected ObjectRepositoryIndex.Entry getRepositoryEntry() {
+        ObjectRepositoryIndex.Entry e = entry;
+        if (e == null) {
+            e = ObjectRepositoryIndex.of(repository).get(elementObjectId, pageName);
+            entry = e;
+        }
+        return e;
+    }
+
 
     @Override
     public abstract Object invoke(Object proxy, Method method, Object[] args) throws Throwable;
 
     static List<Locator> getSortedLocatorsList(ObjectRepository repository, String elementObjectId, @Nullable String pageName) {
-        List<LocatorObject> locatorObjects = repository.getObjectsRepository().stream()
-                .filter(locator -> (locator.getObjectId()
-                        .equalsIgnoreCase(elementObjectId))).collect(Collectors.toList());
-
-        LocatorObject uniqueLocatorObject;
-        if (Objects.nonNull(pageName))
-            uniqueLocatorObject = locatorObjects.stream()
-                    .filter(locator -> (locator.getPageName()
-                            .equalsIgnoreCase(pageName))).findFirst().orElse(null);
-        else if (locatorObjects.isEmpty())
-            uniqueLocatorObject = null;
-        else
-            uniqueLocatorObject = locatorObjects.get(0);
-
-
-        if (Objects.isNull(uniqueLocatorObject))
-            throw new IllegalArgumentException("Unable to find a unique locator in object repository during page object initialization," +
-                    "Do you have a locator with page: " + pageName + " and ID: " + elementObjectId + " in the object repository?");
-
-        List<Locator> locators = uniqueLocatorObject.getLocators();
-        Collections.sort(locators);
-        return locators;
+        return ObjectRepositoryIndex.of(repository).get(elementObjectId, pageName).getLocators();
     }
 
     public static By resolveLocator(Locator locator) {
+        if (locator.getType() == null)
+            return null;
         switch (locator.getType()) {
             case "id":
                 return By.id(locator.getValue());
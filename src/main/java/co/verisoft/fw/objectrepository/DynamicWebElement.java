@@ -1,39 +1,133 @@
 package co.verisoft.fw.objectrepository;
 
+import co.verisoft.fw.selenium.drivers.VerisoftDriver;
+import co.verisoft.fw.selenium.listeners.PageChangeListener;
+import co.verisoft.fw.utils.internal.ConfigValues;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 
+/**
+ * Resolves a repository item to a WebElement on every call of its proxy.<br>
+ * With object.repository.element.cache=true in root.config.properties the element found is kept and reused by the
+ * following calls, so {@code el.isDisplayed(); el.getText(); el.click()} looks the element up once instead of three
+ * times. The kept element is dropped and looked up again when:
+ * <ul>
+ *     <li>a call on it throws StaleElementReferenceException - the call is then retried once on the new element</li>
+ *     <li>the driver navigated, switched window or frame since it was found (VerisoftDriver only, see
+ *     {@link PageChangeListener})</li>
+ *     <li>it is older than object.repository.element.cache.ttl.ms. Default 5000</li>
+ * </ul>
+ */
 @Slf4j
 @ToString
 public class DynamicWebElement extends AbstractDynamicElement {
 
+    private static volatile boolean cacheEnabled = ConfigValues.getBoolean("object.repository.element.cache", false);
+    private static final long cacheTtlNanos =
+            ConfigValues.getLong("object.repository.element.cache.ttl.ms", 5000) * 1_000_000;
+
+    @ToString.Exclude
+    private volatile @Nullable CachedElement cached;
+
     public DynamicWebElement(WebDriver driver, ObjectRepository repository,
                              String elementObjectId, @Nullable String pageName) {
         super(driver, repository, elementObjectId, pageName);
     }
 
+    /**
+     * @param enabled keep found elements from now on, or look them up on every call
+     */
+    public static void setCacheEnabled(boolean enabled) {
+        cacheEnabled = enabled;
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        WebElement e = resolveElementFromRepository(proxy);
+        if (!cacheEnabled) {
+            WebElement e = resolveElementFromRepository(proxy);
+            return method.invoke(e, args);
+        }
+
+        WebElement e = cachedElement();
+        if (e != null) {
+            try {
+                return method.invoke(e, args);
+            } catch (InvocationTargetException ex) {
+                if (!(ex.getCause() instanceof StaleElementReferenceException))
+                    throw ex;
+                log.debug("Cached element {} is stale, looking it up again", this.elementObjectId);
+                cached = null;
+            }
+        }
+
+        e = resolveAndCache(proxy);
         return method.invoke(e, args);
     }
 
+    /**
+     * Forget the element found last, so the next call looks it up again
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    private @Nullable WebElement cachedElement() {
+        CachedElement c = cached;
+        if (c == null)
+            return null;
+        if (System.nanoTime() - c.foundAt > cacheTtlNanos || c.pageVersion != pageVersion()) {
+            cached = null;
+            return null;
+        }
+        return c.element;
+    }
+
+    private WebElement resolveAndCache(Object proxy) throws IOException {
+        // Read before the lookup - a page change during the lookup makes the element stale, not the other way round
+        long version = pageVersion();
+        WebElement element = resolveElementFromRepository(proxy);
+        // A missing element is not cached, it may show up on the next call
+        if (!(element instanceof NonInteractableWebElement))
+            cached = new CachedElement(element, System.nanoTime(), version);
+        return element;
+    }
+
+    private long pageVersion() {
+        return this.driver instanceof VerisoftDriver ? ((VerisoftDriver) this.driver).pageChanges().getVersion() : 0;
+    }
+
     private WebElement resolveElementFromRepository(Object proxy) throws IOException {
 
-        List<Locator> sortedLocatorsList = getSortedLocatorsList(repository, this.elementObjectId, pageName);
+        ObjectRepositoryIndex.Entry entry = getRepositoryEntry();
+        List<By> bys = entry.getBys();
+        int[] ranking = entry.ranking();
 
-        for (Locator locator : sortedLocatorsList) {
-            By by = resolveLocator(locator);
+        if (LocatorRace.applies(this.driver, ranking)) {
+            List<WebElement> found = LocatorRace.find(this.driver, entry, ranking, false);
+            if (found != null) {
+                if (!found.isEmpty())
+                    return found.get(0);
+                log.debug("Could not perform findElement to element " + this.elementObjectId);
+                return new NonInteractableWebElement();
+            }
+        }
+
+        for (int i = 0; i < ranking.length; i++) {
+            By by = bys.get(ranking[i]);
             try {
-                return this.driver.findElement(by);
+                WebElement element = this.driver.findElement(by);
+                entry.resolved(ranking, i);
+                return element;
             } catch (Exception e) {
                 // NO-OP
             }
@@ -42,4 +136,16 @@ public class DynamicWebElement extends AbstractDynamicElement {
         log.debug("Could not perform findElement to element " + this.elementObjectId);
         return new NonInteractableWebElement();
     }
+
+    private static final class CachedElement {
+        private final WebElement element;
+        private final long foundAt;
+        private final long pageVersion;
+
+        private CachedElement(WebElement element, long foundAt, long pageVersion) {
+            this.element = element;
+            this.foundAt = foundAt;
+            this.pageVersion = pageVersion;
+        }
+    }
 }
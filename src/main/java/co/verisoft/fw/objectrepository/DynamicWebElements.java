@@ -28,15 +28,27 @@ public class DynamicWebElements extends AbstractDynamicElement {
     }
 
     List<WebElement> resolveElementsFromRepository(Object proxy) throws IOException {
-        List<Locator> sortedLocatorsList = getSortedLocatorsList(repository, this.elementObjectId, pageName);
+        ObjectRepositoryIndex.Entry entry = getRepositoryEntry();
+        List<By> bys = entry.getBys();
+        int[] ranking = entry.ranking();
+
+        if (LocatorRace.applies(this.driver, ranking)) {
+            List<WebElement> found = LocatorRace.find(this.driver, entry, ranking, true);
+            if (found != null) {
+                if (found.isEmpty())
+                    log.debug("Could not perform findElements to element " + this.elementObjectId);
+                return found;
+            }
+        }
 
-        for (Locator locator : sortedLocatorsList) {
-            By by = resolveLocator(locator);
+        for (int i = 0; i < ranking.length; i++) {
+            By by = bys.get(ranking[i]);
             try {
                 List<WebElement> elements = this.driver.findElements(by);
                 if (!elements.isEmpty()) {
                     // Elements found, return immediately
                     log.debug("Found elements using locator: {}", by);
+                    entry.resolved(ranking, i);
                     return elements;
                 }
             } catch (Exception e) {
@@ -0,0 +1,158 @@
+package co.verisoft.fw.objectrepository;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Tries all the locators of a repository item in one script run in the page, instead of one findElement call per
+ * locator. Each locator which does not match is not a round trip and does not wait the implicit wait. The script
+ * checks the locators in ranked order and returns the matches of the first one which matches, so the best locator
+ * still wins when several match.<br>
+ * When nothing matches, the script is run again every {@value #POLL_MILLIS} ms until the implicit wait of the driver
+ * is over, the same time a single findElement would have waited.<br>
+ * Enabled with object.repository.locator.race=true in root.config.properties. Drivers which cannot run scripts, e.g.
+ * native mobile contexts, fall back to trying the locators one by one. Any other script failure falls back for that
+ * call only.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class LocatorRace {
+
+    static final long POLL_MILLIS = 100;
+
+    // Each locator type is evaluated with the plain DOM method closest to what the drivers do for it
+    private static final String SCRIPT =
+            "var locators = arguments[0], all = arguments[1];\n" +
+            "function quote(value) { return '\"' + value.replace(/([\"\\\\])/g, '\\\\$1') + '\"'; }\n" +
+            "function list(nodes) { return Array.prototype.slice.call(nodes); }\n" +
+            "function links(test) { return list(document.getElementsByTagName('a')).filter(function (a) {\n" +
+            "    return test((a.innerText || a.textContent || '').trim()); }); }\n" +
+            "function find(type, value) {\n" +
+            "  switch (type) {\n" +
+            "    case 'id': return list(document.querySelectorAll('[id=' + quote(value) + ']'));\n" +
+            "    case 'name': return list(document.querySelectorAll('[name=' + quote(value) + ']'));\n" +
+            "    case 'className': return list(document.getElementsByClassName(value));\n" +
+            "    case 'tagName': return list(document.getElementsByTagName(value));\n" +
+            "    case 'cssSelector': return list(document.querySelectorAll(value));\n" +
+            "    case 'linkText': return links(function (text) { return text === value; });\n" +
+            "    case 'partialLinkText': return links(function (text) { return text.indexOf(value) >= 0; });\n" +
+            "    case 'xpath':\n" +
+            "      var found = [], nodes = document.evaluate(value, document, null, 7, null);\n" +
+            "      for (var n = 0; n < nodes.snapshotLength; n++)\n" +
+            "        if (nodes.snapshotItem(n).nodeType === 1) found.push(nodes.snapshotItem(n));\n" +
+            "      return found;\n" +
+            "  }\n" +
+            "  return [];\n" +
+            "}\n" +
+            "for (var i = 0; i < locators.length; i++) {\n" +
+            "  var matches;\n" +
+            "  try { matches = find(locators[i][0], locators[i][1]); } catch (e) { matches = []; }\n" +
+            "  if (matches.length) return [i, all ? matches : [matches[0]]];\n" +
+            "}\n" +
+            "return null;";
+
+    private static volatile boolean enabled = ConfigValues.getBoolean("object.repository.locator.race", false);
+    // Drivers which do not support scripts, e.g. native app contexts, not asked again
+    private static final Map<WebDriver, Boolean> unsupported = Collections.synchronizedMap(new WeakHashMap<>());
+
+
+    private LocatorRace() {
+    }
+
+
+    /**
+     * @param enabled race the locators of items with more than one locator from now on, or try them one by one
+     */
+    public static void setEnabled(boolean enabled) {
+        LocatorRace.enabled = enabled;
+    }
+
+
+    /**
+     * @param driver  the driver to find with
+     * @param ranking order to try the locators of an item in, see {@link ObjectRepositoryIndex.Entry#ranking()}
+     * @return true if the locators of the item should be raced on the driver
+     */
+    static boolean applies(WebDriver driver, int[] ranking) {
+        return enabled && ranking.length > 1 && driver instanceof JavascriptExecutor && !unsupported.containsKey(driver);
+    }
+
+
+    /**
+     * Find the elements of the first locator, in ranked order, which matches. The outcome is counted in the locator
+     * statistics of the item
+     *
+     * @param driver  the driver to find with
+     * @param entry   the repository item
+     * @param ranking order to try the locators in, see {@link ObjectRepositoryIndex.Entry#ranking()}
+     * @param all     all the matches of the locator, or only the first one
+     * @return the matches, empty if no locator matched within the implicit wait, null if the script could not run -
+     * the locators should be tried one by one then
+     */
+    static @Nullable List<WebElement> find(WebDriver driver, ObjectRepositoryIndex.Entry entry, int[] ranking,
+                                           boolean all) {
+        List<List<String>> locators = new ArrayList<>(ranking.length);
+        for (int position : ranking) {
+            Locator locator = entry.getLocators().get(position);
+            locators.add(List.of(locator.getType(), locator.getValue()));
+        }
+
+        try {
+            long deadline = 0;
+            boolean missed = false;
+            while (true) {
+                Object result = ((JavascriptExecutor) driver).executeScript(SCRIPT, locators, all);
+                if (result instanceof List && ((List<?>) result).size() == 2) {
+                    int position = ((Number) ((List<?>) result).get(0)).intValue();
+                    entry.resolved(ranking, position);
+                    return elements((List<?>) ((List<?>) result).get(1));
+                }
+
+                // Asked only on a miss - a hit costs a single round trip
+                if (!missed) {
+                    missed = true;
+                    deadline = System.nanoTime() + implicitWait(driver).toNanos();
+                }
+                if (System.nanoTime() - deadline >= 0)
+                    return List.of();
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (UnsupportedCommandException e) {
+            log.debug("{} cannot run scripts, its locators are tried one by one from now on: {}", driver,
+                    e.getMessage());
+            unsupported.put(driver, Boolean.TRUE);
+            return null;
+        } catch (WebDriverException | ClassCastException e) {
+            // E.g. the document unloaded during a navigation, or a script timeout - the next call races again
+            log.debug("Could not race locators on {}, trying them one by one: {}", driver, e.getMessage());
+            return null;
+        }
+    }
+
+
+    private static Duration implicitWait(WebDriver driver) {
+        Duration wait = driver.manage().timeouts().getImplicitWaitTimeout();
+        return wait == null ? Duration.ZERO : wait;
+    }
+
+
+    private static List<WebElement> elements(List<?> found) {
+        List<WebElement> elements = new ArrayList<>(found.size());
+        for (Object element : found)
+            elements.add((WebElement) element);
+        return elements;
+    }
+}
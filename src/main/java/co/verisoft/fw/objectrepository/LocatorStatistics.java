@@ -0,0 +1,290 @@
+package co.verisoft.fw.objectrepository;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Success and failure counts of object repository locators, kept across runs in a small JSON file.<br>
+ * A locator succeeds when an element was found with it, and fails when it found nothing but a locator of the same item
+ * tried after it did find the element. When no locator of an item finds anything nothing is counted - the element is
+ * just not there. The counts rank the locators of every item (see {@link ObjectRepositoryIndex.Entry}), so a locator
+ * which fails more often than it works is moved behind the ones which work and does not cost an implicit wait on every
+ * call. Every object.repository.adaptive.retry resolutions of an item its locators are tried by grade again, so a
+ * locator which works again after the page was fixed gets its place back.<br>
+ * The file is read on first use and written at JVM exit, when locators which fail most of the time are reported so
+ * they can be fixed or removed from the repository.<br>
+ * Settings (root.config.properties or -D system properties):
+ * <ul>
+ *     <li>object.repository.adaptive - rank locators by their counts. Default false - locators are tried by grade
+ *     only and nothing is counted</li>
+ *     <li>object.repository.adaptive.retry - resolutions of an item between tries by grade. Default 50, 0 never
+ *     tries by grade again</li>
+ *     <li>object.repository.stats.file - the counts file. Default target/locator-stats.json. Point it outside target
+ *     to keep the counts across clean builds, or set it empty to keep them in memory only</li>
+ *     <li>object.repository.stats.failure.rate - failure rate from which a locator is reported. Default 0.9</li>
+ * </ul>
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class LocatorStatistics {
+
+    private static final int VERSION = 1;
+    private static volatile boolean enabled = ConfigValues.getBoolean("object.repository.adaptive", false);
+    private static final int retryEvery = ConfigValues.getInt("object.repository.adaptive.retry", 50);
+    private static final String file = ConfigValues.getString("object.repository.stats.file", "target/locator-stats.json");
+    private static final double failureRate =
+            Double.parseDouble(ConfigValues.getString("object.repository.stats.failure.rate", "0.9"));
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private static volatile boolean started;
+
+
+    private LocatorStatistics() {
+    }
+
+
+    /**
+     * @return true if locators are ranked by their counts
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * @param enabled rank locators by their counts from now on, or try them by grade only
+     */
+    public static void setEnabled(boolean enabled) {
+        LocatorStatistics.enabled = enabled;
+    }
+
+
+    /**
+     * @return resolutions of an item between tries of its locators by grade, 0 for never
+     */
+    static int getRetryEvery() {
+        return retryEvery;
+    }
+
+
+    /**
+     * Get the counts of a locator, creating them on first use
+     *
+     * @param objectId object id of the repository item
+     * @param pageName page name of the repository item, null if it has none
+     * @param locator  the locator
+     * @return the counts of the locator
+     */
+    public static Stat of(String objectId, @Nullable String pageName, Locator locator) {
+        start();
+        return stats.computeIfAbsent(key(objectId, pageName, locator.getType(), locator.getValue()),
+                k -> new Stat(objectId, pageName, locator.getType(), locator.getValue()));
+    }
+
+
+    /**
+     * @return locators which failed at least once and fail at least object.repository.stats.failure.rate of the
+     * times they were tried, most failures first
+     */
+    public static List<Stat> getFailingLocators() {
+        List<Stat> failing = new ArrayList<>();
+        for (Stat stat : stats.values())
+            if (stat.getFailures() > 0 && stat.getFailureRate() >= failureRate)
+                failing.add(stat);
+        failing.sort(Comparator.comparingLong(Stat::getFailures).reversed());
+        return failing;
+    }
+
+
+    /**
+     * Write the counts to object.repository.stats.file and report failing locators. Called at JVM exit
+     *
+     * @return the file written, null if nothing was written
+     */
+    public static @Nullable Path save() {
+        for (Stat stat : getFailingLocators())
+            log.warn("Locator {}={} of object repository item {} (page {}) failed {} of {} times, consider fixing or " +
+                            "removing it", stat.type, stat.value, stat.objectId, stat.pageName, stat.getFailures(),
+                    stat.getFailures() + stat.getSuccesses());
+
+        if (file == null || file.isEmpty())
+            return null;
+
+        Path path = Paths.get(file);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            if (path.getParent() != null)
+                Files.createDirectories(path.getParent());
+            write(temp);
+            // Replaced in one move, so a run which is killed while saving does not leave half a file behind
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Locator statistics written to {}", path.toAbsolutePath());
+            return path;
+        } catch (IOException e) {
+            log.warn("Could not write locator statistics to {}", path, e);
+            return null;
+        }
+    }
+
+
+    /**
+     * Forget all counts, e.g. after the repository was fixed. The file is overwritten on next save
+     */
+    public static void reset() {
+        stats.values().forEach(Stat::clear);
+    }
+
+
+    // The file is read when the first locator is counted, not when the class loads - counting may be enabled later
+    private static void start() {
+        if (started)
+            return;
+        synchronized (LocatorStatistics.class) {
+            if (started)
+                return;
+            load();
+            Runtime.getRuntime().addShutdownHook(new Thread(LocatorStatistics::save, "locator-stats-save"));
+            started = true;
+        }
+    }
+
+
+    private static void load() {
+        if (file == null || file.isEmpty() || !Files.isRegularFile(Paths.get(file)))
+            return;
+
+        try {
+            JsonNode root = mapper.readTree(Paths.get(file).toFile());
+            if (root.path("version").asInt() != VERSION) {
+                log.info("Ignoring locator statistics {} of another version", file);
+                return;
+            }
+            for (JsonNode node : root.path("locators")) {
+                String pageName = node.hasNonNull("pageName") ? node.get("pageName").asText() : null;
+                Stat stat = new Stat(node.path("objectId").asText(), pageName, node.path("type").asText(),
+                        node.path("value").asText());
+                stat.successes = node.path("successes").asLong();
+                stat.failures = node.path("failures").asLong();
+                stats.put(key(stat.objectId, stat.pageName, stat.type, stat.value), stat);
+            }
+            log.debug("Loaded statistics of {} locators from {}", stats.size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read locator statistics from {}, starting over", file, e);
+            stats.clear();
+        }
+    }
+
+
+    private static void write(Path path) throws IOException {
+        try (JsonGenerator json = mapper.getFactory().createGenerator(path.toFile(), JsonEncoding.UTF8)) {
+            json.useDefaultPrettyPrinter();
+            json.writeStartObject();
+            json.writeNumberField("version", VERSION);
+            json.writeArrayFieldStart("locators");
+            for (Stat stat : stats.values()) {
+                long successes = stat.getSuccesses();
+                long failures = stat.getFailures();
+                if (successes == 0 && failures == 0)
+                    continue;
+                json.writeStartObject();
+                json.writeStringField("objectId", stat.objectId);
+                if (stat.pageName != null)
+                    json.writeStringField("pageName", stat.pageName);
+                json.writeStringField("type", stat.type);
+                json.writeStringField("value", stat.value);
+                json.writeNumberField("successes", successes);
+                json.writeNumberField("failures", failures);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+
+    private static String key(String objectId, @Nullable String pageName, String type, String value) {
+        return objectId.toLowerCase(Locale.ROOT) + '\u0000' +
+                (pageName == null ? "" : pageName.toLowerCase(Locale.ROOT)) + '\u0000' + type + '\u0000' + value;
+    }
+
+
+    /**
+     * Counts of one locator of one repository item
+     */
+    @Getter
+    @ToString
+    public static final class Stat {
+        private final String objectId;
+        private final @Nullable String pageName;
+        private final String type;
+        private final String value;
+        private volatile long successes;
+        private volatile long failures;
+
+        private Stat(String objectId, @Nullable String pageName, String type, String value) {
+            this.objectId = objectId;
+            this.pageName = pageName;
+            this.type = type;
+            this.value = value;
+        }
+
+        public long getSuccesses() {
+            return successes;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return failures out of all the times the locator was counted, 0 if it was never counted
+         */
+        public double getFailureRate() {
+            long s = successes;
+            long f = failures;
+            return s + f == 0 ? 0 : (double) f / (s + f);
+        }
+
+        /**
+         * @return estimated chance that the locator finds its element. 0.5 for a locator which was never counted
+         */
+        public double getScore() {
+            // Laplace smoothing - one lucky or unlucky call does not make a locator always first or always last
+            return (successes + 1.0) / (successes + failures + 2.0);
+        }
+
+        synchronized void success() {
+            successes++;
+        }
+
+        synchronized void failure() {
+            failures++;
+        }
+
+        private synchronized void clear() {
+            successes = 0;
+            failures = 0;
+        }
+    }
+}
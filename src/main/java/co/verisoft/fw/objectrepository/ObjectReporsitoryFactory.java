@@ -1,7 +1,7 @@
 package co.verisoft.fw.objectrepository;
 
 import co.verisoft.fw.report.observer.Report;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.openqa.selenium.WebDriver;
@@ -9,8 +9,6 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.WrapsElement;
 import org.openqa.selenium.interactions.Locatable;
 
-import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
@@ -23,19 +21,13 @@ import java.util.stream.Stream;
 
 @Slf4j
 public class ObjectReporsitoryFactory {
-    protected static ObjectRepository repository;
+    /**
+     * The repository loaded last. Pages do not use it - each page keeps the repository it was built with
+     */
+    protected static volatile ObjectRepository repository;
 
     static ObjectRepository retrieveObjectRepository(String objectRepositoryFilePath) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        try {
-            File file = new File(objectRepositoryFilePath);
-            return objectMapper.readValue(file, ObjectRepository.class);
-        } catch (NullPointerException e) {
-            throw new RuntimeException("Property 'object.repository.path' is not defined in root.config.properties or default.config.properties file");
-        } catch (IOException e) {
-            log.warn(String.format("Object repository file not found (%s): ", objectRepositoryFilePath) + e);
-            return new ObjectRepository();
-        }
+        return ObjectRepositoryCache.get(objectRepositoryFilePath);
     }
     private static Field[] getAllFields(Object page) {
         List<Field> fields = new ArrayList<>();
@@ -47,7 +39,17 @@ public class ObjectReporsitoryFactory {
         return fields.toArray(new Field[0]);
     }
     public static void initObjects(WebDriver driver, Object page, String objectRepositoryFilePath) {
-        repository = retrieveObjectRepository(objectRepositoryFilePath);
+        long start = TraceRecorder.begin();
+        try {
+            proxyFields(driver, page, objectRepositoryFilePath);
+        } finally {
+            TraceRecorder.end("page", "initObjects " + page.getClass().getSimpleName(), start);
+        }
+    }
+
+    private static void proxyFields(WebDriver driver, Object page, String objectRepositoryFilePath) {
+        ObjectRepository repository = retrieveObjectRepository(objectRepositoryFilePath);
+        ObjectReporsitoryFactory.repository = repository;
         @Nullable String pageName = getPageName(page);
 
         Field[] allFields = getAllFields(page);
@@ -57,7 +59,7 @@ public class ObjectReporsitoryFactory {
             if (field.getType().equals(WebElement.class) &&
                     field.getAnnotation(ObjectRepositoryItem.class) != null) {
                 try {
-                    field.set(page, createWebElementProxy(driver, field.getAnnotation(ObjectRepositoryItem.class).id(), pageName));
+                    field.set(page, createWebElementProxy(driver, repository, field.getAnnotation(ObjectRepositoryItem.class).id(), pageName));
                 } catch (Exception e) {
                     Report.error("Could not proxy object from object repository. Message is " + e.getMessage());
                     throw new RuntimeException(e);
@@ -65,7 +67,7 @@ public class ObjectReporsitoryFactory {
             } else if (isListOfWebElements(field) &&
                     field.getAnnotation(ObjectRepositoryItem.class) != null) {
                 try {
-                    field.set(page, createListWebElementProxy(driver, field.getAnnotation(ObjectRepositoryItem.class).id(), pageName));
+                    field.set(page, createListWebElementProxy(driver, repository, field.getAnnotation(ObjectRepositoryItem.class).id(), pageName));
                 } catch (Exception e) {
                     Report.error("Could not proxy list of objects from object repository. Message is " + e.getMessage());
                     throw new RuntimeException(e);
@@ -85,14 +87,14 @@ public class ObjectReporsitoryFactory {
         return false;
     }
 
-    private static Object createWebElementProxy(WebDriver driver, String elementObjectId, String pageName) {
+    private static Object createWebElementProxy(WebDriver driver, ObjectRepository repository, String elementObjectId, String pageName) {
         return Proxy.newProxyInstance(
                 WebElement.class.getClassLoader(),
                 new Class[]{WebElement.class, WrapsElement.class, Locatable.class},
                 new DynamicWebElement(driver, repository, elementObjectId, pageName));
     }
 
-    private static Object createListWebElementProxy(WebDriver driver, String elementObjectId, String pageName) {
+    private static Object createListWebElementProxy(WebDriver driver, ObjectRepository repository, String elementObjectId, String pageName) {
         return Proxy.newProxyInstance(
                 List.class.getClassLoader(),
                 new Class[]{List.class},
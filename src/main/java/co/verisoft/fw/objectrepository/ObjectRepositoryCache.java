@@ -0,0 +1,143 @@
+package co.verisoft.fw.objectrepository;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of object repository files. Every file is read and parsed once, on first use, and the same
+ * repository is shared by all the pages built from it. Cached repositories are immutable - their lists cannot be
+ * changed, and the locators of every item are sorted by grade, best first.<br>
+ * Files are keyed by their canonical path, so different relative paths to the same file share one entry. A path is
+ * canonicalized once, on its first use.<br>
+ * A file which is missing or cannot be parsed is not cached - every use reports it and tries to read it again, so a
+ * repository fixed during the run is picked up.<br>
+ * Set object.repository.reload=true in root.config.properties to re-read a file when its modification time or size
+ * changes, e.g. while editing the repository in a long running session.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class ObjectRepositoryCache {
+
+    private static final ObjectReader reader = new ObjectMapper().readerFor(ObjectRepository.class);
+    private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    // Path as given to get() -> canonical path, so the file system is asked only on first use of a path
+    private static final Map<String, String> canonicalPaths = new ConcurrentHashMap<>();
+    private static final boolean reload = ConfigValues.getBoolean("object.repository.reload", false);
+
+    private ObjectRepositoryCache() {
+    }
+
+    /**
+     * Get the repository of a file, loading it on first use. A file which cannot be read gives an empty repository
+     *
+     * @param objectRepositoryFilePath path of the repository JSON file
+     * @return the repository
+     */
+    public static ObjectRepository get(String objectRepositoryFilePath) {
+        if (objectRepositoryFilePath == null)
+            throw new RuntimeException("Property 'object.repository.path' is not defined in root.config.properties or default.config.properties file");
+
+        String key = canonicalPaths.computeIfAbsent(objectRepositoryFilePath,
+                path -> canonical(new File(path)).getPath());
+        Entry entry = cache.get(key);
+        if (entry != null && (!reload || entry.isCurrent(new File(key))))
+            return entry.repository;
+
+        // compute() loads each file once even when many pages ask for it at the same time. A failed load leaves no
+        // entry behind
+        File file = new File(key);
+        entry = cache.compute(key, (k, current) ->
+                current != null && (!reload || current.isCurrent(file)) ? current : load(file));
+        return entry == null ? new ObjectRepository(List.of()) : entry.repository;
+    }
+
+    /**
+     * Drop the repository of a file, so it is read again on next use
+     *
+     * @param objectRepositoryFilePath path of the repository JSON file
+     */
+    public static void invalidate(String objectRepositoryFilePath) {
+        String key = canonicalPaths.remove(objectRepositoryFilePath);
+        cache.remove(key != null ? key : canonical(new File(objectRepositoryFilePath)).getPath());
+    }
+
+    /**
+     * Drop all cached repositories
+     */
+    public static void clear() {
+        cache.clear();
+        canonicalPaths.clear();
+    }
+
+    private static @Nullable Entry load(File file) {
+        if (!file.isFile()) {
+            log.warn(String.format("Object repository file not found (%s)", file));
+            return null;
+        }
+
+        long lastModified = file.lastModified();
+        long length = file.length();
+        try {
+            ObjectRepository repository = reader.readValue(file);
+            log.debug("Loaded object repository {}", file);
+            return new Entry(freeze(repository), lastModified, length);
+        } catch (JsonProcessingException e) {
+            log.warn(String.format("Object repository file could not be parsed (%s): ", file) + e.getOriginalMessage());
+            return null;
+        } catch (IOException e) {
+            log.warn(String.format("Object repository file could not be read (%s): ", file) + e);
+            return null;
+        }
+    }
+
+    private static ObjectRepository freeze(ObjectRepository repository) {
+        if (repository.getObjectsRepository() == null)
+            return new ObjectRepository(List.of());
+
+        List<LocatorObject> objects = new ArrayList<>(repository.getObjectsRepository().size());
+        for (LocatorObject object : repository.getObjectsRepository()) {
+            List<Locator> locators = object.getLocators() == null ? new ArrayList<>() : new ArrayList<>(object.getLocators());
+            Collections.sort(locators);
+            objects.add(new LocatorObject(object.getObjectId(), object.getPageName(),
+                    Collections.unmodifiableList(locators)));
+        }
+        return new ObjectRepository(Collections.unmodifiableList(objects));
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static final class Entry {
+        private final ObjectRepository repository;
+        private final long lastModified;
+        private final long length;
+
+        private Entry(ObjectRepository repository, long lastModified, long length) {
+            this.repository = repository;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        private boolean isCurrent(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+}
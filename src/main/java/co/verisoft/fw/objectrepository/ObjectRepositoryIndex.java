@@ -0,0 +1,244 @@
+package co.verisoft.fw.objectrepository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.By;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An object repository compiled for lookup. Items are hashed by their case-folded object id and page name, and every
+ * item holds its locators sorted by grade, best first, with their By objects already built. Finding the locators of
+ * an element is a single hash lookup, and nothing is allocated when the locators are tried.<br>
+ * Lookup follows the repository file: with a page name, the first item with the object id and the page name; without
+ * one, the first item with the object id.<br>
+ * An index is built once per repository (see {@link #of(ObjectRepository)}) and does not change - a repository which
+ * is changed after it was indexed needs a new index.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class ObjectRepositoryIndex {
+
+    // Built at most once per repository. Weak, so repositories which are no longer used can be collected
+    private static final Map<ObjectRepository, ObjectRepositoryIndex> indexes =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, Entry> byIdAndPage;
+    private final Map<String, Entry> byId;
+    @ToString.Include
+    private final int size;
+
+
+    private ObjectRepositoryIndex(List<LocatorObject> objects) {
+        byIdAndPage = new HashMap<>(objects.size() * 2);
+        byId = new HashMap<>(objects.size() * 2);
+        for (LocatorObject object : objects) {
+            if (object.getObjectId() == null)
+                continue;
+            Entry entry = new Entry(object);
+            byId.putIfAbsent(fold(object.getObjectId()), entry);
+            if (object.getPageName() != null)
+                byIdAndPage.putIfAbsent(key(object.getObjectId(), object.getPageName()), entry);
+        }
+        size = byId.size();
+    }
+
+
+    /**
+     * Get the index of a repository, building it on first use
+     *
+     * @param repository the repository
+     * @return the index of the repository
+     */
+    public static ObjectRepositoryIndex of(ObjectRepository repository) {
+        return indexes.computeIfAbsent(repository, r -> build(r.getObjectsRepository()));
+    }
+
+
+    /**
+     * Build a new index
+     *
+     * @param objects items of a repository
+     * @return the index
+     */
+    public static ObjectRepositoryIndex build(@Nullable List<LocatorObject> objects) {
+        return new ObjectRepositoryIndex(objects == null ? List.of() : objects);
+    }
+
+
+    /**
+     * Find an item
+     *
+     * @param objectId object id, any case
+     * @param pageName page name, any case, or null for the first item with the object id
+     * @return the item, null if the repository has no such item
+     */
+    public @Nullable Entry find(String objectId, @Nullable String pageName) {
+        return pageName == null ? byId.get(fold(objectId)) : byIdAndPage.get(key(objectId, pageName));
+    }
+
+
+    /**
+     * Find an item which must exist
+     *
+     * @param objectId object id, any case
+     * @param pageName page name, any case, or null for the first item with the object id
+     * @return the item
+     * @throws IllegalArgumentException if the repository has no such item
+     */
+    public Entry get(String objectId, @Nullable String pageName) {
+        Entry entry = find(objectId, pageName);
+        if (entry == null)
+            throw new IllegalArgumentException("Unable to find a unique locator in object repository during page object initialization," +
+                    "Do you have a locator with page: " + pageName + " and ID: " + objectId + " in the object repository?");
+        return entry;
+    }
+
+
+    /**
+     * @return number of distinct object ids
+     */
+    public int size() {
+        return size;
+    }
+
+
+    private static String key(String objectId, String pageName) {
+        return fold(objectId) + '\u0000' + fold(pageName);
+    }
+
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+
+    /**
+     * The locators of one repository item, best grade first. Locators of unknown type are left out.<br>
+     * When {@link LocatorStatistics#isEnabled()} the locators are tried in ranked order - locators which fail more
+     * often than they work, learned from earlier calls, are moved behind the others. Every
+     * object.repository.adaptive.retry resolutions the locators are tried by grade again.
+     */
+    @Getter
+    @ToString
+    public static final class Entry {
+        private final String objectId;
+        private final @Nullable String pageName;
+        private final List<Locator> locators;
+        @ToString.Exclude
+        private final List<By> bys;
+        // Counts of the locators, looked up on first use so indexing a repository does not touch the statistics
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private volatile LocatorStatistics.Stat[] stats;
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private volatile int[] ranking;
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final int[] gradeOrder;
+        @Getter(AccessLevel.NONE)
+        @ToString.Exclude
+        private final AtomicInteger resolutions = new AtomicInteger();
+
+        private Entry(LocatorObject object) {
+            objectId = object.getObjectId();
+            pageName = object.getPageName();
+
+            List<Locator> sorted = object.getLocators() == null ? new ArrayList<>() : new ArrayList<>(object.getLocators());
+            Collections.sort(sorted);
+            List<Locator> locators = new ArrayList<>(sorted.size());
+            List<By> bys = new ArrayList<>(sorted.size());
+            for (Locator locator : sorted) {
+                By by = AbstractDynamicElement.resolveLocator(locator);
+                if (by == null) {
+                    log.warn("Unknown locator type '{}' of object repository item {} is ignored", locator.getType(),
+                            objectId);
+                    continue;
+                }
+                locators.add(locator);
+                bys.add(by);
+            }
+            this.locators = List.copyOf(locators);
+            this.bys = List.copyOf(bys);
+            this.gradeOrder = new int[locators.size()];
+            for (int i = 0; i < gradeOrder.length; i++)
+                gradeOrder[i] = i;
+        }
+
+        /**
+         * @return positions in {@link #getBys()} in the order to try them. Not to be changed
+         */
+        int[] ranking() {
+            if (!LocatorStatistics.isEnabled())
+                return gradeOrder;
+
+            int[] r = ranking;
+            if (r == null) {
+                LocatorStatistics.Stat[] s = new LocatorStatistics.Stat[locators.size()];
+                for (int i = 0; i < s.length; i++)
+                    s[i] = LocatorStatistics.of(objectId, pageName, locators.get(i));
+                stats = s;
+                r = rank();
+                ranking = r;
+            }
+
+            // A demoted locator gets another try now and then - if it works again it is counted back into its place
+            int retry = LocatorStatistics.getRetryEvery();
+            if (r != gradeOrder && retry > 0 && resolutions.incrementAndGet() % retry == 0)
+                return gradeOrder;
+            return r;
+        }
+
+        /**
+         * Count the outcome of a resolution which tried locators in the order of a ranking: the locator at position
+         * found the element and the ones before it did not
+         *
+         * @param ranking  the ranking the locators were tried in, as returned by {@link #ranking()}
+         * @param position position in ranking of the locator which found the element
+         */
+        void resolved(int[] ranking, int position) {
+            LocatorStatistics.Stat[] s = stats;
+            if (s == null || !LocatorStatistics.isEnabled())
+                return;
+            s[ranking[position]].success();
+            for (int i = 0; i < position; i++)
+                s[ranking[i]].failure();
+            // A failure can demote a locator, and a success on a try by grade can bring it back
+            if (position > 0 || (ranking == gradeOrder && this.ranking != gradeOrder))
+                this.ranking = rank();
+        }
+
+        private int[] rank() {
+            LocatorStatistics.Stat[] s = stats;
+            if (s == null)
+                return gradeOrder;
+            Integer[] order = new Integer[locators.size()];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            // Stable, so locators which work at least as often as they fail stay in grade order, and only the others
+            // are moved behind them, worst last
+            Arrays.sort(order, (a, b) -> Double.compare(health(s[b]), health(s[a])));
+
+            for (int i = 0; i < order.length; i++)
+                if (order[i] != i) {
+                    int[] r = new int[order.length];
+                    for (int j = 0; j < r.length; j++)
+                        r[j] = order[j];
+                    return r;
+                }
+            return gradeOrder;
+        }
+
+        private static double health(LocatorStatistics.Stat stat) {
+            double score = stat.getScore();
+            return score >= 0.5 ? 1 : score;
+        }
+    }
+}
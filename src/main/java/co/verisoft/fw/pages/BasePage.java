@@ -19,6 +19,7 @@ package co.verisoft.fw.pages;
 import co.verisoft.fw.objectrepository.ObjectReporsitoryFactory;
 import co.verisoft.fw.objectrepository.ObjectRepository;
 import co.verisoft.fw.selenium.drivers.VerisoftMobileDriver;
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
 import co.verisoft.fw.utils.Property;
 import co.verisoft.fw.utils.Waits;
 import io.appium.java_client.android.AndroidDriver;
@@ -60,12 +61,14 @@ public abstract class BasePage {
      * @param driver a WebDriver object to store and use
      */
     public BasePage(WebDriver driver) {
+        long start = TraceRecorder.begin();
         Property prop = new Property();
         timeOut = prop.getIntProperty("selenium.wait.timeout");
         pollingInterval = prop.getIntProperty("polling.interval");
         this.driver = driver;
         initElementsPageFactory(driver);
         ObjectReporsitoryFactory.initObjects(driver, this, getRepositoryPath());
+        TraceRecorder.end("page", getClass().getSimpleName(), start);
     }
 
     /**
@@ -75,12 +78,14 @@ public abstract class BasePage {
      * @param objectRepositoryFilePath a custom path to the object repository file
      */
     public BasePage(WebDriver driver, String objectRepositoryFilePath) {
+        long start = TraceRecorder.begin();
         Property prop = new Property();
         timeOut = prop.getIntProperty("selenium.wait.timeout");
         pollingInterval = prop.getIntProperty("polling.interval");
         this.driver = driver;
         initElementsPageFactory(driver);
         ObjectReporsitoryFactory.initObjects(driver, this, objectRepositoryFilePath);
+        TraceRecorder.end("page", getClass().getSimpleName(), start);
     }
 
     /**
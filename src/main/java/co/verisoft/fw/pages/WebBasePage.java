@@ -18,6 +18,9 @@
 package co.verisoft.fw.pages;
 
 
+import co.verisoft.fw.selenium.drivers.batch.BatchElementReader;
+import co.verisoft.fw.selenium.drivers.batch.ElementRead;
+import co.verisoft.fw.selenium.drivers.batch.ElementReadResult;
 import co.verisoft.fw.utils.Waits;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -72,6 +75,16 @@ public abstract class WebBasePage extends BasePage implements WebBasePageJS {
         log.debug("Created new page object instance: " + this.getClass());
     }
 
+    /**
+     * Java Script functions of the page run on the page's own driver
+     *
+     * @return the page driver
+     */
+    @Override
+    public WebDriver getJSDriver() {
+        return driver;
+    }
+
     /**
      * mouse hover using Selenium Actions
      *
@@ -91,9 +104,12 @@ public abstract class WebBasePage extends BasePage implements WebBasePageJS {
             return "size of params didn't match to list size";
         }
 
+        // All texts are read in one round-trip
+        List<ElementReadResult> texts = BatchElementReader.read(driver, webText, ElementRead.text());
         for (int i = 0; i < listText.length; i++) {
-            if (!webText.get(i).getText().equals(listText[i]))
-                result += "<br>" + "expected : " + listText[i] + "actual : " + webText.get(i).getText();
+            String actual = texts.get(i).getText();
+            if (!actual.equals(listText[i]))
+                result += "<br>" + "expected : " + listText[i] + "actual : " + actual;
         }
 
         return result;
@@ -22,6 +22,7 @@ import co.verisoft.fw.selenium.drivers.VerisoftDriverManager;
 import co.verisoft.fw.utils.Property;
 import co.verisoft.fw.utils.Waits;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
 import java.util.Objects;
@@ -38,13 +39,24 @@ public interface WebBasePageJS {
 
     int timeout = new Property().getIntProperty("selenium.wait.timeout");
 
+
+    /**
+     * The driver the Java Script functions run on. By default, the driver of the current driver context. Pages which
+     * hold their own driver return it, so they do not depend on the thread they are used from
+     *
+     * @return WebDriver object
+     */
+    default WebDriver getJSDriver() {
+        return VerisoftDriverManager.getDriver();
+    }
+
     /**
      * click on element by using Java Script
      *
      * @param element Webelement element
      */
     default void clickOnElementByJS(WebElement element) {
-        ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript("arguments[0].click();", element);
     }
 
@@ -63,7 +75,7 @@ public interface WebBasePageJS {
                         "else if(document.createEventObject) { " +
                         "arguments[0].fireEvent('onmouseover');}";
 
-        ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript(mouseOverScript, element);
     }
 
@@ -75,7 +87,7 @@ public interface WebBasePageJS {
      * @return RGB(Red, Green, Blue)
      */
     default String getBeforePseudoCode(WebElement element) {
-        return ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        return ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript("return window.getComputedStyle(arguments[0], ':before')" +
                                 ".getPropertyValue('background-color');"
                         , element).toString();
@@ -87,7 +99,7 @@ public interface WebBasePageJS {
      */
     default void openNewTab() {
 
-        ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript("window.open()");
     }
 
@@ -97,7 +109,7 @@ public interface WebBasePageJS {
      * @return return Shadow root element
      */
     default WebElement getShadowRoot(WebElement rootElement) {
-        return (WebElement) ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        return (WebElement) ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript("return arguments[0].shadowRoot", rootElement);
     }
 
@@ -109,7 +121,7 @@ public interface WebBasePageJS {
      * @return RGB(red, green, blue, blur)
      */
     default String getColorOfBeforeCssAtter(WebElement element) {
-        return ((JavascriptExecutor) Objects.requireNonNull(VerisoftDriverManager.getDriver()))
+        return ((JavascriptExecutor) Objects.requireNonNull(getJSDriver()))
                 .executeScript("return window.getComputedStyle(arguments[0], ':before')" +
                                 ".getPropertyValue('background-color');",
                         element).toString();
@@ -120,9 +132,10 @@ public interface WebBasePageJS {
      * open new window (tab depend on driver version)
      */
     default void openNewTabAndSwitchToIt() {
-        Set<String> windows = VerisoftDriverManager.getDriver().getWindowHandles();
-        ((JavascriptExecutor) VerisoftDriverManager.getDriver()).executeScript("window.open();");
-        Waits.numberOfWindowsToBeAndSwitchTo(VerisoftDriverManager.getDriver(), timeout,
+        WebDriver driver = Objects.requireNonNull(getJSDriver());
+        Set<String> windows = driver.getWindowHandles();
+        ((JavascriptExecutor) driver).executeScript("window.open();");
+        Waits.numberOfWindowsToBeAndSwitchTo(driver, timeout,
                 windows.size() + 1, windows.size());
     }
 }
@@ -19,12 +19,16 @@
 package co.verisoft.fw.selenium.drivers;
 
 import co.verisoft.fw.async.AsyncListenerImp;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator;
+import co.verisoft.fw.selenium.drivers.http.SharedHttpClientFactory;
 import co.verisoft.fw.selenium.listeners.*;
+import co.verisoft.fw.selenium.metrics.DriverMetrics;
+import co.verisoft.fw.selenium.metrics.MetricsListener;
 import co.verisoft.fw.utils.Property;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.DriverManagerType;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -43,7 +47,6 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.safari.SafariOptions;
 import org.openqa.selenium.support.decorators.WebDriverDecorator;
-import org.openqa.selenium.support.events.EventFiringDecorator;
 import org.openqa.selenium.support.events.WebDriverListener;
 
 import java.net.URL;
@@ -72,7 +75,7 @@ import java.util.Set;
  * 2. Extended logging<br>
  * 3. All available events included within the Selenium framework are registered. See events in the "See Also"
  * section<br>
- * 4. WebDriver is wrapped with EventFiringDecorator. See in the "See Also" section <br>
+ * 4. WebDriver is wrapped with ListenerDispatchDecorator. See in the "See Also" section <br>
  * <br><br>
  * The driver is instanciated by specifying the relevant DesiredCapabilities, and if the driver is a remote driver,
  * specifying remote url. All of VeriSoft's ctors expectes at least
@@ -120,6 +123,7 @@ import java.util.Set;
  * @author <a href="mailto:nir@verisoft.co">Nir Gallner</a> @ <a href="http://www.verisoft.co">www.VeriSoft.co</a>
  * @see org.openqa.selenium.remote.RemoteWebDriver
  * @see co.verisoft.fw.async.AsyncTask
+ * @see co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator
  * @since 1.9.6
  */
 
@@ -174,6 +178,8 @@ public class DecoratedDriver implements
 
         List<WebDriverListener> webDriverlisteners = new ArrayList<>();
 
+        if (DriverMetrics.isEnabled())
+            webDriverlisteners.add(new MetricsListener(VerisoftDriverManager.getCurrentDriverName()));
         webDriverlisteners.add(new AlertListener());
         webDriverlisteners.add(new NavigationListener());
         webDriverlisteners.add(new OptionsListener());
@@ -202,7 +208,10 @@ public class DecoratedDriver implements
         WebDriverListener[] listenersArr = new WebDriverListener[listeners.size()];
         listenersArr = listeners.toArray(listenersArr);
 
-        decoratedDriver = new EventFiringDecorator(listenersArr).decorate(decoratedDriver);
+        ListenerDispatchDecorator decorator = new ListenerDispatchDecorator(listenersArr);
+        if (asyncListener != null && listeners.contains(asyncListener))
+            asyncListener.attach(decorator.getRegistry());
+        decoratedDriver = decorator.decorate(decoratedDriver);
         VerisoftDriverManager.addDriverToMap(decoratedDriver);
     }
 
@@ -246,7 +255,7 @@ public class DecoratedDriver implements
             if (platformName.equalsIgnoreCase("android")) {
                 originalDriver = remoteAddress == null ?
                         new AndroidDriver(capabilities) :
-                        new AndroidDriver(remoteAddress, capabilities);
+                        new AndroidDriver(remoteAddress, SharedHttpClientFactory.getFactory(), capabilities);
             }
 
 
@@ -254,14 +263,14 @@ public class DecoratedDriver implements
             else if (platformName.equalsIgnoreCase("ios")) {
                 originalDriver = remoteAddress == null ?
                         new IOSDriver(capabilities) :
-                        new IOSDriver(remoteAddress, capabilities);
+                        new IOSDriver(remoteAddress, SharedHttpClientFactory.getFactory(), capabilities);
             }
 
             // Appium generic
             else {
                 originalDriver = remoteAddress == null ?
                         new AppiumDriver(capabilities) :
-                        new AppiumDriver(remoteAddress, capabilities);
+                        new AppiumDriver(remoteAddress, SharedHttpClientFactory.getFactory(), capabilities);
             }
         }
 
@@ -271,7 +280,8 @@ public class DecoratedDriver implements
             if (remoteAddress == null) {
                 originalDriver = instanciateLocalDriver(capabilities);
             } else {
-                originalDriver = new RemoteWebDriver(remoteAddress, capabilities);
+                originalDriver = new RemoteWebDriver(SharedHttpClientFactory.newCommandExecutor(remoteAddress),
+                        capabilities);
             }
         }
 
@@ -295,10 +305,7 @@ public class DecoratedDriver implements
 
             case "chrome":
                 String version = prop.getProperty("chromeDriverVersion");
-                if (!version.isEmpty())
-                    WebDriverManager.chromedriver().clearDriverCache().driverVersion(version).setup();
-                else
-                    WebDriverManager.chromedriver().clearDriverCache().setup();
+                String driverPath = DriverBinaryResolver.resolve(DriverManagerType.CHROME, version);
 
                 ChromeOptions chromeOptions = new ChromeOptions();
                 isHeadless = capabilities.is("headless");
@@ -306,15 +313,15 @@ public class DecoratedDriver implements
                     chromeOptions.addArguments("--headless");
 
                 chromeOptions.merge(capabilities);
-                return new ChromeDriver(chromeOptions);
+                return LocalDriverServices.newChromeDriver(driverPath, chromeOptions);
 
             case "firefox":
 
                 try {
-                    WebDriverManager.firefoxdriver().setup();
+                    driverPath = DriverBinaryResolver.resolve(DriverManagerType.FIREFOX, null);
                 } catch (Throwable t) {
                     version = prop.getProperty("geckoDriverVersion");
-                    WebDriverManager.firefoxdriver().driverVersion(version).setup();
+                    driverPath = DriverBinaryResolver.resolve(DriverManagerType.FIREFOX, version);
                 }
 
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
@@ -323,14 +330,14 @@ public class DecoratedDriver implements
                     firefoxOptions.addArguments("--headless");
 
                 firefoxOptions.merge(capabilities);
-                return new FirefoxDriver(firefoxOptions);
+                return LocalDriverServices.newFirefoxDriver(driverPath, firefoxOptions);
 
             case "ie":
                 try {
-                    WebDriverManager.iedriver().setup();
+                    DriverBinaryResolver.resolve(DriverManagerType.IEXPLORER, null);
                 } catch (Throwable t) {
                     version = prop.getProperty("internetExplorerVersion");
-                    WebDriverManager.iedriver().driverVersion(version).setup();
+                    DriverBinaryResolver.resolve(DriverManagerType.IEXPLORER, version);
                 }
 
                 InternetExplorerOptions ieOptions = new InternetExplorerOptions();
@@ -339,22 +346,22 @@ public class DecoratedDriver implements
 
             case "edge":
                 try {
-                    WebDriverManager.edgedriver().setup();
+                    driverPath = DriverBinaryResolver.resolve(DriverManagerType.EDGE, null);
                 } catch (Throwable t) {
                     version = prop.getProperty("edgeDriverVersion");
-                    WebDriverManager.edgedriver().driverVersion(version).setup();
+                    driverPath = DriverBinaryResolver.resolve(DriverManagerType.EDGE, version);
                 }
 
                 EdgeOptions edgeOptions = new EdgeOptions();
                 edgeOptions.merge(capabilities);
-                return new EdgeDriver(edgeOptions);
+                return LocalDriverServices.newEdgeDriver(driverPath, edgeOptions);
 
             case "safari":
                 try {
-                    WebDriverManager.safaridriver().setup();
+                    DriverBinaryResolver.resolve(DriverManagerType.SAFARI, null);
                 } catch (Throwable t) {
                     version = prop.getProperty("safariDriverVersion");
-                    WebDriverManager.safaridriver().driverVersion(version).setup();
+                    DriverBinaryResolver.resolve(DriverManagerType.SAFARI, version);
                 }
 
                 SafariOptions safariOptions = new SafariOptions();
@@ -406,6 +413,7 @@ public class DecoratedDriver implements
     @Override
     public void quit() {
         decoratedDriver.quit();
+        VerisoftDriverManager.removeDriver(decoratedDriver);
     }
 
     @Override
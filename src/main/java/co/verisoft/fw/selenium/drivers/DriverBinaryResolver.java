@@ -0,0 +1,210 @@
+package co.verisoft.fw.selenium.drivers;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.DriverManagerType;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves local driver binaries (chromedriver, geckodriver etc.) through WebDriverManager once per process.<br>
+ * WebDriverManager setup() detects the installed browser version and looks up the matching driver on every call,
+ * which costs a few external processes and possibly network calls per driver. The resolved path is cached here, keyed
+ * by browser and requested driver version, so only the first local driver of each kind pays for it - also when tests
+ * run in parallel, where concurrent requests for the same key wait for a single resolution. Requests for other keys
+ * do not wait for it, and a resolution which fails is not cached, so the next request tries again.
+ * <br><br>
+ * Every resolved path is also saved to a properties file on disk. With offline mode on, a saved path whose binary
+ * still exists is used directly without calling WebDriverManager at all, so local driver startup is just the browser
+ * launch. Configuration (root.config.properties or -D system properties):
+ * <ul>
+ *     <li>driver.binary.offline - reuse the last resolved paths from disk. Default false</li>
+ *     <li>driver.binary.cache.file - location of the saved paths. Default
+ *     ~/.cache/verisoft/driver-binaries.properties</li>
+ * </ul>
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class DriverBinaryResolver {
+
+    private static final String LATEST = "latest";
+    private static final Map<String, CompletableFuture<Optional<String>>> resolved = new ConcurrentHashMap<>();
+    private static Properties saved;
+
+
+    private DriverBinaryResolver() {
+    }
+
+
+    /**
+     * Resolve the driver binary for a browser, and export it as the system property the Selenium driver service
+     * reads (webdriver.chrome.driver etc.).
+     *
+     * @param type    browser type
+     * @param version requested driver version, or null/empty for the version matching the installed browser
+     * @return path to the driver binary, or null if the browser does not need one (e.g. Safari)
+     */
+    public static @Nullable String resolve(DriverManagerType type, @Nullable String version) {
+        String key = type.name() + "." + (version == null || version.isBlank() ? LATEST : version.trim());
+        String path = resolved(key, type, version);
+
+        String exportProperty = getExportProperty(type);
+        if (path != null && exportProperty != null)
+            System.setProperty(exportProperty, path);
+        return path;
+    }
+
+
+    /**
+     * Forget the paths resolved in this process. The file on disk is kept.
+     */
+    public static void clear() {
+        resolved.clear();
+    }
+
+
+    private static @Nullable String resolved(String key, DriverManagerType type, @Nullable String version) {
+        CompletableFuture<Optional<String>> future = resolved.get(key);
+        if (future == null) {
+            // Resolved outside the map - WebDriverManager may take seconds, and must not block other keys meanwhile
+            CompletableFuture<Optional<String>> mine = new CompletableFuture<>();
+            future = resolved.putIfAbsent(key, mine);
+            if (future == null) {
+                future = mine;
+                try {
+                    mine.complete(Optional.ofNullable(lookup(key, type, version)));
+                } catch (RuntimeException | Error e) {
+                    resolved.remove(key, mine);
+                    mine.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+
+        try {
+            return future.join().orElse(null);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+
+    private static @Nullable String lookup(String key, DriverManagerType type, @Nullable String version) {
+        if (ConfigValues.getBoolean("driver.binary.offline", false)) {
+            String path = getSaved().getProperty(key);
+            if (path != null && Files.isExecutable(Paths.get(path))) {
+                log.debug("Using saved driver binary {} for {}", path, key);
+                return path;
+            }
+            log.info("No saved driver binary for {}, resolving with WebDriverManager", key);
+        }
+
+        long start = System.nanoTime();
+        WebDriverManager manager = WebDriverManager.getInstance(type);
+        if (version != null && !version.isBlank())
+            manager.driverVersion(version.trim());
+        manager.setup();
+        String path = manager.getDownloadedDriverPath();
+        log.debug("Resolved driver binary {} for {} in {} ms", path, key, (System.nanoTime() - start) / 1_000_000);
+
+        if (path != null)
+            save(key, path);
+        return path;
+    }
+
+
+    private static @Nullable String getExportProperty(DriverManagerType type) {
+        switch (type) {
+            case CHROME:
+            case CHROMIUM:
+                return "webdriver.chrome.driver";
+            case FIREFOX:
+                return "webdriver.gecko.driver";
+            case EDGE:
+                return "webdriver.edge.driver";
+            case IEXPLORER:
+                return "webdriver.ie.driver";
+            case OPERA:
+                return "webdriver.opera.driver";
+            default:
+                return null;
+        }
+    }
+
+
+    private static Path getCacheFile() {
+        String file = ConfigValues.getString("driver.binary.cache.file", null);
+        if (file != null)
+            return Paths.get(file);
+        return Paths.get(System.getProperty("user.home"), ".cache", "verisoft", "driver-binaries.properties");
+    }
+
+
+    private static synchronized Properties getSaved() {
+        if (saved == null) {
+            saved = new Properties();
+            Path file = getCacheFile();
+            if (Files.exists(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    saved.load(in);
+                } catch (IOException e) {
+                    log.warn("Could not read saved driver binaries from {}", file, e);
+                }
+            }
+        }
+        return saved;
+    }
+
+
+    private static synchronized void save(String key, String path) {
+        Properties properties = getSaved();
+        if (path.equals(properties.getProperty(key)))
+            return;
+
+        properties.setProperty(key, path);
+        Path file = getCacheFile();
+        try {
+            if (file.getParent() != null)
+                Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, "Driver binaries resolved by WebDriverManager");
+            }
+        } catch (IOException e) {
+            log.warn("Could not save driver binary path to {}", file, e);
+        }
+    }
+}
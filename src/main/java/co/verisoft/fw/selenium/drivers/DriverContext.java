@@ -0,0 +1,200 @@
+package co.verisoft.fw.selenium.drivers;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The execution context drivers are registered under in {@link VerisoftDriverManager} - typically a single test, or a
+ * test class for @SingleSession classes.<br>
+ * A context is bound to the thread running the test. Driver lookups start at the bound context and continue to its
+ * parent, so drivers registered for a test class are visible from its test methods.<br>
+ * Contexts are compared by identity. VerisoftDriverManager only holds them weakly, so once a context is no longer
+ * referenced (e.g. the JUnit extension context holding it is discarded) its registrations are dropped.
+ * <br><br>
+ * Since the context is not tied to a thread, work can fan out to other threads (an executor, virtual threads on
+ * newer JVMs) and still resolve the drivers of the test. The context is carried explicitly and only for the duration
+ * of the task, in the spirit of scoped values:
+ * <pre>{@code
+ * ExecutorService executor = Executors.newFixedThreadPool(10);
+ * executor.submit(DriverContext.wrap(() -> new HomePage(VerisoftDriverManager.getDriver()).search("...")));
+ *
+ * // Or wrap the whole executor
+ * Executor propagating = DriverContext.propagating(executor);
+ * }</pre>
+ *
+ * @since 2.3.2
+ */
+public final class DriverContext {
+
+    private static final ThreadLocal<DriverContext> current = new ThreadLocal<>();
+
+    private final String name;
+    private final @Nullable DriverContext parent;
+
+
+    private DriverContext(String name, @Nullable DriverContext parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+
+    /**
+     * Create a new context
+     *
+     * @param name   descriptive name, e.g. the JUnit unique id of the test
+     * @param parent enclosing context, or null
+     * @return a new context
+     */
+    public static DriverContext create(String name, @Nullable DriverContext parent) {
+        return new DriverContext(name, parent);
+    }
+
+
+    /**
+     * Bind a context to the current thread. Drivers created on this thread are registered under it.
+     *
+     * @param context the context, or null to unbind
+     */
+    public static void bind(@Nullable DriverContext context) {
+        if (context == null)
+            current.remove();
+        else
+            current.set(context);
+    }
+
+
+    /**
+     * @return the context bound to the current thread, or null if none
+     */
+    public static @Nullable DriverContext getBound() {
+        return current.get();
+    }
+
+
+    /**
+     * Run a task with a context bound, restoring the previous binding afterwards
+     *
+     * @param context the context to bind while the task runs, may be null
+     * @param task    the task
+     */
+    public static void runWith(@Nullable DriverContext context, Runnable task) {
+        DriverContext previous = current.get();
+        bind(context);
+        try {
+            task.run();
+        } finally {
+            bind(previous);
+        }
+    }
+
+
+    /**
+     * Call a task with a context bound, restoring the previous binding afterwards
+     *
+     * @param context the context to bind while the task runs, may be null
+     * @param task    the task
+     * @param <T>     result type
+     * @return the result of the task
+     * @throws Exception if the task throws
+     */
+    public static <T> T callWith(@Nullable DriverContext context, Callable<T> task) throws Exception {
+        DriverContext previous = current.get();
+        bind(context);
+        try {
+            return task.call();
+        } finally {
+            bind(previous);
+        }
+    }
+
+
+    /**
+     * Capture the context bound to the calling thread, and bind it around the task wherever it runs
+     *
+     * @param task the task
+     * @return a task running with the captured context
+     */
+    public static Runnable wrap(Runnable task) {
+        DriverContext captured = current.get();
+        return () -> runWith(captured, task);
+    }
+
+
+    /**
+     * Capture the context bound to the calling thread, and bind it around the task wherever it runs
+     *
+     * @param task the task
+     * @param <T>  result type
+     * @return a task running with the captured context
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        DriverContext captured = current.get();
+        return () -> callWith(captured, task);
+    }
+
+
+    /**
+     * Capture the context bound to the calling thread, and bind it around the supplier wherever it runs. Useful with
+     * CompletableFuture.supplyAsync
+     *
+     * @param supplier the supplier
+     * @param <T>      result type
+     * @return a supplier running with the captured context
+     */
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        DriverContext captured = current.get();
+        return () -> {
+            DriverContext previous = current.get();
+            bind(captured);
+            try {
+                return supplier.get();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+
+    /**
+     * Decorate an executor so every task submitted runs with the context of the submitting thread
+     *
+     * @param executor the executor to delegate to
+     * @return a context propagating executor
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+
+
+    public String getName() {
+        return name;
+    }
+
+    public @Nullable DriverContext getParent() {
+        return parent;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverContext{" + name + "}";
+    }
+}
@@ -0,0 +1,376 @@
+package co.verisoft.fw.selenium.drivers;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Long-lived driver services (chromedriver, msedgedriver, geckodriver processes) for local drivers.<br>
+ * A plain {@code new ChromeDriver(options)} spawns a new chromedriver process on a new port for every session, and
+ * stops it when the session quits. Here the process is kept and new sessions are created against it, so spawning the
+ * driver executable is no longer part of the cost of a test:
+ * <ul>
+ *     <li>chromedriver and msedgedriver serve any number of concurrent sessions, so there is one service per
+ *     driver executable, shared by all threads</li>
+ *     <li>geckodriver serves a single session at a time, so services are leased - a session takes an idle service
+ *     (or starts one) and hands it back when it quits</li>
+ * </ul>
+ * All services are stopped at JVM exit. Set driver.service.reuse=false (root.config.properties or -D) to go back to
+ * a service per session.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class LocalDriverServices {
+
+    private static final Map<String, SharedChromeDriverService> chromeServices = new HashMap<>();
+    private static final Map<String, SharedEdgeDriverService> edgeServices = new HashMap<>();
+    private static final Map<String, Deque<LeasedGeckoDriverService>> idleGeckoServices = new HashMap<>();
+    private static final List<DriverService> allServices = new ArrayList<>();
+    private static boolean shutdownHookAdded;
+
+
+    private LocalDriverServices() {
+    }
+
+
+    /**
+     * @return true if sessions should be created against reused driver services
+     */
+    public static boolean isEnabled() {
+        return ConfigValues.getBoolean("driver.service.reuse", true);
+    }
+
+
+    /**
+     * Create a local Chrome session
+     *
+     * @param executable path to chromedriver, or null to let Selenium find it
+     * @param options    chrome options
+     * @return a new ChromeDriver
+     */
+    public static ChromeDriver newChromeDriver(@Nullable String executable, ChromeOptions options) {
+        if (!isEnabled())
+            return new ChromeDriver(options);
+        return new ChromeDriver(getChromeService(executable), options);
+    }
+
+
+    /**
+     * Create a local Edge session
+     *
+     * @param executable path to msedgedriver, or null to let Selenium find it
+     * @param options    edge options
+     * @return a new EdgeDriver
+     */
+    public static EdgeDriver newEdgeDriver(@Nullable String executable, EdgeOptions options) {
+        if (!isEnabled())
+            return new EdgeDriver(options);
+        return new EdgeDriver(getEdgeService(executable), options);
+    }
+
+
+    /**
+     * Create a local Firefox session
+     *
+     * @param executable path to geckodriver, or null to let Selenium find it
+     * @param options    firefox options
+     * @return a new FirefoxDriver
+     */
+    public static FirefoxDriver newFirefoxDriver(@Nullable String executable, FirefoxOptions options) {
+        if (!isEnabled())
+            return new FirefoxDriver(options);
+
+        LeasedGeckoDriverService service = leaseGeckoService(executable);
+        try {
+            return new FirefoxDriver(service, options);
+        } catch (RuntimeException e) {
+            service.stop();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Stop all driver services. Called at JVM exit.
+     */
+    public static synchronized void shutdown() {
+        for (DriverService service : allServices) {
+            try {
+                ((SharedService) service).shutdown();
+            } catch (Exception e) {
+                log.debug("Error stopping driver service {}", service.getUrl(), e);
+            }
+        }
+        allServices.clear();
+        chromeServices.clear();
+        edgeServices.clear();
+        idleGeckoServices.clear();
+    }
+
+
+    private static synchronized ChromeDriverService getChromeService(@Nullable String executable) {
+        String key = executable == null ? "" : executable;
+        SharedChromeDriverService service = chromeServices.get(key);
+        if (service == null || service.isDead()) {
+            if (service != null)
+                discard(service);
+            service = (SharedChromeDriverService) register(
+                    withExecutable(new SharedChromeDriverService.Builder(), executable).build());
+            chromeServices.put(key, service);
+            log.debug("Created shared chromedriver service {}", service.getUrl());
+        }
+        return service;
+    }
+
+
+    private static synchronized EdgeDriverService getEdgeService(@Nullable String executable) {
+        String key = executable == null ? "" : executable;
+        SharedEdgeDriverService service = edgeServices.get(key);
+        if (service == null || service.isDead()) {
+            if (service != null)
+                discard(service);
+            service = (SharedEdgeDriverService) register(
+                    withExecutable(new SharedEdgeDriverService.Builder(), executable).build());
+            edgeServices.put(key, service);
+            log.debug("Created shared msedgedriver service {}", service.getUrl());
+        }
+        return service;
+    }
+
+
+    private static synchronized LeasedGeckoDriverService leaseGeckoService(@Nullable String executable) {
+        String key = executable == null ? "" : executable;
+        Deque<LeasedGeckoDriverService> idle = idleGeckoServices.computeIfAbsent(key, k -> new ArrayDeque<>());
+        LeasedGeckoDriverService service;
+        while ((service = idle.pollFirst()) != null) {
+            if (!service.isDead()) {
+                service.leased = true;
+                return service;
+            }
+            discard(service);
+        }
+
+        service = (LeasedGeckoDriverService) register(
+                withExecutable(new LeasedGeckoDriverService.Builder(), executable).build());
+        service.key = key;
+        service.leased = true;
+        log.debug("Created geckodriver service {}", service.getUrl());
+        return service;
+    }
+
+
+    private static synchronized void returnGeckoService(LeasedGeckoDriverService service) {
+        if (!service.leased)
+            return;
+        service.leased = false;
+        if (allServices.contains(service))
+            idleGeckoServices.computeIfAbsent(service.key, k -> new ArrayDeque<>()).addLast(service);
+    }
+
+
+    private static <B extends DriverService.Builder<?, ?>> B withExecutable(B builder, @Nullable String executable) {
+        if (executable != null)
+            builder.usingDriverExecutable(new File(executable));
+        return builder;
+    }
+
+
+    private static DriverService register(DriverService service) {
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(LocalDriverServices::shutdown, "driver-services-shutdown"));
+            shutdownHookAdded = true;
+        }
+        allServices.add(service);
+        return service;
+    }
+
+
+    private static void discard(DriverService service) {
+        log.debug("Driver service {} is no longer running, replacing it", service.getUrl());
+        allServices.remove(service);
+        ((SharedService) service).shutdown();
+    }
+
+
+    /**
+     * A service whose process outlives the sessions created against it. Selenium stops the service of a driver when
+     * the session quits - for a shared service that call must not stop the process.
+     */
+    private interface SharedService {
+
+        /**
+         * Really stop the driver process
+         */
+        void shutdown();
+
+        /**
+         * @return true if the process was started and is gone
+         */
+        boolean isDead();
+    }
+
+
+    private static final class SharedChromeDriverService extends ChromeDriverService implements SharedService {
+        private volatile boolean started;
+
+        SharedChromeDriverService(File executable, int port, Duration timeout, List<String> args,
+                                  Map<String, String> environment) throws IOException {
+            super(executable, port, timeout, args, environment);
+        }
+
+        @Override
+        public void start() throws IOException {
+            super.start();
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            // Session ended, the process stays up for the next one
+        }
+
+        @Override
+        public void shutdown() {
+            super.stop();
+        }
+
+        @Override
+        public boolean isDead() {
+            return started && !isRunning();
+        }
+
+        private static final class Builder extends ChromeDriverService.Builder {
+            @Override
+            protected ChromeDriverService createDriverService(File exe, int port, Duration timeout, List<String> args,
+                                                              Map<String, String> environment) {
+                try {
+                    return new SharedChromeDriverService(exe, port, timeout, args, environment);
+                } catch (IOException e) {
+                    throw new WebDriverException(e);
+                }
+            }
+        }
+    }
+
+
+    private static final class SharedEdgeDriverService extends EdgeDriverService implements SharedService {
+        private volatile boolean started;
+
+        SharedEdgeDriverService(File executable, int port, Duration timeout, List<String> args,
+                                Map<String, String> environment) throws IOException {
+            super(executable, port, timeout, args, environment);
+        }
+
+        @Override
+        public void start() throws IOException {
+            super.start();
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            // Session ended, the process stays up for the next one
+        }
+
+        @Override
+        public void shutdown() {
+            super.stop();
+        }
+
+        @Override
+        public boolean isDead() {
+            return started && !isRunning();
+        }
+
+        private static final class Builder extends EdgeDriverService.Builder {
+            @Override
+            protected EdgeDriverService createDriverService(File exe, int port, Duration timeout, List<String> args,
+                                                            Map<String, String> environment) {
+                try {
+                    return new SharedEdgeDriverService(exe, port, timeout, args, environment);
+                } catch (IOException e) {
+                    throw new WebDriverException(e);
+                }
+            }
+        }
+    }
+
+
+    private static final class LeasedGeckoDriverService extends GeckoDriverService implements SharedService {
+        private String key = "";
+        private boolean leased;
+        private volatile boolean started;
+
+        LeasedGeckoDriverService(File executable, int port, Duration timeout, List<String> args,
+                                 Map<String, String> environment) throws IOException {
+            super(executable, port, timeout, args, environment);
+        }
+
+        @Override
+        public void start() throws IOException {
+            super.start();
+            started = true;
+        }
+
+        @Override
+        public void stop() {
+            // Session ended, hand the process to the next session
+            returnGeckoService(this);
+        }
+
+        @Override
+        public void shutdown() {
+            super.stop();
+        }
+
+        @Override
+        public boolean isDead() {
+            return started && !isRunning();
+        }
+
+        private static final class Builder extends GeckoDriverService.Builder {
+            @Override
+            protected GeckoDriverService createDriverService(File exe, int port, Duration timeout, List<String> args,
+                                                             Map<String, String> environment) {
+                try {
+                    return new LeasedGeckoDriverService(exe, port, timeout, args, environment);
+                } catch (IOException e) {
+                    throw new WebDriverException(e);
+                }
+            }
+        }
+    }
+}
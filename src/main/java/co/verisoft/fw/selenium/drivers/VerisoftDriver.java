@@ -21,6 +21,17 @@ package co.verisoft.fw.selenium.drivers;
 import co.verisoft.fw.async.AsyncListenerImp;
 import co.verisoft.fw.report.observer.ReportLevel;
 import co.verisoft.fw.selenium.listeners.*;
+import co.verisoft.fw.selenium.metrics.DriverMetrics;
+import co.verisoft.fw.selenium.metrics.MetricsListener;
+import co.verisoft.fw.selenium.metrics.TestTimeline;
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
+import co.verisoft.fw.selenium.drivers.batch.BatchElementReader;
+import co.verisoft.fw.selenium.drivers.batch.ElementRead;
+import co.verisoft.fw.selenium.drivers.batch.ElementReadResult;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerRegistry;
+import co.verisoft.fw.selenium.drivers.http.SharedHttpClientFactory;
+import co.verisoft.fw.selenium.drivers.pool.DriverPool;
 import co.verisoft.fw.selenium.observers.PerfectoLogObserver;
 import co.verisoft.fw.store.Store;
 import co.verisoft.fw.store.StoreManager;
@@ -35,7 +46,7 @@ import com.perfecto.reportium.test.TestContext;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.remote.MobilePlatform;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.config.DriverManagerType;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
@@ -59,7 +70,6 @@ import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.safari.SafariDriver;
 import org.openqa.selenium.safari.SafariOptions;
 import org.openqa.selenium.support.decorators.Decorated;
-import org.openqa.selenium.support.events.EventFiringDecorator;
 import org.openqa.selenium.support.events.WebDriverListener;
 import org.openqa.selenium.virtualauthenticator.HasVirtualAuthenticator;
 import org.openqa.selenium.virtualauthenticator.VirtualAuthenticator;
@@ -90,7 +100,7 @@ import java.util.concurrent.TimeUnit;
  * 2. Extended logging<br>
  * 3. All available events included within the Selenium framework are registered. See events in the "See Also"
  * section<br>
- * 4. WebDriver is wrapped with EventFiringDecorator. See in the "See Also" section <br>
+ * 4. WebDriver is wrapped with ListenerDispatchDecorator. See in the "See Also" section <br>
  * <br><br>
  * The driver is instanciated by specifying the relevant DesiredCapabilities, and if the driver is a remote driver,
  * specifying remote url. All of VeriSoft's ctors expectes at least
@@ -138,6 +148,7 @@ import java.util.concurrent.TimeUnit;
  * @author <a href="mailto:nir@verisoft.co">Nir Gallner</a> @ <a href="http://www.verisoft.co">www.VeriSoft.co</a>
  * @see org.openqa.selenium.remote.RemoteWebDriver
  * @see co.verisoft.fw.async.AsyncTask
+ * @see co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator
  * @since 1.9.6
  */
 @SuppressWarnings("deprecation")
@@ -157,15 +168,18 @@ public class VerisoftDriver implements
 
     protected WebDriver driver;
     private AsyncListenerImp asyncListener;
-    private List<WebDriverListener> webDriverlisteners;
+    private ListenerRegistry webDriverlisteners;
+    private final PageChangeListener pageChanges = new PageChangeListener();
     private Property prop = new Property("application.properties");
 
     private void initListeners() {
         if (webDriverlisteners != null)
             return;
 
-        this.webDriverlisteners = new ArrayList<>();
+        this.webDriverlisteners = new ListenerRegistry();
 
+        if (DriverMetrics.isEnabled())
+            webDriverlisteners.add(new MetricsListener(VerisoftDriverManager.getCurrentDriverName()));
         webDriverlisteners.add(new AlertListener());
         webDriverlisteners.add(new NavigationListener());
         webDriverlisteners.add(new OptionsListener());
@@ -173,26 +187,44 @@ public class VerisoftDriver implements
         webDriverlisteners.add(new DriverListener());
         webDriverlisteners.add(new WebElementListener());
         webDriverlisteners.add(new WindowListener());
+        webDriverlisteners.add(pageChanges);
 
         // Create asyncListener object to be activated here
         if (asyncListener == null) {
             asyncListener = new AsyncListenerImp();
             webDriverlisteners.add(asyncListener);
+            asyncListener.attach(webDriverlisteners);
         }
 
     }
 
+    /**
+     * Add a listener to the driver. It takes effect immediately, also for elements found before
+     *
+     * @param listener listener to add
+     */
     public void addListener(@NotNull WebDriverListener listener) {
         if (webDriverlisteners == null)
             initListeners();
 
         webDriverlisteners.add(listener);
+    }
 
-        if (Objects.nonNull(this.driver)){
-            WebDriver original = ((WebDriver) ((Decorated) this.driver).getOriginal());
-            initDriver(original);
-        }
+    /**
+     * Remove a listener from the driver
+     *
+     * @param listener listener to remove
+     * @return true if the listener was registered
+     */
+    public boolean removeListener(@NotNull WebDriverListener listener) {
+        return webDriverlisteners != null && webDriverlisteners.remove(listener);
+    }
 
+    /**
+     * @return the driver as it was before decoration with the listeners
+     */
+    private WebDriver getOriginalDriver() {
+        return this.driver instanceof Decorated ? (WebDriver) ((Decorated<?>) this.driver).getOriginal() : this.driver;
     }
 
     public VerisoftDriver(Capabilities capabilities){
@@ -210,12 +242,16 @@ public class VerisoftDriver implements
     }
 
     private void setupDriver(@Nullable URL remoteAddress, Capabilities capabilities){
+        long start = TestTimeline.enter();
         initListeners();
         try {
             createRemoteDriver(remoteAddress, capabilities);
         } catch (Throwable t) {
             log.error("Error instanciate local VerisoftDriver", t);
             throw new RuntimeException(t);
+        } finally {
+            TestTimeline.exit(TestTimeline.Phase.STARTUP, start);
+            TraceRecorder.end("startup", "create driver", start);
         }
         initPerfectoReport();
     }
@@ -229,12 +265,16 @@ public class VerisoftDriver implements
     }
 
     public VerisoftDriver(HttpCommandExecutor commandExecutor, Capabilities capabilities) {
+        long start = TestTimeline.enter();
         initListeners();
         try {
             createRemoteDriver(commandExecutor, capabilities);
         } catch (Throwable t) {
             log.error("Error instanciate local VerisoftDriver", t);
             throw new RuntimeException(t);
+        } finally {
+            TestTimeline.exit(TestTimeline.Phase.STARTUP, start);
+            TraceRecorder.end("startup", "create driver", start);
         }
         initPerfectoReport();
     }
@@ -242,33 +282,33 @@ public class VerisoftDriver implements
 
     @Override
     public void get(String url) {
-        log.debug("Driver activity log: get URL -> " + url);
+        log.debug("Driver activity log: get URL -> {}", url);
         driver.get(url);
     }
 
     @Override
     public String getCurrentUrl() {
         String currentUrl = driver.getCurrentUrl();
-        log.debug("Driver activity log: get Current Url -> " + currentUrl);
+        log.debug("Driver activity log: get Current Url -> {}", currentUrl);
         return currentUrl;
     }
 
     @Override
     public String getTitle() {
         String title = driver.getTitle();
-        log.debug("Driver activity log: get title -> " + title);
+        log.debug("Driver activity log: get title -> {}", title);
         return title;
     }
 
     @Override
     public List<WebElement> findElements(By by) {
-        log.debug("Driver activity log: Going to find multiple elements using locator -> " + by.toString());
+        log.debug("Driver activity log: Going to find multiple elements using locator -> {}", by);
         return driver.findElements(by);
     }
 
     @Override
     public WebElement findElement(By by) {
-        log.debug("Driver activity log: Going to find a single element using locator-> " + by.toString());
+        log.debug("Driver activity log: Going to find a single element using locator-> {}", by);
         return driver.findElement(by);
     }
 
@@ -286,22 +326,28 @@ public class VerisoftDriver implements
 
     @Override
     public void quit() {
-        log.debug("Driver activity log: quit -> " + driver.toString());
+        log.debug("Driver activity log: quit -> {}", driver);
         driver.quit();
+
+        // The manager and the pool know the driver as it was before decoration
+        WebDriver original = getOriginalDriver();
+        VerisoftDriverManager.removeDriver(original);
+        if (DriverPool.isCreated())
+            DriverPool.getInstance().invalidate(original);
     }
 
     @Override
     public Set<String> getWindowHandles() {
         Set<String> windowHandles = driver.getWindowHandles();
-        log.debug("Driver activity log: get window handles - Size -> " + windowHandles.size() + " , "
-                + Arrays.toString(windowHandles.toArray()));
-        return driver.getWindowHandles();
+        if (log.isDebugEnabled())
+            log.debug("Driver activity log: get window handles - Size -> {} , {}", windowHandles.size(), windowHandles);
+        return windowHandles;
     }
 
     @Override
     public String getWindowHandle() {
         String windowHandle = driver.getWindowHandle();
-        log.debug("Driver activity log: get window handle -> " + windowHandle);
+        log.debug("Driver activity log: get window handle -> {}", windowHandle);
         return windowHandle;
     }
 
@@ -323,43 +369,74 @@ public class VerisoftDriver implements
 
     @Override
     public Object executeScript(String script, Object... args) {
-        log.debug("Driver activity log: execute script -> " + script + " , args -> " + Arrays.toString(args));
+        log.debug("Driver activity log: execute script -> {} , args -> {}", script, args);
         return ((JavascriptExecutor) driver).executeScript(script, args);
     }
 
     @Override
     public Object executeAsyncScript(String script, Object... args) {
-        log.debug("Driver activity log: execute async script -> " + script + " , args -> " + Arrays.toString(args));
+        log.debug("Driver activity log: execute async script -> {} , args -> {}", script, args);
         return ((JavascriptExecutor) driver).executeAsyncScript(script, args);
     }
 
     @Override
     public ScriptKey pin(String script) {
-        log.debug("Driver activity log: execute pin script -> " + script);
+        log.debug("Driver activity log: execute pin script -> {}", script);
         return ((JavascriptExecutor) driver).pin(script);
     }
 
     @Override
     public void unpin(ScriptKey key) {
-        log.debug("Driver activity log: execute unpin script with key-> " + key.toString());
+        log.debug("Driver activity log: execute unpin script with key-> {}", key);
         ((JavascriptExecutor) driver).unpin(key);
     }
 
     @Override
     public Set<ScriptKey> getPinnedScripts() {
         Set<ScriptKey> keys = ((JavascriptExecutor) driver).getPinnedScripts();
-        log.debug("Driver activity log: retrieve script keys ->" + Arrays.toString(keys.toArray()));
+        log.debug("Driver activity log: retrieve script keys ->{}", keys);
         return keys;
     }
 
     @Override
     public Object executeScript(ScriptKey key, Object... args) {
-        log.debug("Driver activity log: execute script -> " + key.toString() + " , args -> " +
-                Arrays.toString(args));
+        log.debug("Driver activity log: execute script -> {} , args -> {}", key, args);
         return ((JavascriptExecutor) driver).executeScript(key, args);
     }
 
 
+    /**
+     * Read properties (text, attributes, visibility, rect, css values) of many elements in a single executeScript
+     * round-trip, instead of one command per element per property
+     *
+     * @param elements elements to read
+     * @param reads    reads to perform on every element, e.g. {@code ElementRead.text()}
+     * @return one result per element, in the order of the elements
+     * @see BatchElementReader
+     */
+    public List<ElementReadResult> readElements(List<? extends WebElement> elements, ElementRead... reads) {
+        if (log.isDebugEnabled())
+            log.debug("Driver activity log: batch read {} of {} elements", Arrays.toString(reads), elements.size());
+        return BatchElementReader.read(driver, elements, reads);
+    }
+
+
+    /**
+     * Find elements and read their properties (text, attributes, visibility, rect, css values) in a single
+     * executeScript round-trip
+     *
+     * @param locator locator of the elements to read
+     * @param reads   reads to perform on every element, e.g. {@code ElementRead.text()}
+     * @return one result per element found, in document order
+     * @see BatchElementReader
+     */
+    public List<ElementReadResult> readElements(By locator, ElementRead... reads) {
+        if (log.isDebugEnabled())
+            log.debug("Driver activity log: batch read {} of elements located by {}", Arrays.toString(reads), locator);
+        return BatchElementReader.read(driver, locator, reads);
+    }
+
+
     @Override
     public Capabilities getCapabilities() {
         log.debug("Driver activity log: retrieve capabilities");
@@ -368,19 +445,19 @@ public class VerisoftDriver implements
 
     @Override
     public VirtualAuthenticator addVirtualAuthenticator(VirtualAuthenticatorOptions options) {
-        log.debug("Driver activity log: add virtual authenticator with options: " + options.toString());
+        log.debug("Driver activity log: add virtual authenticator with options: {}", options);
         return ((RemoteWebDriver) driver).addVirtualAuthenticator(options);
     }
 
     @Override
     public void removeVirtualAuthenticator(VirtualAuthenticator authenticator) {
-        log.debug("Driver activity log: remove virtual authenticator : " + authenticator.toString());
+        log.debug("Driver activity log: remove virtual authenticator : {}", authenticator);
         ((RemoteWebDriver) driver).removeVirtualAuthenticator(authenticator);
     }
 
     @Override
     public void perform(Collection<Sequence> actions) {
-        log.debug("Driver activity log: perform -> " + Arrays.toString(actions.toArray()));
+        log.debug("Driver activity log: perform -> {}", actions);
         ((Interactive) driver).perform(actions);
     }
 
@@ -392,13 +469,13 @@ public class VerisoftDriver implements
 
     @Override
     public Pdf print(PrintOptions printOptions) throws WebDriverException {
-        log.debug("Driver activity log: print pdf with options " + printOptions.toString());
+        log.debug("Driver activity log: print pdf with options {}", printOptions);
         return ((PrintsPage) driver).print(printOptions);
     }
 
     @Override
     public <X> X getScreenshotAs(OutputType<X> target) throws WebDriverException {
-        log.debug("Driver activity log: using: get screenshot as for target " + target.toString());
+        log.debug("Driver activity log: using: get screenshot as for target {}", target);
         return ((TakesScreenshot) driver).getScreenshotAs(target);
     }
 
@@ -425,12 +502,12 @@ public class VerisoftDriver implements
 
         public String getText() {
             String text = driver.switchTo().alert().getText();
-            log.debug("Driver activity log: switchTo -> alert -> getText. Text is: " + text);
+            log.debug("Driver activity log: switchTo -> alert -> getText. Text is: {}", text);
             return text;
         }
 
         public void sendKeys(String keysToSend) {
-            log.debug("Driver activity log: switchTo -> alert -> sendKeys : " + keysToSend);
+            log.debug("Driver activity log: switchTo -> alert -> sendKeys : {}", keysToSend);
             if (keysToSend == null) {
                 throw new IllegalArgumentException("Keys to send should be a not null CharSequence");
             }
@@ -443,17 +520,18 @@ public class VerisoftDriver implements
         }
 
         public WebDriver frame(int frameIndex) {
-            log.debug("Driver activity log: switchTo -> frame -> frameIndex : " + frameIndex);
+            if (log.isDebugEnabled())
+                log.debug("Driver activity log: switchTo -> frame -> frameIndex : {}", frameIndex);
             return driver.switchTo().frame(frameIndex);
         }
 
         public WebDriver frame(String frameName) {
-            log.debug("Driver activity log: switchTo -> frame -> frameName : " + frameName);
+            log.debug("Driver activity log: switchTo -> frame -> frameName : {}", frameName);
             return driver.switchTo().frame(frameName);
         }
 
         public WebDriver frame(WebElement frameElement) {
-            log.debug("Driver activity log: switchTo -> frame -> frameElement : " + frameElement.toString());
+            log.debug("Driver activity log: switchTo -> frame -> frameElement : {}", frameElement);
             return driver.switchTo().frame(frameElement);
         }
 
@@ -463,12 +541,12 @@ public class VerisoftDriver implements
         }
 
         public WebDriver window(String windowHandleOrName) {
-            log.debug("Driver activity log: switchTo -> window " + windowHandleOrName);
+            log.debug("Driver activity log: switchTo -> window {}", windowHandleOrName);
             return driver.switchTo().window(windowHandleOrName);
         }
 
         public WebDriver newWindow(WindowType typeHint) {
-            log.debug("Driver activity log: switchTo -> newWindow " + typeHint.toString());
+            log.debug("Driver activity log: switchTo -> newWindow {}", typeHint);
             return driver.switchTo().newWindow(typeHint);
         }
 
@@ -479,7 +557,7 @@ public class VerisoftDriver implements
 
         public WebElement activeElement() {
             WebElement element = driver.switchTo().activeElement();
-            log.debug("Driver activity log: switchTo -> activeElement. Active element is: " + element.toString());
+            log.debug("Driver activity log: switchTo -> activeElement. Active element is: {}", element);
             return element;
         }
 
@@ -494,35 +572,43 @@ public class VerisoftDriver implements
 
         public void back() {
 
-            String back = "Driver activity log: Navigation -> back From : " + getCurrentUrl() + " ";
+            // Reading the urls costs two extra remote calls, only pay for them when they are logged
+            if (!log.isDebugEnabled()) {
+                driver.navigate().back();
+                return;
+            }
+            String from = getCurrentUrl();
             driver.navigate().back();
-            back += "To : " + getCurrentUrl();
-            log.debug(back);
+            log.debug("Driver activity log: Navigation -> back From : {} To : {}", from, getCurrentUrl());
         }
 
         public void forward() {
 
-            String forward = "Driver activity log: Navigation -> forward From : " + getCurrentUrl() + " ";
+            if (!log.isDebugEnabled()) {
+                driver.navigate().forward();
+                return;
+            }
+            String from = getCurrentUrl();
             driver.navigate().forward();
-            forward += "To : " + getCurrentUrl();
-            log.debug(forward);
+            log.debug("Driver activity log: Navigation -> forward From : {} To : {}", from, getCurrentUrl());
         }
 
         public void to(String url) {
 
-            log.debug("Driver activity log: Navigation -> to url -> " + url);
+            log.debug("Driver activity log: Navigation -> to url -> {}", url);
             get(url);
         }
 
         public void to(URL url) {
 
-            log.debug("Driver activity log: Navigation -> to -> " + url);
+            log.debug("Driver activity log: Navigation -> to -> {}", url);
             get(String.valueOf(url));
         }
 
         public void refresh() {
 
-            log.debug("Driver activity log: Navigation -> refresh URL: " + getCurrentUrl());
+            if (log.isDebugEnabled())
+                log.debug("Driver activity log: Navigation -> refresh URL: {}", getCurrentUrl());
             driver.navigate().refresh();
         }
     }
@@ -539,18 +625,18 @@ public class VerisoftDriver implements
         }
 
         public void addCookie(Cookie cookie) {
-            log.debug("Driver activity log: options -> add cookie -> " + cookie.toString());
+            log.debug("Driver activity log: options -> add cookie -> {}", cookie);
             driver.manage().addCookie(cookie);
 
         }
 
         public void deleteCookieNamed(String name) {
-            log.debug("Driver activity log: options -> delete cookie named -> " + name);
+            log.debug("Driver activity log: options -> delete cookie named -> {}", name);
             driver.manage().deleteCookieNamed(name);
         }
 
         public void deleteCookie(Cookie cookie) {
-            log.debug("Driver activity log: options -> delete cookie -> " + cookie.toString());
+            log.debug("Driver activity log: options -> delete cookie -> {}", cookie);
             driver.manage().deleteCookie(cookie);
         }
 
@@ -561,16 +647,14 @@ public class VerisoftDriver implements
 
         public Set<Cookie> getCookies() {
             Set<Cookie> cookies = driver.manage().getCookies();
-            log.debug("Driver activity log: options -> get cookies " + Arrays.toString(cookies.toArray()));
+            log.debug("Driver activity log: options -> get cookies {}", cookies);
             return cookies;
 
         }
 
         public Cookie getCookieNamed(String name) {
-            String msg = "Driver activity log: options -> get Cookie Named -> " + name;
             Cookie cookie = driver.manage().getCookieNamed(name);
-            msg += " Cookie retrieved: " + cookie.toString();
-            log.debug(msg);
+            log.debug("Driver activity log: options -> get Cookie Named -> {} Cookie retrieved: {}", name, cookie);
             return cookie;
         }
 
@@ -592,23 +676,23 @@ public class VerisoftDriver implements
 
             public Dimension getSize() {
                 Dimension dimension = driver.manage().window().getSize();
-                log.debug("Driver activity log: manage -> window -> getSize : " + dimension.toString());
+                log.debug("Driver activity log: manage -> window -> getSize : {}", dimension);
                 return dimension;
             }
 
             public void setSize(Dimension targetSize) {
-                log.debug("Driver activity log: manage -> window -> setSize : " + targetSize.toString());
+                log.debug("Driver activity log: manage -> window -> setSize : {}", targetSize);
                 driver.manage().window().setSize(targetSize);
             }
 
             public Point getPosition() {
                 Point point = driver.manage().window().getPosition();
-                log.debug("Driver activity log: manage -> window -> getPosition : " + point.toString());
+                log.debug("Driver activity log: manage -> window -> getPosition : {}", point);
                 return point;
             }
 
             public void setPosition(Point targetPosition) {
-                log.debug("Driver activity log: manage -> window -> setPosition : " + targetPosition.toString());
+                log.debug("Driver activity log: manage -> window -> setPosition : {}", targetPosition);
                 driver.manage().window().setPosition(targetPosition);
             }
 
@@ -640,22 +724,20 @@ public class VerisoftDriver implements
              */
             @Deprecated
             public Timeouts implicitlyWait(long time, TimeUnit unit) {
-                log.debug("Driver activity log: manage -> timeouts -> implicitlyWait : [time = " +
-                        time + ", " + "unit = "
-                        + unit.toString() + "]");
+                if (log.isDebugEnabled())
+                    log.debug("Driver activity log: manage -> timeouts -> implicitlyWait : [time = {}, unit = {}]",
+                            time, unit);
                 return driver.manage().timeouts().implicitlyWait(time, unit);
             }
 
             public Timeouts implicitlyWait(Duration duration) {
-                log.debug("Driver activity log: manage -> timeouts -> implicitlyWait : [time = '" +
-                        duration.toString() + "']");
+                log.debug("Driver activity log: manage -> timeouts -> implicitlyWait : [time = '{}']", duration);
                 return driver.manage().timeouts().implicitlyWait(duration);
             }
 
             public Duration getImplicitWaitTimeout() {
                 Duration duration = driver.manage().timeouts().getImplicitWaitTimeout();
-                log.debug("Driver activity log: manage -> timeouts -> get implicit wait timeout. Time " +
-                        duration.toString());
+                log.debug("Driver activity log: manage -> timeouts -> get implicit wait timeout. Time {}", duration);
                 return duration;
             }
 
@@ -664,29 +746,26 @@ public class VerisoftDriver implements
              */
             @Deprecated
             public Timeouts setScriptTimeout(long time, TimeUnit unit) {
-                log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = " +
-                        time + ", " + "unit = "
-                        + unit.toString() + "]");
+                if (log.isDebugEnabled())
+                    log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = {}, unit = {}]",
+                            time, unit);
                 return driver.manage().timeouts().setScriptTimeout(time, unit);
             }
 
             public Timeouts setScriptTimeout(Duration duration) {
 
-                log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = '" +
-                        duration.toString() + "']");
+                log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = '{}']", duration);
                 return driver.manage().timeouts().setScriptTimeout(duration);
             }
 
             public Timeouts scriptTimeout(Duration duration) {
-                log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = '" +
-                        duration.toString() + "']");
+                log.debug("Driver activity log: manage -> timeouts -> setScriptTimeout : [time = '{}']", duration);
                 return driver.manage().timeouts().scriptTimeout(duration);
             }
 
             public Duration getScriptTimeout() {
                 Duration duration = driver.manage().timeouts().getScriptTimeout();
-                log.debug("Driver activity log: manage -> timeouts -> getScriptTimeout. Time " +
-                        duration.toString());
+                log.debug("Driver activity log: manage -> timeouts -> getScriptTimeout. Time {}", duration);
                 return duration;
             }
 
@@ -695,27 +774,36 @@ public class VerisoftDriver implements
              */
             @Deprecated
             public Timeouts pageLoadTimeout(long time, TimeUnit unit) {
-                log.debug("Driver activity log: manage -> timeouts -> pageLoadTimeout : [time = " +
-                        time + ", " + "unit = "
-                        + unit.toString() + "]");
+                if (log.isDebugEnabled())
+                    log.debug("Driver activity log: manage -> timeouts -> pageLoadTimeout : [time = {}, unit = {}]",
+                            time, unit);
                 return driver.manage().timeouts().pageLoadTimeout(time, unit);
             }
 
             public Timeouts pageLoadTimeout(Duration duration) {
-                log.debug("Driver activity log: manage -> timeouts -> pageLoadTimeout : [time = '" +
-                        duration.toString() + "']");
+                log.debug("Driver activity log: manage -> timeouts -> pageLoadTimeout : [time = '{}']", duration);
                 return driver.manage().timeouts().pageLoadTimeout(duration);
             }
 
             public Duration getPageLoadTimeout() {
                 Duration duration = driver.manage().timeouts().getPageLoadTimeout();
-                log.debug("Driver activity log: manage -> timeouts -> getPageLoadTimeout. Time " +
-                        duration.toString());
+                log.debug("Driver activity log: manage -> timeouts -> getPageLoadTimeout. Time {}", duration);
                 return duration;
             }
         }
     }
 
+    /**
+     * Retrieves the listener which counts page changes - navigation, get, switching windows or frames - so elements
+     * cached from an earlier page are not used on the current one
+     *
+     * @return PageChangeListener object
+     */
+    public PageChangeListener pageChanges() {
+        return pageChanges;
+    }
+
+
     /**
      * Retrieves the Async listener. If it is not initialized yet, initializes the listener
      *
@@ -747,24 +835,37 @@ public class VerisoftDriver implements
         // Mobile Driver section
         if (this instanceof VerisoftMobileDriver) {
             if (platformName.equalsIgnoreCase(MobilePlatform.ANDROID))
-                tempDriver = new AndroidDriver(remoteAddress, capabilities);
+                tempDriver = new AndroidDriver(remoteAddress, SharedHttpClientFactory.getFactory(), capabilities);
             else if (platformName.equalsIgnoreCase(MobilePlatform.IOS))
-                tempDriver = new IOSDriver(remoteAddress, capabilities);
+                tempDriver = new IOSDriver(remoteAddress, SharedHttpClientFactory.getFactory(), capabilities);
         }
 
         // Web Driver section
         else {
-            // local drivers such as chrome , firefox
-            if (remoteAddress == null) {
-                tempDriver = instanciateLocalDriver(capabilities);
-            } else {
-                tempDriver = new RemoteWebDriver(remoteAddress, capabilities);
-            }
+            tempDriver = createWebDriver(remoteAddress, capabilities);
         }
         initDriver(tempDriver);
     }
 
 
+    /**
+     * Creates a raw (undecorated, unregistered) web driver. If the remoteAddress is null, a local driver is created
+     * using WebDriverManager, otherwise a RemoteWebDriver is created.
+     *
+     * @param remoteAddress Address of the driver. Use either null for local instances or a url to
+     *                      Selenium Grid or Url to external supplier.
+     * @param capabilities a capabilities object.
+     * @return a new WebDriver object
+     */
+    public static WebDriver createWebDriver(@Nullable URL remoteAddress, Capabilities capabilities) {
+        // local drivers such as chrome , firefox
+        if (remoteAddress == null)
+            return instanciateLocalDriver(capabilities);
+        else
+            return new RemoteWebDriver(SharedHttpClientFactory.newCommandExecutor(remoteAddress), capabilities);
+    }
+
+
     /**
      * Private method to create a proper WebDriver object. If the remoteAddress is null, it will create a
      * local instance of WebDriver. If the remoteAddress is not null, it will create a RemoteWebDriver object,
@@ -802,10 +903,10 @@ public class VerisoftDriver implements
      * @param driver the driver to add the listeners to
      */
     private void initDriver(WebDriver driver) {
-        WebDriverListener[] listenersArr = new WebDriverListener[webDriverlisteners.size()];
-        listenersArr = webDriverlisteners.toArray(listenersArr);
-
-        this.driver = new EventFiringDecorator(listenersArr).decorate(driver);
+        this.driver = new ListenerDispatchDecorator(webDriverlisteners).decorate(driver);
+        // Wrappers of a pooled or single session share its async engine, see DriverInjectionExtension.closeDriver
+        if (asyncListener != null)
+            asyncListener.bindSession(driver);
 
         VerisoftDriverManager.addDriverToMap(driver);
     }
@@ -823,7 +924,7 @@ public class VerisoftDriver implements
      * @param capabilities capabilities object
      * @return a new WebDriver object
      */
-    private WebDriver instanciateLocalDriver(Capabilities capabilities) {
+    private static WebDriver instanciateLocalDriver(Capabilities capabilities) {
 
 
         boolean isHeadless;
@@ -832,53 +933,41 @@ public class VerisoftDriver implements
         switch (browserName) {
 
             case "chrome":
-                if (capabilities.getCapability("browserVersion") == null)
-                    WebDriverManager.chromedriver().setup();
-                else
-                    WebDriverManager.chromedriver().driverVersion(capabilities.getBrowserVersion()).setup();
+                String chromeDriverPath = DriverBinaryResolver.resolve(DriverManagerType.CHROME,
+                        capabilities.getBrowserVersion());
 
                 ChromeOptions chromeOptions = new ChromeOptions();
                 chromeOptions=chromeOptions.merge(capabilities);
-                return new ChromeDriver(chromeOptions);
+                return LocalDriverServices.newChromeDriver(chromeDriverPath, chromeOptions);
 
             case "firefox":
 
-                if (capabilities.getCapability("browserVersion") == null)
-                    WebDriverManager.firefoxdriver().setup();
-                else
-                    WebDriverManager.firefoxdriver().driverVersion(capabilities.getBrowserVersion()).setup();
+                String geckoDriverPath = DriverBinaryResolver.resolve(DriverManagerType.FIREFOX,
+                        capabilities.getBrowserVersion());
 
 
                 FirefoxOptions firefoxOptions = new FirefoxOptions();
                 firefoxOptions=firefoxOptions.merge(capabilities);
-                return new FirefoxDriver(firefoxOptions);
+                return LocalDriverServices.newFirefoxDriver(geckoDriverPath, firefoxOptions);
 
             case "internet explorer":
-                if (capabilities.getCapability("browserVersion") == null)
-                    WebDriverManager.iedriver().setup();
-                else
-                    WebDriverManager.iedriver().driverVersion(capabilities.getBrowserVersion()).setup();
+                DriverBinaryResolver.resolve(DriverManagerType.IEXPLORER, capabilities.getBrowserVersion());
 
                 InternetExplorerOptions internetExplorerOptions = new InternetExplorerOptions();
                 internetExplorerOptions=internetExplorerOptions.merge(capabilities);
                 return new InternetExplorerDriver(internetExplorerOptions);
 
             case "microsoftedge":
-                if (capabilities.getCapability("browserVersion") == null)
-                    WebDriverManager.edgedriver().setup();
-                else
-                    WebDriverManager.edgedriver().driverVersion(capabilities.getBrowserVersion()).setup();
+                String edgeDriverPath = DriverBinaryResolver.resolve(DriverManagerType.EDGE,
+                        capabilities.getBrowserVersion());
 
 
                 EdgeOptions edgeOptions = new EdgeOptions();
                 edgeOptions=edgeOptions.merge(capabilities);
-                return new EdgeDriver(edgeOptions);
+                return LocalDriverServices.newEdgeDriver(edgeDriverPath, edgeOptions);
 
             case "safari":
-                if (capabilities.getCapability("browserVersion") == null)
-                    WebDriverManager.safaridriver().setup();
-                else
-                    WebDriverManager.safaridriver().driverVersion(capabilities.getBrowserVersion()).setup();
+                DriverBinaryResolver.resolve(DriverManagerType.SAFARI, capabilities.getBrowserVersion());
 
 
                 SafariOptions safariOptions = new SafariOptions();
@@ -17,6 +17,7 @@ package co.verisoft.fw.selenium.drivers;
  */
 
 
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
 import co.verisoft.fw.store.StoreManager;
 import co.verisoft.fw.store.StoreType;
 import lombok.ToString;
@@ -24,14 +25,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.openqa.selenium.WebDriver;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
  * A global, thread safe, singleton class. It handles augmentation of WebDriver objects of different types
+ * <br><br>
+ * Drivers are registered by name under the current execution context - the {@link DriverContext} bound to the
+ * current thread, or the current thread itself when no context is bound. Lookups are lock free and start at the
+ * current context, continuing to its parent contexts.<br>
+ * Contexts are held by weak references: when a context is no longer used, its registrations are dropped. A driver is
+ * also deregistered when it is quit through {@link VerisoftDriver} or removed with {@link #removeDriver(WebDriver)}.
  *
  * @author David Yehezkel
  * @since 1.9.6
@@ -41,62 +51,161 @@ import java.util.Map;
 
 public final class VerisoftDriverManager {
 
-    private static Map<Integer, Map<String,WebDriver>> driverMap = new HashMap<>();
+    /** Name used when a driver is registered without a name */
+    public static final String DEFAULT_DRIVER_NAME = "default";
+
+    private static final ReferenceQueue<Object> collectedContexts = new ReferenceQueue<>();
+    private static final Map<ContextKey, Map<String, WebDriver>> driverMap = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, ContextKey> driverIndex = new ConcurrentHashMap<>();
 
     private VerisoftDriverManager() {
     }
 
     /**
-     * Register driver with the current thread id to the map
+     * Register driver with the current execution context, under the name stored as "current driver name"
      *
      * @param driver   WebDriver object to be added to the map
      */
     public static void addDriverToMap(WebDriver driver) {
-        String driverName= StoreManager.getStore(StoreType.LOCAL_THREAD).getValueFromStore("current driver name");
+        addDriverToMap(getCurrentDriverName(), driver);
+    }
 
-        Integer threadID = (int) Thread.currentThread().getId();
-        log.debug("Register driver " + driver.toString() + " with name " + driverName + " by Thread ID " + threadID);
-        driverMap.computeIfAbsent(threadID, k -> new HashMap<>()).put(driverName, driver);
+    /**
+     * @return the name the driver being created on the current thread is registered under - the @DriverName of the
+     * test parameter, or the parameter name - null if it is not created for a test parameter
+     */
+    public static @Nullable String getCurrentDriverName() {
+        return StoreManager.getStore(StoreType.LOCAL_THREAD).getValueFromStore("current driver name");
     }
 
     /**
-     * Returns the list of drivers associated with the current thread id
+     * Register driver with the current execution context
      *
-     * @return Map of driver names to WebDriver objects associated with the current thread id
+     * @param driverName name of the driver. null is registered as {@link #DEFAULT_DRIVER_NAME}
+     * @param driver     WebDriver object to be added to the map
+     */
+    public static void addDriverToMap(@Nullable String driverName, WebDriver driver) {
+        expungeCollectedContexts();
+        String name = nameOf(driverName);
+        Object context = currentContext();
+        log.debug("Register driver {} with name {} in context {}", driver, name, context);
+
+        ContextKey key = new ContextKey(context, collectedContexts);
+        driverMap.compute(key, (k, drivers) -> {
+            if (drivers == null)
+                drivers = new ConcurrentHashMap<>();
+            WebDriver previous = drivers.put(name, driver);
+            if (previous != null && previous != driver && !drivers.containsValue(previous))
+                driverIndex.remove(previous, k);
+            if (driverIndex.put(driver, k) == null)
+                TraceRecorder.asyncBegin("driver", "driver", System.identityHashCode(driver));
+            return drivers;
+        });
+    }
+
+    /**
+     * Deregister a driver from whatever context it is registered under. Called when a driver is quit, or handed
+     * back (e.g. returned to a pool) rather than quit, so it is no longer reachable.
+     *
+     * @param driver WebDriver object to be removed, as it was registered
+     */
+    public static void removeDriver(WebDriver driver) {
+        if (driver == null)
+            return;
+        ContextKey key = driverIndex.remove(driver);
+        if (key == null)
+            return;
+        TraceRecorder.asyncEnd("driver", "driver", System.identityHashCode(driver));
+        log.debug("Remove driver {} from context {}", driver, key.get());
+        driverMap.computeIfPresent(key, (k, drivers) -> {
+            drivers.values().removeIf(registered -> registered == driver);
+            return drivers.isEmpty() ? null : drivers;
+        });
+    }
+
+    /**
+     * Returns the drivers registered with the current execution context. If the current context has no drivers,
+     * the drivers of the nearest parent context which has drivers are returned
+     *
+     * @return Map of driver names to WebDriver objects, or null if there are none
      */
     public static @Nullable Map<String, WebDriver> getDrivers() {
-        Integer threadID = (int) Thread.currentThread().getId();
-        log.debug("Get drivers by Thread ID (Key)" + threadID);
-        return driverMap.get(threadID);
+        return getDrivers(currentContext());
     }
 
     /**
-     * Returns driver with the current thread id by the name
+     * Returns the drivers registered with a given context, regardless of the context bound to the current thread
+     *
+     * @param context the driver context, e.g. from DriverInjectionExtension.getDriverContext(ExtensionContext)
+     * @return Map of driver names to WebDriver objects, or null if there are none
+     */
+    public static @Nullable Map<String, WebDriver> getDrivers(DriverContext context) {
+        return getDrivers((Object) context);
+    }
+
+    private static @Nullable Map<String, WebDriver> getDrivers(Object context) {
+        log.debug("Get drivers by context {}", context);
+        Map<String, WebDriver> drivers = findDrivers(context);
+        return drivers == null ? null : Collections.unmodifiableMap(drivers);
+    }
+
+    /**
+     * Returns driver of the current execution context by the name
      *
      * @param driverName Name of the driver to retrieve
      * @return T - template of WebDriver. i.e, if you know that the stored WebDriver object is VeriSoftDriver,
      * just do VerisoftDriver driver = VerisoftDriverManager.getDriver();. No casting needed
      */
     public static @Nullable <T extends WebDriver> T getDriver(String driverName) {
-        Integer threadID = (int) Thread.currentThread().getId();
-        log.debug("Get driver with name " + driverName + " by Thread ID (Key)" + threadID);
-        Map<String, WebDriver> drivers = driverMap.get(threadID);
-        if (drivers != null) {
-            return (T) drivers.get(driverName);
+        return getDriver(currentContext(), driverName);
+    }
+
+    /**
+     * Returns driver of a given context by the name, regardless of the context bound to the current thread
+     *
+     * @param context    the driver context
+     * @param driverName Name of the driver to retrieve
+     * @return T - template of WebDriver
+     */
+    public static @Nullable <T extends WebDriver> T getDriver(DriverContext context, String driverName) {
+        return getDriver((Object) context, driverName);
+    }
+
+    private static @Nullable <T extends WebDriver> T getDriver(Object context, String driverName) {
+        String name = nameOf(driverName);
+        log.debug("Get driver with name {} by context {}", name, context);
+        for (Object c = context; c != null; c = parentOf(c)) {
+            Map<String, WebDriver> drivers = driverMap.get(new ContextKey(c));
+            if (drivers != null && drivers.containsKey(name))
+                return (T) drivers.get(name);
         }
         return null;
     }
     /**
-     * Returns driver with the current thread id, if you have more than 1 driver an error will be thrown
+     * Returns driver of the current execution context, if you have more than 1 driver an error will be thrown
      *
      * @return T - template of WebDriver. i.e, if you know that the stored WebDriver object is VeriSoftDriver,
      * just do VerisoftDriver driver = VerisoftDriverMananer.getDriver();. No casting needed
      */
     public static @Nullable <T extends WebDriver> T getDriver() {
-        Integer threadID = (int) Thread.currentThread().getId();
-        log.debug("Getting driver by Thread ID (Key): {}", threadID);
+        return getDriver(currentContext());
+    }
 
-        Map<String, WebDriver> drivers = driverMap.get(threadID);
+    /**
+     * Returns driver of a given context, regardless of the context bound to the current thread. If you have more
+     * than 1 driver an error will be thrown
+     *
+     * @param context the driver context
+     * @return T - template of WebDriver
+     */
+    public static @Nullable <T extends WebDriver> T getDriver(DriverContext context) {
+        return getDriver((Object) context);
+    }
+
+    private static @Nullable <T extends WebDriver> T getDriver(Object context) {
+        log.debug("Getting driver by context: {}", context);
+
+        Map<String, WebDriver> drivers = findDrivers(context);
         if (drivers == null || drivers.isEmpty()) {
             return null;
         }
@@ -108,4 +217,77 @@ public final class VerisoftDriverManager {
         return (T) drivers.values().iterator().next();
     }
 
+
+    private static @Nullable Map<String, WebDriver> findDrivers(Object context) {
+        for (Object c = context; c != null; c = parentOf(c)) {
+            Map<String, WebDriver> drivers = driverMap.get(new ContextKey(c));
+            if (drivers != null && !drivers.isEmpty())
+                return drivers;
+        }
+        return null;
+    }
+
+    private static Object currentContext() {
+        DriverContext context = DriverContext.getBound();
+        return context != null ? context : Thread.currentThread();
+    }
+
+    private static @Nullable Object parentOf(Object context) {
+        return context instanceof DriverContext ? ((DriverContext) context).getParent() : null;
+    }
+
+    private static String nameOf(@Nullable String driverName) {
+        return Objects.requireNonNullElse(driverName, DEFAULT_DRIVER_NAME);
+    }
+
+    /**
+     * Drop the registrations of contexts which were garbage collected
+     */
+    private static void expungeCollectedContexts() {
+        Reference<?> ref;
+        while ((ref = collectedContexts.poll()) != null) {
+            Map<String, WebDriver> drivers = driverMap.remove(ref);
+            if (drivers != null) {
+                log.debug("Context was abandoned, deregistering drivers {}", drivers.keySet());
+                // Not remove(driver, ref) - a driver may be indexed under another key object of the same context, which
+                // no longer equals ref once the context is gone. A driver registered again under a live context keeps
+                // its entry
+                for (WebDriver driver : drivers.values())
+                    driverIndex.computeIfPresent(driver, (d, key) -> key.get() == null ? null : key);
+            }
+        }
+    }
+
+
+    /**
+     * Identity based, weak map key of a context
+     */
+    private static final class ContextKey extends WeakReference<Object> {
+        private final int hash;
+
+        private ContextKey(Object context) {
+            super(context);
+            this.hash = System.identityHashCode(context);
+        }
+
+        private ContextKey(Object context, ReferenceQueue<Object> queue) {
+            super(context, queue);
+            this.hash = System.identityHashCode(context);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof ContextKey))
+                return false;
+            Object referent = get();
+            return referent != null && referent == ((ContextKey) o).get();
+        }
+    }
 }
@@ -61,7 +61,7 @@ import java.util.Set;
  * is currently supported:<br>
  * 2. Extended logging<br>
  * 3. All available events are registered. See events in the "See Also" section<br>
- * 4. WebDriver is wrapped with EventFiringDecorator. See in the "See Also" section <br>
+ * 4. WebDriver is wrapped with ListenerDispatchDecorator. See in the "See Also" section <br>
  * <br><br>
  * The driver is instanciated by specifying the relevant DesiredCapabilities, and if the driver is a remote driver,
  * specifying remote url. All of VeriSoft's ctors expectes at least
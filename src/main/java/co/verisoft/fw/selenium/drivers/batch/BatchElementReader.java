@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.batch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.*;
+
+import java.util.*;
+
+/**
+ * Reads properties of many elements in a single executeScript call.<br>
+ * Reading the text of 50 table cells with {@link WebElement#getText()} costs 50 round-trips to the driver (and to the
+ * grid, when running remotely). The same reads as a batch cost one:
+ * <pre>{@code
+ * List<ElementReadResult> rows = BatchElementReader.read(driver, By.cssSelector("#results tr"),
+ *         ElementRead.text(), ElementRead.attribute("data-id"), ElementRead.displayed());
+ * String firstText = rows.get(0).getText();
+ * }</pre>
+ * The reads are evaluated in the browser and follow the WebDriver commands closely, but not to the letter: text is
+ * based on innerText with WebDriver style whitespace trimming, and attributes use the property when it holds a
+ * primitive value, otherwise the DOM attribute (booleans as "true" / null). Use the element commands where the exact
+ * WebDriver semantics matter.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class BatchElementReader {
+
+    private static final String SCRIPT =
+            "var elements = arguments[0], reads = arguments[1], using = arguments[2], value = arguments[3];\n" +
+            "if (elements === null) {\n" +
+            "  if (using === 'xpath') {\n" +
+            "    var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);\n" +
+            "    elements = [];\n" +
+            "    for (var i = 0; i < snapshot.snapshotLength; i++)\n" +
+            "      if (snapshot.snapshotItem(i).nodeType === 1) elements.push(snapshot.snapshotItem(i));\n" +
+            "  } else {\n" +
+            "    var selector = using === 'id' ? '#' + CSS.escape(value)\n" +
+            "      : using === 'name' ? '*[name=\"' + CSS.escape(value) + '\"]'\n" +
+            "      : using === 'class name' ? '.' + CSS.escape(value) : value;\n" +
+            "    elements = Array.prototype.slice.call(document.querySelectorAll(selector));\n" +
+            "  }\n" +
+            "}\n" +
+            "function hasSize(el) { var r = el.getBoundingClientRect(); return r.width > 0 && r.height > 0; }\n" +
+            "function displayed(el) {\n" +
+            "  if (!el.isConnected || el.getClientRects().length === 0) return false;\n" +
+            "  if (typeof el.checkVisibility === 'function') {\n" +
+            "    if (!el.checkVisibility({opacityProperty: true, visibilityProperty: true})) return false;\n" +
+            "  } else {\n" +
+            "    var style = getComputedStyle(el);\n" +
+            "    if (style.visibility !== 'visible' || style.opacity === '0') return false;\n" +
+            "  }\n" +
+            "  return hasSize(el) || Array.prototype.some.call(el.querySelectorAll('*'), hasSize);\n" +
+            "}\n" +
+            "function text(el) {\n" +
+            "  if (!displayed(el)) return '';\n" +
+            "  var t = el.innerText == null ? (el.textContent || '') : el.innerText;\n" +
+            "  return t.replace(/\\u00a0/g, ' ').split('\\n')\n" +
+            "    .map(function (line) { return line.replace(/[ \\t\\r\\f]+/g, ' ').trim(); }).join('\\n').trim();\n" +
+            "}\n" +
+            "function attribute(el, name) {\n" +
+            "  var lower = name.toLowerCase();\n" +
+            "  if (lower !== 'class' && lower !== 'style') {\n" +
+            "    var prop = el[lower === 'readonly' ? 'readOnly' : name];\n" +
+            "    if (typeof prop === 'boolean') return prop ? 'true' : null;\n" +
+            "    if (typeof prop === 'string' || typeof prop === 'number') return String(prop);\n" +
+            "  }\n" +
+            "  return el.getAttribute(name);\n" +
+            "}\n" +
+            "function read(el, r) {\n" +
+            "  switch (r[0]) {\n" +
+            "    case 'TEXT': return text(el);\n" +
+            "    case 'DISPLAYED': return displayed(el);\n" +
+            "    case 'ATTRIBUTE': return attribute(el, r[1]);\n" +
+            "    case 'CSS': return getComputedStyle(el).getPropertyValue(r[1]);\n" +
+            "    case 'RECT':\n" +
+            "      var b = el.getBoundingClientRect();\n" +
+            "      return [b.left + window.pageXOffset, b.top + window.pageYOffset, b.width, b.height];\n" +
+            "  }\n" +
+            "}\n" +
+            "return elements.map(function (el) {\n" +
+            "  var row = [el];\n" +
+            "  for (var j = 0; j < reads.length; j++) row.push(read(el, reads[j]));\n" +
+            "  return row;\n" +
+            "});";
+
+    private static final Set<String> SCRIPT_LOCATORS =
+            new HashSet<>(Arrays.asList("css selector", "xpath", "id", "name", "class name", "tag name"));
+
+
+    private BatchElementReader() {
+    }
+
+
+    /**
+     * Read properties of the given elements in one round-trip
+     *
+     * @param driver   driver the elements belong to
+     * @param elements elements to read
+     * @param reads    reads to perform on every element
+     * @return one result per element, in the order of the elements
+     */
+    public static List<ElementReadResult> read(WebDriver driver, List<? extends WebElement> elements,
+                                               ElementRead... reads) {
+        if (elements.isEmpty())
+            return new ArrayList<>();
+        return execute(driver, new ArrayList<>(elements), null, null, reads);
+    }
+
+
+    /**
+     * Find elements and read their properties in one round-trip. Locators which can not be evaluated in the page
+     * (e.g. link text) are located first, which costs one more round-trip.
+     *
+     * @param driver  the driver
+     * @param locator locator of the elements to read
+     * @param reads   reads to perform on every element
+     * @return one result per element found, in document order
+     */
+    public static List<ElementReadResult> read(WebDriver driver, By locator, ElementRead... reads) {
+        if (locator instanceof By.Remotable) {
+            By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+            if (SCRIPT_LOCATORS.contains(parameters.using()) && parameters.value() instanceof String)
+                return execute(driver, null, parameters.using(), parameters.value(), reads);
+        }
+        log.debug("Locator {} can not be evaluated in the page, finding elements first", locator);
+        return read(driver, driver.findElements(locator), reads);
+    }
+
+
+    private static List<ElementReadResult> execute(WebDriver driver, List<WebElement> elements, String using,
+                                                   Object value, ElementRead... reads) {
+        if (!(driver instanceof JavascriptExecutor))
+            throw new UnsupportedOperationException("Driver " + driver + " does not support javascript");
+
+        List<List<String>> readArgs = new ArrayList<>(reads.length);
+        for (ElementRead read : reads)
+            readArgs.add(Arrays.asList(read.getKind().name(), read.getName()));
+
+        Object raw = ((JavascriptExecutor) driver).executeScript(SCRIPT, elements, readArgs, using, value);
+        if (!(raw instanceof List))
+            throw new WebDriverException("Unexpected result of batch read: " + raw);
+
+        List<ElementReadResult> results = new ArrayList<>();
+        for (Object rawRow : (List<?>) raw) {
+            List<?> row = (List<?>) rawRow;
+            WebElement element = elements == null ? (WebElement) row.get(0) : elements.get(results.size());
+            Map<ElementRead, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < reads.length; i++)
+                values.put(reads[i], convert(reads[i], row.get(i + 1)));
+            results.add(new ElementReadResult(element, values));
+        }
+        return results;
+    }
+
+
+    private static Object convert(ElementRead read, Object value) {
+        switch (read.getKind()) {
+            case DISPLAYED:
+                return Boolean.TRUE.equals(value);
+            case RECT:
+                List<?> rect = (List<?>) value;
+                return new Rectangle(((Number) rect.get(0)).intValue(), ((Number) rect.get(1)).intValue(),
+                        ((Number) rect.get(3)).intValue(), ((Number) rect.get(2)).intValue());
+            default:
+                return value == null ? null : value.toString();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.batch;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * A single element property read, to be executed by {@link BatchElementReader} together with other reads of many
+ * elements in one round-trip.
+ *
+ * @see BatchElementReader
+ * @since 2.3.2
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ElementRead {
+
+    /**
+     * What is read
+     */
+    public enum Kind {
+        TEXT, ATTRIBUTE, DISPLAYED, RECT, CSS
+    }
+
+    private static final ElementRead TEXT = new ElementRead(Kind.TEXT, null);
+    private static final ElementRead DISPLAYED = new ElementRead(Kind.DISPLAYED, null);
+    private static final ElementRead RECT = new ElementRead(Kind.RECT, null);
+
+    private final Kind kind;
+    private final String name;
+
+
+    /**
+     * @return read of the visible text, as {@link org.openqa.selenium.WebElement#getText()}
+     */
+    public static ElementRead text() {
+        return TEXT;
+    }
+
+
+    /**
+     * @return read of the visibility, as {@link org.openqa.selenium.WebElement#isDisplayed()}
+     */
+    public static ElementRead displayed() {
+        return DISPLAYED;
+    }
+
+
+    /**
+     * @return read of location and size, as {@link org.openqa.selenium.WebElement#getRect()}
+     */
+    public static ElementRead rect() {
+        return RECT;
+    }
+
+
+    /**
+     * @param name attribute name
+     * @return read of an attribute, as {@link org.openqa.selenium.WebElement#getAttribute(String)}
+     */
+    public static ElementRead attribute(String name) {
+        return new ElementRead(Kind.ATTRIBUTE, Objects.requireNonNull(name, "attribute name must not be null"));
+    }
+
+
+    /**
+     * @param propertyName css property name
+     * @return read of a computed css value, as {@link org.openqa.selenium.WebElement#getCssValue(String)}
+     */
+    public static ElementRead cssValue(String propertyName) {
+        return new ElementRead(Kind.CSS, Objects.requireNonNull(propertyName, "css property must not be null"));
+    }
+
+
+    @Override
+    public String toString() {
+        return name == null ? kind.name().toLowerCase() : kind.name().toLowerCase() + "(" + name + ")";
+    }
+}
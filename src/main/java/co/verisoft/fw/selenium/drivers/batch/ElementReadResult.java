@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The values read for one element by {@link BatchElementReader}. Values are keyed by the {@link ElementRead} that
+ * produced them; the typed getters are shortcuts for the common reads.
+ *
+ * @since 2.3.2
+ */
+@ToString
+public final class ElementReadResult {
+
+    @Getter
+    @ToString.Exclude
+    private final WebElement element;
+    private final Map<ElementRead, Object> values;
+
+
+    ElementReadResult(WebElement element, Map<ElementRead, Object> values) {
+        this.element = element;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+
+    /**
+     * @param read a read that was requested
+     * @return the value read, may be null (e.g. a missing attribute)
+     * @throws IllegalArgumentException if the read was not requested
+     */
+    public Object get(ElementRead read) {
+        if (!values.containsKey(read))
+            throw new IllegalArgumentException(read + " was not requested in this batch");
+        return values.get(read);
+    }
+
+
+    public String getText() {
+        return (String) get(ElementRead.text());
+    }
+
+    public boolean isDisplayed() {
+        return (Boolean) get(ElementRead.displayed());
+    }
+
+    public Rectangle getRect() {
+        return (Rectangle) get(ElementRead.rect());
+    }
+
+    public String getAttribute(String name) {
+        return (String) get(ElementRead.attribute(name));
+    }
+
+    public String getCssValue(String propertyName) {
+        return (String) get(ElementRead.cssValue(propertyName));
+    }
+
+    /**
+     * @return all values, keyed by read
+     */
+    public Map<ElementRead, Object> asMap() {
+        return values;
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.decorators;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fires {@link WebDriverListener} events like Selenium's
+ * {@link org.openqa.selenium.support.events.EventFiringDecorator}, with the dispatch worked out once instead of on
+ * every call.<br>
+ * EventFiringDecorator calls every hook of every listener for every command, and looks up the specific hook
+ * (e.g. beforeGet) by scanning the listener's methods reflectively each time. This decorator builds a dispatch plan
+ * per target class and method the first time a command is seen: only hooks a listener actually overrides are part of
+ * the plan, and specific hooks are called through pre-resolved method handles. The plan is looked up once per call,
+ * and commands no listener is interested in go to the target without touching any listener.
+ * <br><br>
+ * Event order and semantics are the same as EventFiringDecorator's:
+ * <ul>
+ *     <li>Before a call, per listener: beforeAnyCall, beforeAny&lt;Type&gt;Call, before&lt;Method&gt;</li>
+ *     <li>After a call, per listener: after&lt;Method&gt;, afterAny&lt;Type&gt;Call, afterAnyCall</li>
+ *     <li>onError is fired on all listeners before the original exception is rethrown</li>
+ *     <li>An exception thrown by a listener is logged and does not stop the call</li>
+ * </ul>
+ * Unlike EventFiringDecorator, specific hooks of non public listener classes (e.g. anonymous classes) are fired too.
+ * <br><br>
+ * Listeners are kept in a {@link ListenerRegistry} and may be added or removed while the driver is in use. Plans are
+ * rebuilt lazily after a change.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public class ListenerDispatchDecorator extends WebDriverDecorator<WebDriver> {
+
+    private static final Map<String, List<Method>> HOOKS = new HashMap<>();
+
+    static {
+        for (Method m : WebDriverListener.class.getMethods())
+            HOOKS.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+    }
+
+    /**
+     * The listeners of this decorator. Listeners added or removed apply to the decorated driver right away
+     */
+    @Getter
+    private final ListenerRegistry registry;
+    private volatile Dispatch dispatch;
+    private final LongAdder dispatchedCalls = new LongAdder();
+
+
+    /**
+     * C-tor
+     *
+     * @param listeners listeners to fire events on, in firing order
+     */
+    public ListenerDispatchDecorator(WebDriverListener... listeners) {
+        this(new ListenerRegistry(listeners));
+    }
+
+
+    /**
+     * C-tor
+     *
+     * @param registry registry of the listeners to fire events on. Changes to it apply to the decorated driver
+     */
+    public ListenerDispatchDecorator(@NotNull ListenerRegistry registry) {
+        super(WebDriver.class);
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+        this.dispatch = new Dispatch(registry.current());
+    }
+
+
+    /**
+     * Resolve the plan of the call once, fire its before hooks, call the target and fire its after hooks. A call no
+     * listener takes part in goes to the target directly
+     */
+    @Override
+    public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+        Object original = target.getOriginal();
+        DispatchPlan plan = dispatch().planFor(original.getClass(), method);
+        if (plan.isEmpty())
+            return super.call(target, method, args);
+
+        dispatchedCalls.increment();
+        for (ListenerSteps steps : plan.before)
+            steps.fireBefore(original, method, args);
+        Object result = super.call(target, method, args);
+        for (ListenerSteps steps : plan.after)
+            steps.fireAfter(original, method, args, result);
+        return result;
+    }
+
+
+    /**
+     * @return number of calls listener events were fired for. Calls no listener takes part in are not counted
+     */
+    public long getDispatchedCalls() {
+        return dispatchedCalls.sum();
+    }
+
+
+    @Override
+    public Object onError(Decorated<?> target, Method method, Object[] args, InvocationTargetException e)
+            throws Throwable {
+        for (WebDriverListener listener : dispatch().errorListeners) {
+            try {
+                listener.onError(target.getOriginal(), method, args, e);
+            } catch (Throwable t) {
+                log.warn(t.getMessage(), t);
+            }
+        }
+        return super.onError(target, method, args, e);
+    }
+
+
+    /**
+     * @return the dispatch for the current listeners, replaced when the registry has changed
+     */
+    private Dispatch dispatch() {
+        WebDriverListener[] listeners = registry.current();
+        Dispatch current = dispatch;
+        if (current.listeners != listeners) {
+            current = new Dispatch(listeners);
+            dispatch = current;
+        }
+        return current;
+    }
+
+
+    private static DispatchPlan createPlan(WebDriverListener[] listeners, Class<?> targetClass, Method method) {
+        TargetKind kind = TargetKind.of(targetClass);
+        String suffix = Character.toUpperCase(method.getName().charAt(0)) + method.getName().substring(1);
+        boolean isVoid = method.getReturnType() == Void.TYPE || method.getReturnType() == WebDriver.Timeouts.class;
+
+        List<ListenerSteps> before = new ArrayList<>();
+        List<ListenerSteps> after = new ArrayList<>();
+        for (WebDriverListener listener : listeners) {
+            ListenerSteps beforeSteps = new ListenerSteps(listener,
+                    overrides(listener, "beforeAnyCall", Object.class, Method.class, Object[].class),
+                    kind != null && overrides(listener, "beforeAny" + kind.hookName + "Call", kind.type, Method.class,
+                            Object[].class) ? kind : null,
+                    hooks(listener, targetClass, "before" + suffix, method.getParameterCount() + 1), false);
+            if (!beforeSteps.isEmpty())
+                before.add(beforeSteps);
+
+            ListenerSteps afterSteps = new ListenerSteps(listener,
+                    overrides(listener, "afterAnyCall", Object.class, Method.class, Object[].class, Object.class),
+                    kind != null && overrides(listener, "afterAny" + kind.hookName + "Call", kind.type, Method.class,
+                            Object[].class, Object.class) ? kind : null,
+                    hooks(listener, targetClass, "after" + suffix, method.getParameterCount() + (isVoid ? 1 : 2)),
+                    !isVoid);
+            if (!afterSteps.isEmpty())
+                after.add(afterSteps);
+        }
+
+        if (log.isTraceEnabled())
+            log.trace("Dispatch plan for {}.{}: {} before, {} after", targetClass.getSimpleName(), method.getName(),
+                    before.size(), after.size());
+        return new DispatchPlan(before.toArray(new ListenerSteps[0]), after.toArray(new ListenerSteps[0]));
+    }
+
+
+    /**
+     * Resolve the overridden specific hooks of a listener (e.g. beforeFindElement) which may apply to a target class
+     */
+    private static Hook[] hooks(WebDriverListener listener, Class<?> targetClass, String name, int parameterCount) {
+        List<Hook> hooks = new ArrayList<>();
+        for (Method m : HOOKS.getOrDefault(name, Collections.emptyList())) {
+            if (m.getParameterCount() != parameterCount || !m.getParameterTypes()[0].isAssignableFrom(targetClass))
+                continue;
+            if (!overrides(listener, name, m.getParameterTypes()))
+                continue;
+            try {
+                MethodHandle handle = MethodHandles.publicLookup().unreflect(m)
+                        .asType(MethodType.genericMethodType(parameterCount + 1).changeReturnType(void.class))
+                        .asSpreader(Object[].class, parameterCount);
+                hooks.add(new Hook(handle, m.getParameterTypes()));
+            } catch (IllegalAccessException e) {
+                log.warn("Cannot access listener method {}", m, e);
+            }
+        }
+        return hooks.toArray(new Hook[0]);
+    }
+
+
+    private static boolean overrides(WebDriverListener listener, String name, Class<?>... parameterTypes) {
+        try {
+            return listener.getClass().getMethod(name, parameterTypes).getDeclaringClass() != WebDriverListener.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Dispatch plans for one generation of listeners
+     */
+    private static final class Dispatch {
+        private final WebDriverListener[] listeners;
+        private final WebDriverListener[] errorListeners;
+        private final Map<Class<?>, Map<Method, DispatchPlan>> plans = new ConcurrentHashMap<>();
+        // Almost all calls are on the same target class - its plans are found without the class lookup
+        private volatile ClassPlans last;
+
+        private Dispatch(WebDriverListener[] listeners) {
+            this.listeners = listeners;
+            this.errorListeners = Arrays.stream(listeners)
+                    .filter(l -> overrides(l, "onError", Object.class, Method.class, Object[].class,
+                            InvocationTargetException.class))
+                    .toArray(WebDriverListener[]::new);
+        }
+
+        private DispatchPlan planFor(Class<?> targetClass, Method method) {
+            ClassPlans classPlans = last;
+            if (classPlans == null || classPlans.targetClass != targetClass) {
+                classPlans = new ClassPlans(targetClass,
+                        plans.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>()));
+                last = classPlans;
+            }
+            return classPlans.plans.computeIfAbsent(method, m -> createPlan(listeners, targetClass, m));
+        }
+    }
+
+
+    private static final class ClassPlans {
+        private final Class<?> targetClass;
+        private final Map<Method, DispatchPlan> plans;
+
+        private ClassPlans(Class<?> targetClass, Map<Method, DispatchPlan> plans) {
+            this.targetClass = targetClass;
+            this.plans = plans;
+        }
+    }
+
+
+    private static final class DispatchPlan {
+        private final ListenerSteps[] before;
+        private final ListenerSteps[] after;
+
+        private DispatchPlan(ListenerSteps[] before, ListenerSteps[] after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        private boolean isEmpty() {
+            return before.length == 0 && after.length == 0;
+        }
+    }
+
+
+    /**
+     * The hooks of one listener which take part in a call, in firing order
+     */
+    private static final class ListenerSteps {
+        private final WebDriverListener listener;
+        private final boolean anyCall;
+        private final TargetKind kind;
+        private final Hook[] hooks;
+        private final boolean withResult;
+
+        private ListenerSteps(WebDriverListener listener, boolean anyCall, TargetKind kind, Hook[] hooks,
+                              boolean withResult) {
+            this.listener = listener;
+            this.anyCall = anyCall;
+            this.kind = kind;
+            this.hooks = hooks;
+            this.withResult = withResult;
+        }
+
+        private boolean isEmpty() {
+            return !anyCall && kind == null && hooks.length == 0;
+        }
+
+        private void fireBefore(Object target, Method method, Object[] args) {
+            if (anyCall) {
+                try {
+                    listener.beforeAnyCall(target, method, args);
+                } catch (Throwable t) {
+                    log.warn(t.getMessage(), t);
+                }
+            }
+            if (kind != null) {
+                try {
+                    kind.fireBefore(listener, target, method, args);
+                } catch (Throwable t) {
+                    log.warn(t.getMessage(), t);
+                }
+            }
+            if (hooks.length > 0)
+                fireHook(hookArgs(target, args, false, null));
+        }
+
+        private void fireAfter(Object target, Method method, Object[] args, Object result) {
+            if (hooks.length > 0)
+                fireHook(hookArgs(target, args, withResult, result));
+            if (kind != null) {
+                try {
+                    kind.fireAfter(listener, target, method, args, result);
+                } catch (Throwable t) {
+                    log.warn(t.getMessage(), t);
+                }
+            }
+            if (anyCall) {
+                try {
+                    listener.afterAnyCall(target, method, args, result);
+                } catch (Throwable t) {
+                    log.warn(t.getMessage(), t);
+                }
+            }
+        }
+
+        private void fireHook(Object[] hookArgs) {
+            for (Hook hook : hooks) {
+                if (hook.matches(hookArgs)) {
+                    try {
+                        hook.handle.invokeExact((Object) listener, hookArgs);
+                    } catch (Throwable t) {
+                        log.warn(t.getMessage(), t);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private static Object[] hookArgs(Object target, Object[] args, boolean withResult, Object result) {
+            int argsLength = args != null ? args.length : 0;
+            Object[] hookArgs = new Object[argsLength + 1 + (withResult ? 1 : 0)];
+            hookArgs[0] = target;
+            if (argsLength > 0)
+                System.arraycopy(args, 0, hookArgs, 1, argsLength);
+            if (withResult)
+                hookArgs[hookArgs.length - 1] = result;
+            return hookArgs;
+        }
+    }
+
+
+    /**
+     * A specific listener hook, called with the target, the call arguments and (for after hooks) the result
+     */
+    private static final class Hook {
+        private final MethodHandle handle;
+        private final Class<?>[] parameterTypes;
+
+        private Hook(MethodHandle handle, Class<?>[] parameterTypes) {
+            this.handle = handle;
+            this.parameterTypes = Arrays.stream(parameterTypes)
+                    .map(type -> type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type)
+                    .toArray(Class<?>[]::new);
+        }
+
+        private boolean matches(Object[] args) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (args[i] != null && !parameterTypes[i].isInstance(args[i]))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Target types with their own beforeAny / afterAny hooks, in the order EventFiringDecorator checks them
+     */
+    private enum TargetKind {
+        WEB_DRIVER("WebDriver", WebDriver.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyWebDriverCall((WebDriver) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyWebDriverCall((WebDriver) target, method, args, result);
+            }
+        },
+        WEB_ELEMENT("WebElement", WebElement.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyWebElementCall((WebElement) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyWebElementCall((WebElement) target, method, args, result);
+            }
+        },
+        NAVIGATION("Navigation", WebDriver.Navigation.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyNavigationCall((WebDriver.Navigation) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyNavigationCall((WebDriver.Navigation) target, method, args, result);
+            }
+        },
+        ALERT("Alert", Alert.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyAlertCall((Alert) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyAlertCall((Alert) target, method, args, result);
+            }
+        },
+        OPTIONS("Options", WebDriver.Options.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyOptionsCall((WebDriver.Options) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyOptionsCall((WebDriver.Options) target, method, args, result);
+            }
+        },
+        TIMEOUTS("Timeouts", WebDriver.Timeouts.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyTimeoutsCall((WebDriver.Timeouts) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyTimeoutsCall((WebDriver.Timeouts) target, method, args, result);
+            }
+        },
+        TARGET_LOCATOR("TargetLocator", WebDriver.TargetLocator.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyTargetLocatorCall((WebDriver.TargetLocator) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyTargetLocatorCall((WebDriver.TargetLocator) target, method, args, result);
+            }
+        },
+        WINDOW("Window", WebDriver.Window.class) {
+            void fireBefore(WebDriverListener l, Object target, Method method, Object[] args) {
+                l.beforeAnyWindowCall((WebDriver.Window) target, method, args);
+            }
+
+            void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result) {
+                l.afterAnyWindowCall((WebDriver.Window) target, method, args, result);
+            }
+        };
+
+        private final String hookName;
+        private final Class<?> type;
+
+        TargetKind(String hookName, Class<?> type) {
+            this.hookName = hookName;
+            this.type = type;
+        }
+
+        abstract void fireBefore(WebDriverListener l, Object target, Method method, Object[] args);
+
+        abstract void fireAfter(WebDriverListener l, Object target, Method method, Object[] args, Object result);
+
+        static TargetKind of(Class<?> targetClass) {
+            for (TargetKind kind : values()) {
+                if (kind.type.isAssignableFrom(targetClass))
+                    return kind;
+            }
+            return null;
+        }
+    }
+}
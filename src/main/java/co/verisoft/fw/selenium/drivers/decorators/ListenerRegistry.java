@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.decorators;
+
+import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The listeners of a {@link ListenerDispatchDecorator}, which may change while the decorated driver is in use.<br>
+ * The decorator reads the registry on every call, so a listener added or removed here takes effect immediately for the
+ * driver and for every element, window, navigation etc. object it handed out before - no re-decoration needed.
+ * <br><br>
+ * Copy on write: changes replace the listener array, readers never lock and always see a consistent array.
+ * Listeners fire in registration order.
+ *
+ * @since 2.3.2
+ */
+public final class ListenerRegistry {
+
+    private static final WebDriverListener[] EMPTY = new WebDriverListener[0];
+
+    private volatile WebDriverListener[] listeners;
+
+
+    /**
+     * C-tor
+     *
+     * @param listeners initial listeners, in firing order
+     */
+    public ListenerRegistry(WebDriverListener... listeners) {
+        this(Arrays.asList(listeners));
+    }
+
+
+    /**
+     * C-tor
+     *
+     * @param listeners initial listeners, in firing order
+     */
+    public ListenerRegistry(Collection<? extends WebDriverListener> listeners) {
+        listeners.forEach(l -> Objects.requireNonNull(l, "listener must not be null"));
+        this.listeners = listeners.toArray(EMPTY);
+    }
+
+
+    /**
+     * Add a listener. It fires after the listeners already registered
+     *
+     * @param listener listener to add
+     */
+    public synchronized void add(@NotNull WebDriverListener listener) {
+        Objects.requireNonNull(listener, "listener must not be null");
+        WebDriverListener[] current = listeners;
+        WebDriverListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+
+    /**
+     * Remove a listener
+     *
+     * @param listener listener to remove
+     * @return true if the listener was registered
+     */
+    public synchronized boolean remove(WebDriverListener listener) {
+        WebDriverListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                WebDriverListener[] updated = new WebDriverListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * @return the registered listeners at the time of the call, in firing order
+     */
+    public List<WebDriverListener> getListeners() {
+        return Collections.unmodifiableList(Arrays.asList(listeners));
+    }
+
+
+    /**
+     * @return the current listener array. Never modified once published, so it can be used as a version marker
+     */
+    WebDriverListener[] current() {
+        return listeners;
+    }
+}
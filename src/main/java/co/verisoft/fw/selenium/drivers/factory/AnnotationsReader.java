@@ -15,6 +15,7 @@
  */
 package co.verisoft.fw.selenium.drivers.factory;
 
+import co.verisoft.fw.selenium.drivers.http.SharedHttpClientFactory;
 import co.verisoft.fw.utils.CapabilitiesReader;
 import co.verisoft.fw.utils.Property;
 import io.appium.java_client.MobileCommand;
@@ -155,7 +156,8 @@ public class AnnotationsReader {
                     // create a default AppiumCommandExecutor by class name
                     commandExecutorValue = commandExecutor.value();
                     Class<?> cls = Class.forName((String) commandExecutorValue);
-                    HttpClient.Factory instance = (HttpClient.Factory) cls.getDeclaredConstructor().newInstance();
+                    HttpClient.Factory instance = SharedHttpClientFactory.share(
+                            (HttpClient.Factory) cls.getDeclaredConstructor().newInstance());
                     Optional<URL> optionalUrl = getUrl(applicationContext, parameter, testInstance);
                     URL url = optionalUrl.orElse(new URL("http://127.0.0.1:4723/wd/hub/"));
                     out = Optional.of(new AppiumCommandExecutor(MobileCommand.commandRepository, url, instance));
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.factory;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a test class (or a single test method) as using pooled browser sessions.<br>
+ * Instead of starting a new browser for every WebDriver parameter and quitting it after the test, the driver is
+ * borrowed from {@link co.verisoft.fw.selenium.drivers.pool.DriverPool} and, after the test, it is reset (cookies,
+ * storage, extra windows) and returned to the pool for the next test with the same capabilities and url.<br>
+ * Drivers created with a {@link DriverCommandExecutor} and mobile drivers are never pooled.
+ *
+ * @see co.verisoft.fw.selenium.drivers.pool.DriverPool
+ * @see SuiteSession
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface PooledSession {
+}
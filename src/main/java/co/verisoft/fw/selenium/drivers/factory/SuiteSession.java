@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.factory;
+
+import java.lang.annotation.*;
+
+/**
+ * Shares browser sessions across test classes.<br>
+ * Within a class it behaves like {@link SingleSession} - all test methods use one driver. When the class is done the
+ * driver is not quit: it is reset (cookies, storage, extra windows) and returned to
+ * {@link co.verisoft.fw.selenium.drivers.pool.DriverPool}, and the next class asking for the same capabilities + url
+ * continues with the same browser.<br>
+ * The annotation is inherited, so annotating a common base test class applies it to the whole suite.
+ * Mobile drivers and drivers created with a {@link DriverCommandExecutor} are not shared; in such classes they
+ * behave as with {@link SingleSession}.
+ *
+ * @see PooledSession
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Target(ElementType.TYPE)
+public @interface SuiteSession {
+}
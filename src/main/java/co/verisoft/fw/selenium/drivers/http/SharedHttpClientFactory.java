@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.http;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.http.*;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HttpClient factory for driver sessions which shares one HTTP client per remote server.<br>
+ * By default Selenium and Appium create a new HTTP client for every session, each with its own connection pool and
+ * thread pool, and close it when the session quits. This factory hands out a shared client for every session
+ * against the same grid / Appium server url, so connections are kept alive and reused across sessions and tests
+ * (thousands of commands per test go over a few warm connections). Shared clients are closed at JVM exit.
+ * <br><br>
+ * Settings (root.config.properties or -D system properties). When a key is not set, the value of the client config
+ * Selenium / Appium passed is kept:
+ * <ul>
+ *     <li>driver.http.shared - use this factory for remote sessions created by the framework. Default true</li>
+ *     <li>driver.http.connect.timeout.seconds - connection timeout</li>
+ *     <li>driver.http.read.timeout.seconds - read timeout, i.e. the longest a single command may take</li>
+ *     <li>driver.http.version - HTTP_1_1 or HTTP_2. HTTP_2 is only used if the grid supports it</li>
+ * </ul>
+ * The factory can also be used explicitly, e.g.
+ * {@code @DriverCommandExecutor("co.verisoft.fw.selenium.drivers.http.SharedHttpClientFactory")}.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public class SharedHttpClientFactory implements HttpClient.Factory {
+
+    private static final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private static volatile SharedHttpClientFactory instance;
+
+    private final HttpClient.Factory delegate;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SharedHttpClientFactory::closeAll, "http-clients-shutdown"));
+    }
+
+
+    /**
+     * C-tor. Shares clients created by Selenium's default factory
+     */
+    public SharedHttpClientFactory() {
+        this(HttpClient.Factory.createDefault());
+    }
+
+
+    /**
+     * C-tor
+     *
+     * @param delegate factory creating the actual clients
+     */
+    public SharedHttpClientFactory(HttpClient.Factory delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate factory must not be null");
+    }
+
+
+    /**
+     * @return the shared factory
+     */
+    public static SharedHttpClientFactory getInstance() {
+        if (instance == null) {
+            synchronized (SharedHttpClientFactory.class) {
+                if (instance == null) {
+                    instance = new SharedHttpClientFactory();
+                }
+            }
+        }
+        return instance;
+    }
+
+
+    /**
+     * The factory the framework uses for remote sessions
+     *
+     * @return the shared factory, or Selenium's default factory if driver.http.shared is false
+     */
+    public static HttpClient.Factory getFactory() {
+        if (isEnabled())
+            return getInstance();
+        return HttpClient.Factory.createDefault();
+    }
+
+
+    /**
+     * Share the clients of a given factory, e.g. one named in {@code @DriverCommandExecutor}
+     *
+     * @param factory factory creating the actual clients
+     * @return a sharing factory, or the factory itself if driver.http.shared is false
+     */
+    public static HttpClient.Factory share(HttpClient.Factory factory) {
+        if (factory instanceof SharedHttpClientFactory || !isEnabled())
+            return factory;
+        return new SharedHttpClientFactory(factory);
+    }
+
+
+    /**
+     * Create a command executor for a remote web driver session
+     *
+     * @param remoteAddress grid / remote server url
+     * @return a command executor using the factory returned by {@link #getFactory()}
+     */
+    public static HttpCommandExecutor newCommandExecutor(URL remoteAddress) {
+        return new HttpCommandExecutor(Collections.emptyMap(),
+                ClientConfig.defaultConfig().baseUrl(remoteAddress), getFactory());
+    }
+
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        ClientConfig tuned = tune(config);
+        String key = delegate.getClass().getName() + "|" + tuned.baseUri() + "|" + tuned.connectionTimeout() + "|"
+                + tuned.readTimeout() + "|" + tuned.version() + "|" + tuned.proxy() + "|"
+                + System.identityHashCode(tuned.filter()) + "|" + System.identityHashCode(tuned.credentials()) + "|"
+                + System.identityHashCode(tuned.sslContext());
+
+        HttpClient client = clients.computeIfAbsent(key, k -> {
+            log.debug("Creating shared http client for {}", tuned.baseUri());
+            return delegate.createClient(tuned);
+        });
+        return new SharedClient(client);
+    }
+
+
+    @Override
+    public void cleanupIdleClients() {
+        delegate.cleanupIdleClients();
+    }
+
+
+    /**
+     * Close all shared clients. Sessions still using them will fail, so this is meant for JVM exit
+     */
+    public static void closeAll() {
+        for (HttpClient client : clients.values()) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                log.debug("Error closing http client", e);
+            }
+        }
+        clients.clear();
+    }
+
+
+    private static boolean isEnabled() {
+        return ConfigValues.getBoolean("driver.http.shared", true);
+    }
+
+
+    private static ClientConfig tune(ClientConfig config) {
+        long connectTimeout = ConfigValues.getLong("driver.http.connect.timeout.seconds", -1);
+        if (connectTimeout >= 0)
+            config = config.connectionTimeout(Duration.ofSeconds(connectTimeout));
+
+        long readTimeout = ConfigValues.getLong("driver.http.read.timeout.seconds", -1);
+        if (readTimeout >= 0)
+            config = config.readTimeout(Duration.ofSeconds(readTimeout));
+
+        String version = ConfigValues.getString("driver.http.version", null);
+        if (version != null)
+            config = config.version(version);
+
+        return config;
+    }
+
+
+    /**
+     * A view of a shared client. Sessions close their client on quit - for a shared client that must not close
+     * the underlying connections
+     */
+    private static final class SharedClient implements HttpClient {
+        private final HttpClient delegate;
+
+        private SharedClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest req) {
+            return delegate.execute(req);
+        }
+
+        @Override
+        public void close() {
+            // Shared with other sessions, closed at JVM exit
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.pool;
+
+import co.verisoft.fw.selenium.drivers.VerisoftDriver;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * A keyed pool of running browser sessions.<br>
+ * Sessions are grouped by {@link DriverPoolKey} (normalized capabilities + url). A test borrows a session, and when
+ * it is done the session is released back to the pool - it is reset (extra windows closed, storage and cookies
+ * cleared, navigated to about:blank) instead of being quit, so the next test with the same key does not pay the
+ * browser startup time.
+ * <br><br>
+ * Per key, the pool keeps at most {@code maxSize} live sessions (idle and borrowed), keeps {@code minSize} sessions
+ * warm in the background, and quits idle sessions above the minimum after the idle timeout. Every idle session is
+ * health checked before it is handed out, and a session that fails the check or the reset is quit and replaced.
+ * All sessions still alive are quit when the JVM exits.
+ * <br><br>
+ * The pool works with raw (undecorated) drivers. Wrapping with listeners and registering to
+ * {@link co.verisoft.fw.selenium.drivers.VerisoftDriverManager} is done by the caller for each borrow.
+ *
+ * @see co.verisoft.fw.selenium.drivers.factory.PooledSession
+ * @see DriverPoolConfig
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class DriverPool {
+
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static volatile DriverPool instance;
+
+    @ToString.Include
+    private final DriverPoolConfig config;
+    private final Function<DriverPoolKey, WebDriver> factory;
+    private final ConcurrentHashMap<DriverPoolKey, KeyedPool> pools = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledDriver> borrowed = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final DriverPoolMetrics metrics = new DriverPoolMetrics();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+
+    /**
+     * Get the global pool. It is created on first use with settings from root.config.properties, and is shut down
+     * when the JVM exits.
+     *
+     * @return the global DriverPool
+     */
+    public static DriverPool getInstance() {
+        DriverPool pool = instance;
+        if (pool == null) {
+            synchronized (DriverPool.class) {
+                pool = instance;
+                if (pool == null) {
+                    pool = new DriverPool(DriverPoolConfig.fromProperties(),
+                            key -> VerisoftDriver.createWebDriver(key.getUrl(), key.getCapabilities()));
+                    Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "driver-pool-shutdown"));
+                    instance = pool;
+                    log.info("Driver pool created: {}", pool.config);
+                }
+            }
+        }
+        return pool;
+    }
+
+
+    /**
+     * Has the global pool been created? Lets callers check for pooled drivers without creating the pool.
+     *
+     * @return true if {@link #getInstance()} was already called
+     */
+    public static boolean isCreated() {
+        return instance != null;
+    }
+
+
+    /**
+     * C-tor
+     *
+     * @param config  pool sizing and timing settings
+     * @param factory creates a new raw driver for a key
+     */
+    public DriverPool(DriverPoolConfig config, Function<DriverPoolKey, WebDriver> factory) {
+        this.config = config;
+        this.factory = factory;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "driver-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = config.getEvictionInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Borrow a session for the key. An idle, healthy session is preferred; otherwise a new session is started if the
+     * key is below its max size; otherwise waits up to the borrow timeout for a session to be released.
+     *
+     * @param key capabilities + url of the requested session
+     * @return a raw driver, exclusively owned by the caller until {@link #release(WebDriver)}
+     * @throws IllegalStateException if no session became available within the borrow timeout
+     */
+    public WebDriver borrow(DriverPoolKey key) {
+        if (closed)
+            throw new IllegalStateException("Driver pool is shut down");
+
+        KeyedPool pool = pools.computeIfAbsent(key, k -> {
+            KeyedPool newPool = new KeyedPool(config.getMaxSize());
+            if (config.getMinSize() > 0)
+                maintenance.execute(() -> fill(k, newPool));
+            return newPool;
+        });
+
+        long start = System.nanoTime();
+        long deadline = start + config.getBorrowTimeout().toNanos();
+        try {
+            while (true) {
+                PooledDriver pooledDriver = pool.idle.pollFirst();
+                if (pooledDriver == null && pool.permits.tryAcquire()) {
+                    return lease(create(key, pool), start);
+                }
+
+                if (pooledDriver == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        metrics.borrowTimeouts.increment();
+                        throw new IllegalStateException("Timed out after " + config.getBorrowTimeout() +
+                                " waiting for a pooled driver for " + key);
+                    }
+                    pooledDriver = pool.idle.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                    if (pooledDriver == null)
+                        continue;
+                }
+
+                if (isHealthy(pooledDriver.driver)) {
+                    metrics.reused.increment();
+                    return lease(pooledDriver, start);
+                }
+                log.debug("Pooled driver {} failed health check, discarding it", pooledDriver.driver);
+                metrics.healthCheckFailures.increment();
+                destroy(pooledDriver, pool);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a pooled driver", e);
+        }
+    }
+
+
+    /**
+     * Is the driver currently borrowed from this pool?
+     *
+     * @param driver raw driver
+     * @return true if the driver was handed out by {@link #borrow(DriverPoolKey)} and not yet returned
+     */
+    public boolean isBorrowed(WebDriver driver) {
+        return driver != null && borrowed.containsKey(driver);
+    }
+
+
+    /**
+     * Reset the session and return it to the pool. If the reset fails the session is quit and its slot is freed.
+     *
+     * @param driver raw driver previously returned by {@link #borrow(DriverPoolKey)}
+     */
+    public void release(WebDriver driver) {
+        PooledDriver pooledDriver = borrowed.remove(driver);
+        if (pooledDriver == null) {
+            log.warn("Driver {} was not borrowed from the pool, ignoring release", driver);
+            return;
+        }
+
+        KeyedPool pool = pools.get(pooledDriver.key);
+        if (closed) {
+            destroy(pooledDriver, pool);
+            return;
+        }
+
+        try {
+            reset(driver);
+        } catch (Exception e) {
+            log.debug("Could not reset pooled driver {}, discarding it", driver, e);
+            metrics.resetFailures.increment();
+            destroy(pooledDriver, pool);
+            return;
+        }
+
+        pooledDriver.idleSince = System.nanoTime();
+        pool.idle.offerFirst(pooledDriver);
+        metrics.released.increment();
+
+        // Shutdown may have drained the pool while this driver was being reset
+        if (closed && pool.idle.remove(pooledDriver))
+            destroy(pooledDriver, pool);
+    }
+
+
+    /**
+     * Quit a borrowed session instead of returning it, e.g. when the session is known to be broken.
+     *
+     * @param driver raw driver previously returned by {@link #borrow(DriverPoolKey)}
+     */
+    public void invalidate(WebDriver driver) {
+        PooledDriver pooledDriver = borrowed.remove(driver);
+        if (pooledDriver != null)
+            destroy(pooledDriver, pools.get(pooledDriver.key));
+    }
+
+
+    public DriverPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getIdleCount() {
+        return pools.values().stream().mapToInt(p -> p.idle.size()).sum();
+    }
+
+    public int getBorrowedCount() {
+        return borrowed.size();
+    }
+
+
+    /**
+     * Quit all idle and borrowed sessions and stop the pool. Further borrows fail.
+     */
+    public void shutdown() {
+        if (closed)
+            return;
+        closed = true;
+        maintenance.shutdownNow();
+
+        for (KeyedPool pool : pools.values()) {
+            PooledDriver pooledDriver;
+            while ((pooledDriver = pool.idle.pollFirst()) != null)
+                destroy(pooledDriver, pool);
+        }
+
+        List<PooledDriver> stillBorrowed;
+        synchronized (borrowed) {
+            stillBorrowed = new ArrayList<>(borrowed.values());
+            borrowed.clear();
+        }
+        for (PooledDriver pooledDriver : stillBorrowed)
+            destroy(pooledDriver, pools.get(pooledDriver.key));
+
+        log.info("Driver pool shut down. {}", metrics);
+    }
+
+
+    private WebDriver lease(PooledDriver pooledDriver, long borrowStart) {
+        borrowed.put(pooledDriver.driver, pooledDriver);
+        metrics.borrowWaitNanos.add(System.nanoTime() - borrowStart);
+        log.debug("Lease pooled driver {} for {}", pooledDriver.driver, pooledDriver.key);
+        return pooledDriver.driver;
+    }
+
+
+    /**
+     * Start a new session. The caller must hold a permit of the pool, which is given back if creation fails.
+     */
+    private PooledDriver create(DriverPoolKey key, KeyedPool pool) {
+        long start = System.nanoTime();
+        try {
+            WebDriver driver = factory.apply(key);
+            metrics.created.increment();
+            metrics.creationNanos.add(System.nanoTime() - start);
+            return new PooledDriver(key, driver);
+        } catch (RuntimeException e) {
+            pool.permits.release();
+            metrics.creationFailures.increment();
+            throw e;
+        }
+    }
+
+
+    private void destroy(PooledDriver pooledDriver, KeyedPool pool) {
+        try {
+            pooledDriver.driver.quit();
+        } catch (Exception e) {
+            log.debug("Error while quitting pooled driver {}", pooledDriver.driver, e);
+        }
+        if (pool != null)
+            pool.permits.release();
+        metrics.destroyed.increment();
+    }
+
+
+    /**
+     * Is the session of the driver still usable? Checks the session id and makes one round trip to the browser.
+     *
+     * @param driver raw driver
+     * @return true if the session responds
+     */
+    public boolean isHealthy(WebDriver driver) {
+        try {
+            if (driver instanceof RemoteWebDriver && ((RemoteWebDriver) driver).getSessionId() == null)
+                return false;
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Bring a session back to a clean state: no alert, a single window, empty storage and cookies, blank page.
+     */
+    private void reset(WebDriver driver) {
+        try {
+            driver.switchTo().alert().dismiss();
+        } catch (NoAlertPresentException ignore) {
+            // No alert - nothing to dismiss
+        }
+
+        Iterator<String> handles = driver.getWindowHandles().iterator();
+        String keep = handles.next();
+        while (handles.hasNext()) {
+            driver.switchTo().window(handles.next());
+            driver.close();
+        }
+        driver.switchTo().window(keep);
+
+        // Storage is per origin, so it has to be cleared before leaving the page the test ended on
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); } catch (e) {}" +
+                        "try { window.sessionStorage.clear(); } catch (e) {}");
+            } catch (WebDriverException e) {
+                log.trace("Could not clear storage of pooled driver {}", driver, e);
+            }
+        }
+
+        driver.manage().deleteAllCookies();
+        if (driver instanceof ChromiumDriver) {
+            // deleteAllCookies only deletes the cookies of the current domain
+            try {
+                ((ChromiumDriver) driver).executeCdpCommand("Network.clearBrowserCookies", new HashMap<>());
+            } catch (WebDriverException e) {
+                log.trace("Could not clear browser cookies of pooled driver {}", driver, e);
+            }
+        }
+
+        driver.get("about:blank");
+    }
+
+
+    /**
+     * Start sessions in the background until the key has min size idle sessions (or reaches max size).
+     */
+    private void fill(DriverPoolKey key, KeyedPool pool) {
+        while (!closed && pool.idle.size() < config.getMinSize() && pool.permits.tryAcquire()) {
+            try {
+                PooledDriver pooledDriver = create(key, pool);
+                pooledDriver.idleSince = System.nanoTime();
+                pool.idle.offerLast(pooledDriver);
+            } catch (RuntimeException e) {
+                log.warn("Could not pre-start a pooled driver for {}", key, e);
+                return;
+            }
+        }
+    }
+
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleTimeout = config.getIdleTimeout().toNanos();
+        pools.forEach((key, pool) -> {
+            for (PooledDriver pooledDriver : pool.idle) {
+                if (pool.idle.size() <= config.getMinSize())
+                    break;
+                if (now - pooledDriver.idleSince > idleTimeout && pool.idle.remove(pooledDriver)) {
+                    log.debug("Evicting idle pooled driver {}", pooledDriver.driver);
+                    metrics.evicted.increment();
+                    destroy(pooledDriver, pool);
+                }
+            }
+            fill(key, pool);
+        });
+    }
+
+
+    private static final class KeyedPool {
+        private final Semaphore permits;
+        private final LinkedBlockingDeque<PooledDriver> idle = new LinkedBlockingDeque<>();
+
+        private KeyedPool(int maxSize) {
+            this.permits = new Semaphore(maxSize);
+        }
+    }
+
+
+    private static final class PooledDriver {
+        private final DriverPoolKey key;
+        private final WebDriver driver;
+        private volatile long idleSince;
+
+        private PooledDriver(DriverPoolKey key, WebDriver driver) {
+            this.key = key;
+            this.driver = driver;
+            this.idleSince = System.nanoTime();
+        }
+    }
+}
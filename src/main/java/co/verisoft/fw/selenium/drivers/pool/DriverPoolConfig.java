@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.pool;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Sizing and timing settings of a {@link DriverPool}. Limits apply per {@link DriverPoolKey}, i.e. per distinct
+ * capabilities + url combination.<br>
+ * Read from root.config.properties:
+ * <pre>
+ * driver.pool.min.size                 - sessions kept warm per key (default 0)
+ * driver.pool.max.size                 - maximum live sessions per key, idle and borrowed (default 4)
+ * driver.pool.idle.timeout.seconds     - idle sessions above min size are quit after this time (default 300)
+ * driver.pool.borrow.timeout.seconds   - maximum time a test waits for a session (default 120)
+ * driver.pool.eviction.interval.seconds - how often idle sessions are checked (default 30)
+ * </pre>
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class DriverPoolConfig {
+
+    private final int minSize;
+    private final int maxSize;
+    private final Duration idleTimeout;
+    private final Duration borrowTimeout;
+    private final Duration evictionInterval;
+
+
+    public static DriverPoolConfig fromProperties() {
+        int maxSize = Math.max(1, ConfigValues.getInt("driver.pool.max.size", 4));
+        int minSize = Math.min(maxSize, Math.max(0, ConfigValues.getInt("driver.pool.min.size", 0)));
+        return new DriverPoolConfig(
+                minSize,
+                maxSize,
+                Duration.ofSeconds(ConfigValues.getLong("driver.pool.idle.timeout.seconds", 300)),
+                Duration.ofSeconds(ConfigValues.getLong("driver.pool.borrow.timeout.seconds", 120)),
+                Duration.ofSeconds(Math.max(1, ConfigValues.getLong("driver.pool.eviction.interval.seconds", 30))));
+    }
+}
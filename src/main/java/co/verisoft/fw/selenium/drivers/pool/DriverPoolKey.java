@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.pool;
+
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Identifies a group of interchangeable browser sessions: the remote url (or local) plus the capabilities the session
+ * was created with. Capabilities are normalized into a sorted, nested map, so two capabilities objects holding the
+ * same values in a different order (or of different Capabilities classes) map to the same key.
+ */
+public final class DriverPoolKey {
+
+    private final @Nullable URL url;
+    private final Capabilities capabilities;
+    private final String urlKey;
+    private final Map<String, Object> normalizedCapabilities;
+    private final int hash;
+
+    public DriverPoolKey(@Nullable URL url, Capabilities capabilities) {
+        this.url = url;
+        this.capabilities = capabilities == null ? new ImmutableCapabilities() : capabilities;
+        this.urlKey = url == null ? "local" : url.toExternalForm();
+        this.normalizedCapabilities = normalizeMap(this.capabilities.asMap());
+        this.hash = Objects.hash(urlKey, normalizedCapabilities);
+    }
+
+    public @Nullable URL getUrl() {
+        return url;
+    }
+
+    public Capabilities getCapabilities() {
+        return capabilities;
+    }
+
+
+    private static Map<String, Object> normalizeMap(Map<?, ?> map) {
+        TreeMap<String, Object> sorted = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (entry.getValue() != null)
+                sorted.put(String.valueOf(entry.getKey()), normalize(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Capabilities)
+            return normalizeMap(((Capabilities) value).asMap());
+        if (value instanceof Map)
+            return normalizeMap((Map<?, ?>) value);
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (Collection<?>) value)
+                list.add(item == null ? null : normalize(item));
+            return Collections.unmodifiableList(list);
+        }
+        if (value instanceof Object[])
+            return normalize(Arrays.asList((Object[]) value));
+        if (value instanceof Number || value instanceof Boolean || value instanceof String)
+            return value;
+        return String.valueOf(value);
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof DriverPoolKey))
+            return false;
+        DriverPoolKey other = (DriverPoolKey) o;
+        return hash == other.hash
+                && urlKey.equals(other.urlKey)
+                && normalizedCapabilities.equals(other.normalizedCapabilities);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverPoolKey{" + urlKey + ", " + normalizedCapabilities + "}";
+    }
+}
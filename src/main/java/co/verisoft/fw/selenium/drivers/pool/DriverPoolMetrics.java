@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.drivers.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link DriverPool}. All counters are cumulative since the pool was created and are safe to read
+ * from any thread.
+ */
+public final class DriverPoolMetrics {
+
+    final LongAdder created = new LongAdder();
+    final LongAdder reused = new LongAdder();
+    final LongAdder released = new LongAdder();
+    final LongAdder destroyed = new LongAdder();
+    final LongAdder evicted = new LongAdder();
+    final LongAdder healthCheckFailures = new LongAdder();
+    final LongAdder resetFailures = new LongAdder();
+    final LongAdder creationFailures = new LongAdder();
+    final LongAdder borrowTimeouts = new LongAdder();
+    final LongAdder creationNanos = new LongAdder();
+    final LongAdder borrowWaitNanos = new LongAdder();
+
+    DriverPoolMetrics() {
+    }
+
+    /** Number of new sessions started by the pool */
+    public long getCreated() {
+        return created.sum();
+    }
+
+    /** Number of times an idle session was handed out instead of starting a new one */
+    public long getReused() {
+        return reused.sum();
+    }
+
+    /** Number of sessions that were reset and returned to the pool */
+    public long getReleased() {
+        return released.sum();
+    }
+
+    /** Number of sessions quit by the pool for any reason (eviction, failure, shutdown) */
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    /** Number of idle sessions quit because they exceeded the idle timeout */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public long getHealthCheckFailures() {
+        return healthCheckFailures.sum();
+    }
+
+    public long getResetFailures() {
+        return resetFailures.sum();
+    }
+
+    public long getCreationFailures() {
+        return creationFailures.sum();
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.sum();
+    }
+
+    /** Total time spent starting new sessions, in milliseconds */
+    public long getCreationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(creationNanos.sum());
+    }
+
+    /** Total time tests spent waiting for a session (including creation), in milliseconds */
+    public long getBorrowWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(borrowWaitNanos.sum());
+    }
+
+    /** Share of borrows that were served by an already running session */
+    public double getHitRatio() {
+        long hits = getReused();
+        long total = hits + getCreated();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverPoolMetrics{" +
+                "created=" + getCreated() +
+                ", reused=" + getReused() +
+                ", released=" + getReleased() +
+                ", destroyed=" + getDestroyed() +
+                ", evicted=" + getEvicted() +
+                ", healthCheckFailures=" + getHealthCheckFailures() +
+                ", resetFailures=" + getResetFailures() +
+                ", creationFailures=" + getCreationFailures() +
+                ", borrowTimeouts=" + getBorrowTimeouts() +
+                ", creationMillis=" + getCreationMillis() +
+                ", borrowWaitMillis=" + getBorrowWaitMillis() +
+                ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                '}';
+    }
+}
@@ -120,7 +120,7 @@ public class DecoratedDriverInjectionExtension implements ParameterResolver, Aft
 
         // Close the driver, unless test class is marked as @SingleSession, which will has 1 driver for class
         if (!isSingleSession(extensionContext))
-            VerisoftDriverManager.getDriver().quit();
+            quitDriver();
     }
 
 
@@ -129,7 +129,17 @@ public class DecoratedDriverInjectionExtension implements ParameterResolver, Aft
 
         // Closes the driver
         if (isSingleSession(extensionContext))
-            VerisoftDriverManager.getDriver().quit();
+            quitDriver();
+    }
+
+
+    /**
+     * Quit the driver of the current context and deregister it
+     */
+    private void quitDriver() {
+        WebDriver driver = VerisoftDriverManager.getDriver();
+        driver.quit();
+        VerisoftDriverManager.removeDriver(driver);
     }
 
 
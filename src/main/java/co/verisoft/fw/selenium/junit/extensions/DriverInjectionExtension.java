@@ -17,20 +17,36 @@
  */
 package co.verisoft.fw.selenium.junit.extensions;
 
+import co.verisoft.fw.async.AsyncEngine;
 import co.verisoft.fw.extensions.jupiter.XrayPluginExtension;
+import co.verisoft.fw.report.observer.Report;
+import co.verisoft.fw.selenium.drivers.DriverContext;
 import co.verisoft.fw.selenium.drivers.VerisoftDriver;
 import co.verisoft.fw.selenium.drivers.VerisoftDriverManager;
 import co.verisoft.fw.selenium.drivers.VerisoftMobileDriver;
 import co.verisoft.fw.selenium.drivers.factory.AnnotationsReader;
 import co.verisoft.fw.selenium.drivers.factory.DriverName;
+import co.verisoft.fw.selenium.drivers.factory.PooledSession;
 import co.verisoft.fw.selenium.drivers.factory.SingleSession;
+import co.verisoft.fw.selenium.drivers.factory.SuiteSession;
+import co.verisoft.fw.selenium.drivers.pool.DriverPool;
+import co.verisoft.fw.selenium.drivers.pool.DriverPoolKey;
+import co.verisoft.fw.selenium.metrics.DriverMetrics;
+import co.verisoft.fw.selenium.metrics.TestBreakdown;
+import co.verisoft.fw.selenium.metrics.TestTimeline;
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
 import co.verisoft.fw.store.StoreManager;
 import co.verisoft.fw.store.StoreType;
+import co.verisoft.fw.utils.internal.ConfigValues;
 import io.appium.java_client.AppiumDriver;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestTemplate;
 import org.junit.jupiter.api.extension.*;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
 import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.HttpCommandExecutor;
@@ -41,9 +57,9 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.net.URL;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Extension to inject VerisoftDriver and VerisoftMobileDriver directly into the test instances<br>
@@ -55,7 +71,17 @@ import java.util.Optional;
  */
 @ToString
 @Slf4j
-public class DriverInjectionExtension implements ParameterResolver, AfterEachCallback, AfterAllCallback {
+public class DriverInjectionExtension implements ParameterResolver, BeforeEachCallback, AfterEachCallback, AfterAllCallback, TestWatcher {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(DriverInjectionExtension.class);
+
+    private static final AtomicInteger driverStarterCounter = new AtomicInteger();
+    private static final ExecutorService driverStarter = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "driver-start-" + driverStarterCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
 
     AnnotationsReader annotationsReader;
 
@@ -99,17 +125,25 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
                 .orElse(parameter.getName());
 
         StoreManager.getStore(StoreType.LOCAL_THREAD).putValueInStore("current driver name",driverNameKey);
+        bindDriverContext(extensionContext);
         Class<?> type = parameter.getType();
 
-        // Mobile Driver
-        if (AppiumDriver.class.isAssignableFrom(type) || VerisoftMobileDriver.class.isAssignableFrom(type))
-            return resolveMobileDriver(applicationContext,extensionContext, testInstance, parameter);
-        // Web Driver
-        else if (WebDriver.class.isAssignableFrom(type))
-            return resolveWebDriver(applicationContext,extensionContext, parameter, testInstance, type);
-        else
-            throw new RuntimeException("Could not resolve parameter. " + type + " is neither assignable from " +
-                    "WebDriver nor VerisoftDriver / VerisoftMobileDriver");
+        // Everything up to here is cheap - from here on it is driver startup time of the test
+        long start = TestTimeline.enter();
+        try {
+            // Mobile Driver
+            if (AppiumDriver.class.isAssignableFrom(type) || VerisoftMobileDriver.class.isAssignableFrom(type))
+                return resolveMobileDriver(applicationContext, extensionContext, testInstance, parameter);
+            // Web Driver
+            else if (WebDriver.class.isAssignableFrom(type))
+                return resolveWebDriver(applicationContext, extensionContext, parameter, testInstance, type);
+            else
+                throw new RuntimeException("Could not resolve parameter. " + type + " is neither assignable from " +
+                        "WebDriver nor VerisoftDriver / VerisoftMobileDriver");
+        } finally {
+            TestTimeline.exit(TestTimeline.Phase.STARTUP, start);
+            TraceRecorder.end("startup", "resolve " + parameter.getName(), start);
+        }
     }
 
 
@@ -124,8 +158,17 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
     private Object resolveWebDriver(ApplicationContext applicationContext,ExtensionContext extensionContext, Parameter parameter, Optional<Object> testInstance, Class<?> type) {
         if (isSingleSession(extensionContext)) {
             RemoteWebDriver driver = VerisoftDriverManager.getDriver();
-            if (driver != null && driver.getSessionId()!=null)
-                return new VerisoftDriver(driver);
+            if (driver != null && driver.getSessionId()!=null) {
+                if (!DriverPool.isCreated() || !DriverPool.getInstance().isBorrowed(driver))
+                    return new VerisoftDriver(driver);
+
+                // A shared session can be lost between tests (e.g. grid session timeout) - replace it instead of failing
+                if (DriverPool.getInstance().isHealthy(driver))
+                    return new VerisoftDriver(driver);
+                log.warn("Shared session " + driver.getSessionId() + " is no longer alive, borrowing a new one");
+                VerisoftDriverManager.removeDriver(driver);
+                DriverPool.getInstance().invalidate(driver);
+            }
         }
         Optional<Capabilities> capabilities = annotationsReader.getCapabilities(applicationContext,parameter,
                 extensionContext.getTestInstance());
@@ -134,6 +177,23 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
                 testInstance);
 
         Optional<URL> url = annotationsReader.getUrl(applicationContext,parameter, testInstance);
+        if (isPooledSession(extensionContext) && commandExecutor.isEmpty() && capabilities.isPresent())
+            return borrowPooledDriver(url.orElse(null), capabilities.get());
+
+        if (commandExecutor.isEmpty() && capabilities.isPresent() && !isSingleSession(extensionContext)) {
+            StartedDrivers started = startDriversConcurrently(applicationContext, extensionContext, testInstance);
+            if (started.drivers.containsKey(parameter))
+                return new VerisoftDriver(started.take(parameter));
+        }
+
+        DriverPrewarmer prewarmer = getPrewarmer(applicationContext, extensionContext);
+        if (prewarmer != null && commandExecutor.isEmpty() && capabilities.isPresent()) {
+            WebDriver driver = prewarmer.take(extensionContext.getRequiredTestMethod(),
+                    new DriverPoolKey(url.orElse(null), capabilities.get()));
+            if (driver != null)
+                return new VerisoftDriver(driver);
+        }
+
         if (commandExecutor.isPresent())
             return new VerisoftDriver(((HttpCommandExecutor) commandExecutor.get()), capabilities.orElse(null));
         else if (url.isPresent())
@@ -143,6 +203,127 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
     }
 
 
+    /**
+     * When the test method declares more than one web driver parameter, start all of their sessions concurrently
+     * the first time one of them is resolved, instead of one handshake after the other. The started drivers are kept
+     * in the method store, and each parameter takes its own when JUnit resolves it.<br>
+     * Only parameters with capabilities and no command executor take part. Mobile drivers are left to the serial path.
+     *
+     * @param applicationContext Spring context, may be null
+     * @param extensionContext Junit 5 context object of the test method
+     * @param testInstance Junit 5 instance object
+     * @return drivers being started, by parameter. Empty if the method has less than 2 such parameters
+     */
+    private StartedDrivers startDriversConcurrently(ApplicationContext applicationContext,
+                                                    ExtensionContext extensionContext,
+                                                    Optional<Object> testInstance) {
+        Optional<Method> testMethod = extensionContext.getTestMethod();
+        if (testMethod.isEmpty())
+            return new StartedDrivers(Map.of());
+
+        return extensionContext.getStore(NAMESPACE).getOrComputeIfAbsent(StartedDrivers.class, k -> {
+            Map<Parameter, DriverPoolKey> keys = new LinkedHashMap<>();
+            for (Parameter parameter : testMethod.get().getParameters()) {
+                Class<?> type = parameter.getType();
+                if (!WebDriver.class.isAssignableFrom(type) || AppiumDriver.class.isAssignableFrom(type)
+                        || VerisoftMobileDriver.class.isAssignableFrom(type)
+                        || annotationsReader.getCommandExecutor(applicationContext, parameter, testInstance).isPresent())
+                    continue;
+                annotationsReader.getCapabilities(applicationContext, parameter, testInstance)
+                        .ifPresent(capabilities -> keys.put(parameter, new DriverPoolKey(
+                                annotationsReader.getUrl(applicationContext, parameter, testInstance).orElse(null),
+                                capabilities)));
+            }
+
+            Map<Parameter, CompletableFuture<WebDriver>> drivers = new HashMap<>();
+            if (keys.size() < 2)
+                return new StartedDrivers(drivers);
+
+            log.debug("Starting " + keys.size() + " drivers concurrently for " + testMethod.get().getName());
+            DriverPrewarmer prewarmer = getPrewarmer(applicationContext, extensionContext);
+            keys.forEach((parameter, key) -> drivers.put(parameter, CompletableFuture.supplyAsync(() -> {
+                WebDriver driver = prewarmer == null ? null : prewarmer.take(testMethod.get(), key);
+                return driver != null ? driver : VerisoftDriver.createWebDriver(key.getUrl(), key.getCapabilities());
+            }, driverStarter)));
+            return new StartedDrivers(drivers);
+        }, StartedDrivers.class);
+    }
+
+
+    /**
+     * Borrow a running session from the driver pool and wrap it with a new VerisoftDriver (listeners + registration)
+     * @param url remote url, or null for a local driver
+     * @param capabilities capabilities object
+     * @return a VerisoftDriver object backed by a pooled session
+     */
+    private Object borrowPooledDriver(URL url, Capabilities capabilities) {
+        DriverPool pool = DriverPool.getInstance();
+        WebDriver driver = pool.borrow(new DriverPoolKey(url, capabilities));
+        try {
+            return new VerisoftDriver(driver);
+        } catch (RuntimeException e) {
+            pool.invalidate(driver);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Get the pre-warmer of the test class, creating it on first use. Pre-warming is enabled by setting
+     * driver.prewarm.depth in root.config.properties to the number of drivers to start ahead, and does not apply to
+     * single session and pooled session tests.
+     * @param applicationContext Spring context, may be null
+     * @param extensionContext Junit 5 context object of the test method
+     * @return the class pre-warmer, or null if pre-warming does not apply
+     */
+    private DriverPrewarmer getPrewarmer(ApplicationContext applicationContext, ExtensionContext extensionContext) {
+        int depth = ConfigValues.getInt("driver.prewarm.depth", 0);
+        Optional<ExtensionContext> classContext = extensionContext.getParent();
+        if (depth <= 0 || classContext.isEmpty() || extensionContext.getTestMethod().isEmpty()
+                || isSingleSession(extensionContext) || isPooledSession(extensionContext))
+            return null;
+
+        return classContext.get().getStore(NAMESPACE).getOrComputeIfAbsent(DriverPrewarmer.class,
+                k -> new DriverPrewarmer(depth, pendingDriverKeys(applicationContext, extensionContext)),
+                DriverPrewarmer.class);
+    }
+
+
+    /**
+     * Map every enabled @Test method of the class to the keys (capabilities + url) of its web driver parameters
+     * @param applicationContext Spring context, may be null
+     * @param extensionContext Junit 5 context object of the test method
+     * @return keys of the drivers each test method will ask for
+     */
+    private Map<Method, List<DriverPoolKey>> pendingDriverKeys(ApplicationContext applicationContext,
+                                                              ExtensionContext extensionContext) {
+        Map<Method, List<DriverPoolKey>> pending = new HashMap<>();
+        Optional<Object> testInstance = extensionContext.getTestInstance();
+        List<Method> methods = AnnotationSupport.findAnnotatedMethods(extensionContext.getRequiredTestClass(),
+                Test.class, HierarchyTraversalMode.TOP_DOWN);
+
+        for (Method method : methods) {
+            if (method.isAnnotationPresent(Disabled.class) || method.isAnnotationPresent(PooledSession.class))
+                continue;
+            List<DriverPoolKey> keys = new ArrayList<>();
+            for (Parameter parameter : method.getParameters()) {
+                Class<?> type = parameter.getType();
+                if (!WebDriver.class.isAssignableFrom(type) || AppiumDriver.class.isAssignableFrom(type)
+                        || VerisoftMobileDriver.class.isAssignableFrom(type)
+                        || annotationsReader.getCommandExecutor(applicationContext, parameter, testInstance).isPresent())
+                    continue;
+                annotationsReader.getCapabilities(applicationContext, parameter, testInstance)
+                        .ifPresent(capabilities -> keys.add(new DriverPoolKey(
+                                annotationsReader.getUrl(applicationContext, parameter, testInstance).orElse(null),
+                                capabilities)));
+            }
+            if (!keys.isEmpty())
+                pending.put(method, keys);
+        }
+        return pending;
+    }
+
+
     /**
      * Get the capabilities and create new VerisoftobileDriver insatnce
      * @param extensionContext Junit 5 context object
@@ -185,15 +366,37 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
     }
 
 
+    @Override
+    public void beforeEach(ExtensionContext extensionContext) throws Exception {
+        bindDriverContext(extensionContext);
+        if (DriverMetrics.isEnabled())
+            extensionContext.getStore(NAMESPACE).put(TestTimeline.class, TestTimeline.begin(
+                    extensionContext.getRequiredTestClass().getSimpleName() + "." + extensionContext.getDisplayName()));
+    }
+
+
     @Override
     public void afterEach(ExtensionContext extensionContext) throws Exception {
+        endTimeline(extensionContext);
 
         // Close the driver, unless test class is marked as @SingleSession, which will has 1 driver for class
-        Map<String,WebDriver> drivers = VerisoftDriverManager.getDrivers();
-        if (extensionContext.getExecutionException().isPresent() || (!isSingleSession(extensionContext) && Objects.nonNull(drivers))) {
-            for (WebDriver driver : drivers.values()) {
-                driver.quit();
+        bindDriverContext(extensionContext);
+        try {
+            Map<String,WebDriver> drivers = VerisoftDriverManager.getDrivers();
+            if (Objects.nonNull(drivers)) {
+                boolean close = extensionContext.getExecutionException().isPresent() ||
+                        !isSingleSession(extensionContext);
+                for (WebDriver driver : new ArrayList<>(drivers.values())) {
+                    if (close)
+                        closeDriver(driver);
+                    else
+                        // The session stays for the next test of the class, the async tasks of this test do not
+                        AsyncEngine.release(driver);
+                }
             }
+        } finally {
+            // The worker thread must not keep the finished test's context (and its drivers) reachable
+            DriverContext.bind(null);
         }
     }
 
@@ -201,19 +404,128 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
     @Override
     public void afterAll(ExtensionContext extensionContext) throws Exception {
 
-        if (isSingleSession(extensionContext)) {
-            Map<String,WebDriver> drivers = VerisoftDriverManager.getDrivers();
-            if (drivers != null) {
-                for (WebDriver driver : drivers.values()) {
-                    driver.quit();
+        try {
+            if (isSingleSession(extensionContext)) {
+                bindDriverContext(extensionContext);
+                Map<String,WebDriver> drivers = VerisoftDriverManager.getDrivers();
+                if (drivers != null) {
+                    for (WebDriver driver : new ArrayList<>(drivers.values())) {
+                        closeDriver(driver);
+                    }
                 }
             }
+        } finally {
+            DriverContext.bind(null);
         }
     }
 
 
+    @Override
+    public void testDisabled(ExtensionContext context, Optional<String> reason) {
+        forgetPrewarmedDrivers(context);
+    }
+
+
+    @Override
+    public void testAborted(ExtensionContext context, Throwable cause) {
+        forgetPrewarmedDrivers(context);
+    }
+
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        forgetPrewarmedDrivers(context);
+    }
+
+
+    /**
+     * End the timeline of the test, report where its time went and add it to the run totals. Closing the drivers is
+     * not part of the test time
+     *
+     * @param extensionContext Junit 5 context object of the test method
+     */
+    private void endTimeline(ExtensionContext extensionContext) {
+        TestTimeline timeline = extensionContext.getStore(NAMESPACE).remove(TestTimeline.class, TestTimeline.class);
+        if (timeline == null)
+            return;
+
+        TestBreakdown breakdown = timeline.end();
+        TraceRecorder.end("test", timeline.getTest(), timeline.getStartNanos());
+        DriverMetrics.recordTest(breakdown);
+        Report.info("Test time " + breakdown.format());
+    }
+
+
+    /**
+     * The test will not take (more) pre-started drivers. Let the class pre-warmer quit the ones it no longer needs
+     *
+     * @param context Junit 5 context object of the test method
+     */
+    private void forgetPrewarmedDrivers(ExtensionContext context) {
+        Optional<Method> testMethod = context.getTestMethod();
+        Optional<DriverPrewarmer> prewarmer = context.getParent()
+                .map(parent -> parent.getStore(NAMESPACE).get(DriverPrewarmer.class, DriverPrewarmer.class));
+        if (testMethod.isPresent() && prewarmer.isPresent())
+            prewarmer.get().forget(testMethod.get());
+    }
+
+
     /**
-     * Is test class is marked as @SingleSession, which will has 1 driver for class?
+     * Quit the driver, or if it was borrowed from the driver pool, unregister it and return it to the pool. Async
+     * tasks of the test are cancelled either way - the session may be used by the next test
+     *
+     * @param driver driver as registered in VerisoftDriverManager
+     */
+    private void closeDriver(WebDriver driver) {
+        AsyncEngine.release(driver);
+        if (DriverPool.isCreated() && DriverPool.getInstance().isBorrowed(driver)) {
+            VerisoftDriverManager.removeDriver(driver);
+            DriverPool.getInstance().release(driver);
+        } else {
+            driver.quit();
+            VerisoftDriverManager.removeDriver(driver);
+        }
+    }
+
+
+    /**
+     * Bind the driver context drivers of this test are registered under to the current thread. A @SingleSession
+     * test method uses the context of its class, so the driver is shared by all the methods of the class.
+     *
+     * @param extensionContext Junit 5 context object
+     */
+    private void bindDriverContext(ExtensionContext extensionContext) {
+        ExtensionContext owner = extensionContext;
+        if (extensionContext.getTestMethod().isPresent() && isSingleSession(extensionContext))
+            owner = extensionContext.getParent().orElse(extensionContext);
+        DriverContext.bind(getDriverContext(owner));
+    }
+
+
+    /**
+     * Get the driver context of a JUnit context, creating it on first use. It is kept in the JUnit context store, so
+     * it lives exactly as long as the JUnit context. Its parent is the driver context of the enclosing test class.<br>
+     * Other extensions can use it to find the drivers of a test without relying on the thread they are called on:
+     * <pre>{@code
+     * WebDriver driver = VerisoftDriverManager.getDriver(DriverInjectionExtension.getDriverContext(context));
+     * }</pre>
+     *
+     * @param extensionContext Junit 5 context object
+     * @return the driver context
+     */
+    public static DriverContext getDriverContext(ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).getOrComputeIfAbsent(DriverContext.class, k -> {
+            DriverContext parent = extensionContext.getParent()
+                    .filter(p -> p.getTestClass().isPresent())
+                    .map(DriverInjectionExtension::getDriverContext)
+                    .orElse(null);
+            return DriverContext.create(extensionContext.getUniqueId(), parent);
+        }, DriverContext.class);
+    }
+
+
+    /**
+     * Is test class is marked as @SingleSession (or @SuiteSession), which will has 1 driver for class?
      *
      * @param extensionContext Junit 5 context object
      * @return True if the class is a single session class, false otherwise
@@ -222,10 +534,82 @@ public class DriverInjectionExtension implements ParameterResolver, AfterEachCal
         boolean singleSession = false;
         Optional<Class<?>> testClass = extensionContext.getTestClass();
         if (testClass.isPresent()) {
-            singleSession = testClass.get()
-                    .isAnnotationPresent(SingleSession.class);
+            singleSession = testClass.get().isAnnotationPresent(SingleSession.class)
+                    || testClass.get().isAnnotationPresent(SuiteSession.class);
         }
         log.trace("Single session " + singleSession);
         return singleSession;
     }
+
+
+    /**
+     * Is the test method or test class marked as @PooledSession (or @SuiteSession), which borrows drivers from the
+     * driver pool?
+     *
+     * @param extensionContext Junit 5 context object
+     * @return True if drivers should be borrowed from the pool, false otherwise
+     */
+    private boolean isPooledSession(ExtensionContext extensionContext) {
+        boolean pooledSession = extensionContext.getTestMethod()
+                .map(method -> method.isAnnotationPresent(PooledSession.class))
+                .orElse(false)
+                || extensionContext.getTestClass()
+                .map(testClass -> testClass.isAnnotationPresent(PooledSession.class)
+                        || testClass.isAnnotationPresent(SuiteSession.class))
+                .orElse(false);
+        log.trace("Pooled session " + pooledSession);
+        return pooledSession;
+    }
+
+
+    /**
+     * Drivers of one test method being started concurrently. Kept in the method store, so drivers which were never
+     * taken (e.g. another parameter failed to resolve) are quit when the test is done.
+     */
+    private static final class StartedDrivers implements ExtensionContext.Store.CloseableResource {
+
+        private final Map<Parameter, CompletableFuture<WebDriver>> drivers;
+        private final Set<Parameter> taken = new HashSet<>();
+
+        private StartedDrivers(Map<Parameter, CompletableFuture<WebDriver>> drivers) {
+            this.drivers = drivers;
+        }
+
+        /**
+         * Wait for the driver of a parameter. If starting it failed, all the other drivers of the test are quit
+         * (including ones already handed out), since the test will not run.
+         *
+         * @param parameter the parameter being resolved
+         * @return raw driver
+         */
+        private WebDriver take(Parameter parameter) {
+            taken.add(parameter);
+            try {
+                return drivers.get(parameter).join();
+            } catch (CompletionException | CancellationException e) {
+                drivers.values().forEach(StartedDrivers::quitWhenStarted);
+                throw new ParameterResolutionException("Could not start driver for parameter " + parameter.getName(),
+                        e.getCause() != null ? e.getCause() : e);
+            }
+        }
+
+        @Override
+        public void close() {
+            drivers.forEach((parameter, future) -> {
+                if (!taken.contains(parameter))
+                    quitWhenStarted(future);
+            });
+        }
+
+        private static void quitWhenStarted(CompletableFuture<WebDriver> future) {
+            future.thenAccept(driver -> {
+                try {
+                    driver.quit();
+                } catch (Exception e) {
+                    log.debug("Error quitting driver " + driver, e);
+                }
+                VerisoftDriverManager.removeDriver(driver);
+            });
+        }
+    }
 }
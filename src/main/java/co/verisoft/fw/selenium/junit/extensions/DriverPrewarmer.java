@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.junit.extensions;
+
+import co.verisoft.fw.selenium.drivers.VerisoftDriver;
+import co.verisoft.fw.selenium.drivers.pool.DriverPoolKey;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the drivers of the upcoming tests of a test class in the background, while the current test runs.<br>
+ * When the class is first seen, the WebDriver parameters of all its remaining test methods are mapped to their
+ * capabilities + url. Each time a driver is resolved, up to {@code depth} drivers with the same key are started on a
+ * background executor, but never more than the remaining tests still need. The next resolve of that key takes an
+ * already started driver instead of blocking on session creation.<br>
+ * Drivers that are no longer needed (a test was skipped, aborted or failed, or the class ended) are quit.
+ * <br><br>
+ * One instance lives in the class level extension context store, so JUnit closes it when the class is done.
+ */
+@Slf4j
+final class DriverPrewarmer implements ExtensionContext.Store.CloseableResource {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "driver-prewarm-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final int depth;
+    private final Map<Method, List<DriverPoolKey>> pending;
+    private final Map<DriverPoolKey, Deque<CompletableFuture<WebDriver>>> stash = new HashMap<>();
+    private boolean closed;
+
+
+    /**
+     * C-tor
+     *
+     * @param depth   maximum number of drivers started ahead per key
+     * @param pending keys of the WebDriver parameters of every test method in the class which did not run yet
+     */
+    DriverPrewarmer(int depth, Map<Method, List<DriverPoolKey>> pending) {
+        this.depth = depth;
+        this.pending = new HashMap<>(pending);
+    }
+
+
+    /**
+     * Take a driver started ahead for the key, and start drivers for the next tests.
+     *
+     * @param method test method the driver is resolved for
+     * @param key    capabilities + url of the driver
+     * @return a raw driver, or null if none was started ahead (or starting it failed)
+     */
+    WebDriver take(Method method, DriverPoolKey key) {
+        CompletableFuture<WebDriver> future;
+        synchronized (this) {
+            List<DriverPoolKey> keys = pending.get(method);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty())
+                    pending.remove(method);
+            }
+            Deque<CompletableFuture<WebDriver>> ready = stash.get(key);
+            future = ready == null ? null : ready.pollFirst();
+            adjust(key);
+        }
+
+        if (future == null)
+            return null;
+        try {
+            WebDriver driver = future.get();
+            log.debug("Using pre-started driver {} for {}", driver, method.getName());
+            return driver;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(future);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Pre-starting driver for {} failed, creating it now", key, e.getCause());
+            return null;
+        }
+    }
+
+
+    /**
+     * A test will not consume its drivers (skipped, aborted or failed before resolving). Quit surplus drivers.
+     *
+     * @param method test method
+     */
+    synchronized void forget(Method method) {
+        if (pending.remove(method) != null) {
+            for (DriverPoolKey key : new ArrayList<>(stash.keySet()))
+                adjust(key);
+        }
+    }
+
+
+    /**
+     * Quit all drivers that were started and not taken
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+        for (Deque<CompletableFuture<WebDriver>> futures : stash.values()) {
+            futures.forEach(DriverPrewarmer::discard);
+        }
+        stash.clear();
+    }
+
+
+    /**
+     * Start or quit drivers until the stash of the key holds min(depth, remaining demand) drivers
+     */
+    private void adjust(DriverPoolKey key) {
+        long demand = closed ? 0 : pending.values().stream()
+                .flatMap(List::stream)
+                .filter(key::equals)
+                .count();
+        long target = Math.min(depth, demand);
+
+        Deque<CompletableFuture<WebDriver>> ready = stash.computeIfAbsent(key, k -> new ArrayDeque<>());
+        while (ready.size() < target) {
+            log.debug("Pre-starting driver for {}", key);
+            ready.addLast(CompletableFuture.supplyAsync(
+                    () -> VerisoftDriver.createWebDriver(key.getUrl(), key.getCapabilities()), executor));
+        }
+        while (ready.size() > target) {
+            discard(ready.pollLast());
+        }
+    }
+
+
+    private static void discard(CompletableFuture<WebDriver> future) {
+        future.thenAccept(driver -> {
+            try {
+                log.debug("Quitting unused pre-started driver {}", driver);
+                driver.quit();
+            } catch (Exception e) {
+                log.debug("Error quitting pre-started driver {}", driver, e);
+            }
+        });
+    }
+}
@@ -32,7 +32,7 @@ public class PageSourceSaverExtension implements AfterTestExecutionCallback {
     @Override
     public void afterTestExecution(ExtensionContext context) throws Exception {
         if (context.getExecutionException().isPresent()) {
-            WebDriver driver = VerisoftDriverManager.getDriver();
+            WebDriver driver = VerisoftDriverManager.getDriver(DriverInjectionExtension.getDriverContext(context));
 
             String pageSource = driver.getPageSource();
 
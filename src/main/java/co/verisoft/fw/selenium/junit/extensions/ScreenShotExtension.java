@@ -57,7 +57,8 @@ public class ScreenShotExtension implements TestExecutionExceptionHandler, Befor
         DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm");
         LocalDateTime now = LocalDateTime.now();
 
-        Map<String, WebDriver> drivers = VerisoftDriverManager.getDrivers();
+        Map<String, WebDriver> drivers =
+                VerisoftDriverManager.getDrivers(DriverInjectionExtension.getDriverContext(extensionContext));
 
         if (drivers == null || drivers.isEmpty()) {
             log.error("No drivers available. No screenshots can be captured.");
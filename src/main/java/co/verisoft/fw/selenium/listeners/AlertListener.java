@@ -16,15 +16,15 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -45,17 +45,16 @@ import java.util.Objects;
 
 public final class AlertListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyAlertCall(Alert alert, Method method, Object[] args) {
         if (Objects.isNull(alert))
             return;
-        actionTime = ActionTime.getMeasureTime();
-        log.trace("Alert " + alert.getText() +
-                " is fired. Method is: " + method.getName() +
-                "Args are: " + Arrays.toString(args));
+        startTiming(alert, method);
+        if (log.isTraceEnabled())
+            log.trace("Alert {} is fired. Method is: {} Args are: {}", alert.getText(), method.getName(), args);
 
     }
 
@@ -63,10 +62,10 @@ public final class AlertListener implements WebDriverListener {
     public void afterAnyAlertCall(Alert alert, Method method, Object[] args, Object result) {
         if (Objects.isNull(alert))
             return;
-        log.trace("Alert " + alert.getText() +
-                " is done. Method was: " + method.getName() +
-                "Args were: " + Arrays.toString(args) +
-                " Action time: " + actionTime.getDelta());
+        if (log.isTraceEnabled())
+            log.trace("Alert {} is done. Method was: {} Args were: {} Action time: {}",
+                    alert.getText(), method.getName(), args, timer.elapsedMillis());
+        timer.stop(alert, method);
     }
 
     @Override
@@ -78,8 +77,8 @@ public final class AlertListener implements WebDriverListener {
     public void afterAccept(Alert alert) {
         if (Objects.isNull(alert))
             return;
-        actionTime.captureEndTime();
-        log.debug("Alert " + alert.getText() + " accepted. Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Alert {} accepted. Action time: {}", alert.getText(), timer.elapsedMillis());
     }
 
     @Override
@@ -91,8 +90,8 @@ public final class AlertListener implements WebDriverListener {
     public void afterDismiss(Alert alert) {
         if (Objects.isNull(alert))
             return;
-        actionTime.captureEndTime();
-        log.debug("Alert " + alert.getText() + " dismissed. Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Alert {} dismissed. Action time: {}", alert.getText(), timer.elapsedMillis());
     }
 
 
@@ -105,9 +104,9 @@ public final class AlertListener implements WebDriverListener {
     public void afterGetText(Alert alert, String result) {
         if (Objects.isNull(alert))
             return;
-        actionTime.captureEndTime();
-        log.debug("Alert " + alert.getText() + "  - get text is done. Text retrieved is " + result +
-                "Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Alert {} - get text is done. Text retrieved is {} Action time: {}",
+                    alert.getText(), result, timer.elapsedMillis());
     }
 
 
@@ -120,8 +119,21 @@ public final class AlertListener implements WebDriverListener {
     public void afterSendKeys(Alert alert, String keys) {
         if (Objects.isNull(alert))
             return;
-        actionTime.captureEndTime();
-        log.debug("Alert " + alert.getText() + " send keys. String was " + keys + ". Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Alert {} send keys. String was {}. Action time: {}",
+                    alert.getText(), keys, timer.elapsedMillis());
     }
 
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
+    }
 }
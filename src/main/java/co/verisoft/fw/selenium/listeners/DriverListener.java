@@ -16,7 +16,7 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -26,8 +26,8 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -49,23 +49,22 @@ import java.util.Set;
  */
 public final class DriverListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
-        actionTime = ActionTime.getMeasureTime();
-        log.trace("WebDriver " + driver.toString() +
-                " event is fired. Method is: " + method.getName() +
-                "Args are: " + Arrays.toString(args));
+        startTiming(driver, method);
+        if (log.isTraceEnabled())
+            log.trace("WebDriver {} event is fired. Method is: {} Args are: {}", driver, method.getName(), args);
     }
 
     @Override
     public void afterAnyWebDriverCall(WebDriver driver, Method method, Object[] args, Object result) {
-        log.trace("WebDriver " + driver.toString() +
-                " event is done. Method was: " + method.getName() +
-                "Args were: " + Arrays.toString(args) +
-                "Result is: " + result);
+        if (log.isTraceEnabled())
+            log.trace("WebDriver {} event is done. Method was: {} Args were: {} Result is: {}",
+                    driver, method.getName(), args, result);
+        timer.stop(driver, method);
     }
 
     @Override
@@ -75,11 +74,8 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterGet(WebDriver driver, String url) {
-        actionTime.captureEndTime();
-        log.debug("After Get Operation " +
-                " URL " + url +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After Get Operation URL {} driver {} Action time: {}", url, driver, timer.elapsedMillis());
     }
 
     @Override
@@ -88,11 +84,9 @@ public final class DriverListener implements WebDriverListener {
     }
     @Override
     public void afterGetCurrentUrl(WebDriver driver,String result) {
-        actionTime.captureEndTime();
-        log.debug("After Get current URL Operation " +
-                " result " + result +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After Get current URL Operation result {} driver {} Action time: {}",
+                    result, driver, timer.elapsedMillis());
     }
     @Override
     public void beforeGetTitle(WebDriver driver) {
@@ -101,11 +95,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterGetTitle(WebDriver driver, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get title Operation " +
-                " title " + result +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get title Operation title {} driver {} Action time: {}",
+                    result, driver, timer.elapsedMillis());
     }
 
     @Override
@@ -115,11 +107,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterFindElement(WebDriver driver, By locator, WebElement result) {
-        actionTime.captureEndTime();
-        log.debug("After find Element. Driver " + driver.toString() +
-                " Locator " + locator.toString() +
-                ", result Element: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After find Element. Driver {} Locator {}, result Element: {} Action time {}",
+                    driver, locator, result, timer.elapsedMillis());
     }
 
     @Override
@@ -129,12 +119,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterFindElements(WebDriver driver, By locator, List<WebElement> result) {
-        actionTime.captureEndTime();
-        log.debug("After find Elements. Found " + result.size() + " Elements " +
-                " using locator" + locator.toString() +
-                " Action time " + actionTime.getDelta() +
-                " Elements list: " + Arrays.toString(result.toArray()) +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After find Elements. Found {} Elements using locator {} Action time {} Elements list: {} With " +
+                    "driver {}", result.size(), locator, timer.elapsedMillis(), result, driver);
     }
 
     @Override
@@ -144,10 +131,8 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterGetPageSource(WebDriver driver, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get page source " +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get page source driver {} Action time: {}", driver, timer.elapsedMillis());
     }
 
     @Override
@@ -157,10 +142,8 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterClose(WebDriver driver) {
-        actionTime.captureEndTime();
-        log.debug("After close " +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After close driver {} Action time: {}", driver, timer.elapsedMillis());
     }
 
     @Override
@@ -170,10 +153,8 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterQuit(WebDriver driver) {
-        actionTime.captureEndTime();
-        log.debug("After quit " +
-                " driver " + driver.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After quit driver {} Action time: {}", driver, timer.elapsedMillis());
     }
 
     @Override
@@ -183,11 +164,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterGetWindowHandles(WebDriver driver, Set<String> result) {
-        actionTime.captureEndTime();
-        log.debug("After get window handles. Found " + result.size() + " windows " +
-                " Action time " + actionTime.getDelta() +
-                " result list: " + Arrays.toString(result.toArray()) +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After get window handles. Found {} windows Action time {} result list: {} With driver {}",
+                    result.size(), timer.elapsedMillis(), result, driver);
     }
 
     @Override
@@ -197,11 +176,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterGetWindowHandle(WebDriver driver, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get window handles. " +
-                " Action time " + actionTime.getDelta() +
-                " handle: " + result +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After get window handles. Action time {} handle: {} With driver {}",
+                    timer.elapsedMillis(), result, driver);
     }
 
     @Override
@@ -211,13 +188,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterExecuteScript(WebDriver driver, String script, Object[] args, Object result) {
-        actionTime.captureEndTime();
-        log.debug("After execute script. " +
-                " result: " + result +
-                " Action time " + actionTime.getDelta() +
-                " script " + script +
-                " args " + Arrays.toString(args) +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After execute script. result: {} Action time {} script {} args {} With driver {}",
+                    result, timer.elapsedMillis(), script, args, driver);
     }
 
     @Override
@@ -227,13 +200,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterExecuteAsyncScript(WebDriver driver, String script, Object[] args, Object result) {
-        actionTime.captureEndTime();
-        log.debug("After execute async script. " +
-                " result: " + result +
-                " Action time " + actionTime.getDelta() +
-                " script " + script +
-                " args " + Arrays.toString(args) +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After execute async script. result: {} Action time {} script {} args {} With driver {}",
+                    result, timer.elapsedMillis(), script, args, driver);
     }
 
     @Override
@@ -243,11 +212,9 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterPerform(WebDriver driver, Collection<Sequence> actions) {
-        actionTime.captureEndTime();
-        log.debug("After action perform. " +
-                " actions: " + Arrays.toString(actions.toArray()) +
-                " Action time " + actionTime.getDelta() +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After action perform. actions: {} Action time {} With driver {}",
+                    actions, timer.elapsedMillis(), driver);
     }
 
     @Override
@@ -257,9 +224,20 @@ public final class DriverListener implements WebDriverListener {
 
     @Override
     public void afterResetInputState(WebDriver driver) {
-        actionTime.captureEndTime();
-        log.debug("After reset input state. " +
-                " Action time " + actionTime.getDelta() +
-                " With driver " + driver.toString());
+        if (log.isDebugEnabled())
+            log.debug("After reset input state. Action time {} With driver {}", timer.elapsedMillis(), driver);
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
     }
 }
@@ -16,16 +16,16 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
-import java.util.Arrays;
 
 /**
  * Listener for all WebElement related actions
@@ -44,27 +44,23 @@ import java.util.Arrays;
  */
 public final class NavigationListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyNavigationCall(WebDriver.Navigation navigation, Method method, Object[] args) {
-        actionTime = ActionTime.getMeasureTime();
-        log.trace("Navigation event fired " +
-                " Navigation object " + navigation.toString() +
-                "  Method is: " + method.getName() +
-                "Args are: " + Arrays.toString(args));
+        startTiming(navigation, method);
+        if (log.isTraceEnabled())
+            log.trace("Navigation event fired Navigation object {} Method is: {} Args are: {}",
+                    navigation, method.getName(), args);
     }
 
     @Override
     public void afterAnyNavigationCall(WebDriver.Navigation navigation, Method method, Object[] args, Object result) {
-        actionTime = ActionTime.getMeasureTime();
-        log.trace("Navigation event done " +
-                " Navigation object " + navigation.toString() +
-                " Method was: " + method.getName() +
-                " Args were: " + Arrays.toString(args) +
-                " Result is " + result +
-                " Action time is " + actionTime.getDelta());
+        if (log.isTraceEnabled())
+            log.trace("Navigation event done Navigation object {} Method was: {} Args were: {} Result is {} Action " +
+                    "time is {}", navigation, method.getName(), args, result, timer.elapsedMillis());
+        timer.stop(navigation, method);
     }
 
     @Override
@@ -74,11 +70,9 @@ public final class NavigationListener implements WebDriverListener {
 
     @Override
     public void afterTo(WebDriver.Navigation navigation, String url) {
-        actionTime.captureEndTime();
-        log.debug("Navigate to " +
-                " URL " + url +
-                " navigation object " + navigation.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Navigate to URL {} navigation object {} Action time: {}",
+                    url, navigation, timer.elapsedMillis());
     }
 
     @Override
@@ -88,11 +82,9 @@ public final class NavigationListener implements WebDriverListener {
 
     @Override
     public void afterTo(WebDriver.Navigation navigation, URL url) {
-        actionTime.captureEndTime();
-        log.debug("Navigate to " +
-                " URL " + url.toString() +
-                " navigation object " + navigation.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Navigate to URL {} navigation object {} Action time: {}",
+                    url, navigation, timer.elapsedMillis());
     }
 
     @Override
@@ -102,10 +94,8 @@ public final class NavigationListener implements WebDriverListener {
 
     @Override
     public void afterBack(WebDriver.Navigation navigation) {
-        actionTime.captureEndTime();
-        log.debug("Navigated back " +
-                " navigation object " + navigation.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Navigated back navigation object {} Action time: {}", navigation, timer.elapsedMillis());
     }
 
     @Override
@@ -115,10 +105,8 @@ public final class NavigationListener implements WebDriverListener {
 
     @Override
     public void afterForward(WebDriver.Navigation navigation) {
-        actionTime.captureEndTime();
-        log.debug("Navigated forward " +
-                " navigation object " + navigation.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Navigated forward navigation object {} Action time: {}", navigation, timer.elapsedMillis());
     }
 
     @Override
@@ -128,9 +116,20 @@ public final class NavigationListener implements WebDriverListener {
 
     @Override
     public void afterRefresh(WebDriver.Navigation navigation) {
-        actionTime.captureEndTime();
-        log.debug("Refreshed. " +
-                " navigation object " + navigation.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Refreshed. navigation object {} Action time: {}", navigation, timer.elapsedMillis());
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
     }
 }
@@ -16,7 +16,7 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -24,8 +24,8 @@ import org.openqa.selenium.Cookie;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -45,30 +45,24 @@ import java.util.Set;
  */
 public final class OptionsListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyOptionsCall(WebDriver.Options options, Method method, Object[] args) {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureStartTime();
-        log.trace("Option event fired " +
-                " Options object " + options.toString() +
-                "  Method is: " + method.getName() +
-                " Args are: " + Arrays.toString(args));
+        startTiming(options, method);
+        if (log.isTraceEnabled())
+            log.trace("Option event fired Options object {} Method is: {} Args are: {}",
+                    options, method.getName(), args);
     }
 
 
     @Override
     public void afterAnyOptionsCall(WebDriver.Options options, Method method, Object[] args, Object result) {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureEndTime();
-        log.trace("Options event done " +
-                " Options object " + options.toString() +
-                " Method was: " + method.getName() +
-                " Args were: " + Arrays.toString(args) +
-                " Result is " + result +
-                " Action time is " + actionTime.getDelta());
+        if (log.isTraceEnabled())
+            log.trace("Options event done Options object {} Method was: {} Args were: {} Result is {} Action time is " +
+                    "{}", options, method.getName(), args, result, timer.elapsedMillis());
+        timer.stop(options, method);
     }
 
 
@@ -80,11 +74,9 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterAddCookie(WebDriver.Options options, Cookie cookie) {
-        actionTime.captureEndTime();
-        log.debug("After add cookie " +
-                " Options object " + options.toString() +
-                " Cookies object " + cookie.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After add cookie Options object {} Cookies object {} Action time: {}",
+                    options, cookie, timer.elapsedMillis());
     }
 
 
@@ -96,10 +88,9 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterDeleteCookieNamed(WebDriver.Options options, String name) {
-        actionTime.captureEndTime();
-        log.debug("After delete cookie named " + name +
-                " Options object " + options.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After delete cookie named {} Options object {} Action time: {}",
+                    name, options, timer.elapsedMillis());
     }
 
 
@@ -111,11 +102,9 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterDeleteCookie(WebDriver.Options options, Cookie cookie) {
-        actionTime.captureEndTime();
-        log.debug("After delete cookie  " +
-                " Cookie object " + cookie.toString() +
-                " Options object " + options.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After delete cookie Cookie object {} Options object {} Action time: {}",
+                    cookie, options, timer.elapsedMillis());
     }
 
 
@@ -127,10 +116,8 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterDeleteAllCookies(WebDriver.Options options) {
-        actionTime.captureEndTime();
-        log.debug("After delete all cookies  " +
-                " Options object " + options.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After delete all cookies Options object {} Action time: {}", options, timer.elapsedMillis());
     }
 
 
@@ -142,11 +129,9 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterGetCookies(WebDriver.Options options, Set<Cookie> result) {
-        actionTime.captureEndTime();
-        log.debug("After get cookies  " +
-                " Cookies " + Arrays.toString(result.toArray()) +
-                " Options object " + options.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get cookies Cookies {} Options object {} Action time: {}",
+                    result, options, timer.elapsedMillis());
     }
 
 
@@ -158,10 +143,21 @@ public final class OptionsListener implements WebDriverListener {
 
     @Override
     public void afterGetCookieNamed(WebDriver.Options options, String name, Cookie result) {
-        actionTime.captureEndTime();
-        log.debug("After delete cookie  named " + name +
-                " Cookie result " + result +
-                " Options object " + options.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After delete cookie named {} Cookie result {} Options object {} Action time: {}",
+                    name, result, options, timer.elapsedMillis());
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
     }
 }
@@ -0,0 +1,89 @@
+package co.verisoft.fw.selenium.listeners;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the calls which may replace the document the driver works on - navigation, get, switching windows or frames
+ * and closing a window. Anything found on the page before the count changed may be stale, so whoever caches
+ * elements compares the count at lookup time with the current one.<br>
+ * The count changes both before and after such a call, so a call which fails half way still invalidates.
+ *
+ * @since 2.3.2
+ */
+@ToString
+@NoArgsConstructor
+public final class PageChangeListener implements WebDriverListener {
+
+    private static final Set<String> DRIVER_CALLS = Set.of("get", "close", "quit");
+    private static final Set<String> TARGET_CALLS = Set.of("frame", "parentFrame", "window", "newWindow",
+            "defaultContent");
+
+    private final AtomicLong version = new AtomicLong();
+
+
+    /**
+     * @return the number of page changes so far. Elements found at a lower count may be stale
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+
+    @Override
+    public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
+        if (DRIVER_CALLS.contains(method.getName()))
+            version.incrementAndGet();
+    }
+
+    @Override
+    public void afterAnyWebDriverCall(WebDriver driver, Method method, Object[] args, Object result) {
+        if (DRIVER_CALLS.contains(method.getName()))
+            version.incrementAndGet();
+    }
+
+    @Override
+    public void beforeAnyNavigationCall(WebDriver.Navigation navigation, Method method, Object[] args) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void afterAnyNavigationCall(WebDriver.Navigation navigation, Method method, Object[] args, Object result) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void beforeAnyTargetLocatorCall(WebDriver.TargetLocator targetLocator, Method method, Object[] args) {
+        if (TARGET_CALLS.contains(method.getName()))
+            version.incrementAndGet();
+    }
+
+    @Override
+    public void afterAnyTargetLocatorCall(WebDriver.TargetLocator targetLocator, Method method, Object[] args,
+                                          Object result) {
+        if (TARGET_CALLS.contains(method.getName()))
+            version.incrementAndGet();
+    }
+}
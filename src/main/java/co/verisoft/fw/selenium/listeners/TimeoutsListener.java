@@ -16,16 +16,16 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.Duration;
-import java.util.Arrays;
 
 /**
  * Listener class for timeouts events
@@ -38,29 +38,23 @@ import java.util.Arrays;
 @Slf4j
 public final class TimeoutsListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyTimeoutsCall(WebDriver.Timeouts timeouts, Method method, Object[] args)  {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureStartTime();
-        log.trace("Timeout event fired " +
-                " Timeout object " + timeouts.toString() +
-                "  Method is: " + method.getName() +
-                " Args are: " + Arrays.toString(args));
+        startTiming(timeouts, method);
+        if (log.isTraceEnabled())
+            log.trace("Timeout event fired Timeout object {} Method is: {} Args are: {}",
+                    timeouts, method.getName(), args);
     }
 
     @Override
     public void afterAnyTimeoutsCall(WebDriver.Timeouts timeouts, Method method, Object[] args, Object result)  {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureEndTime();
-        log.trace("Timeouts event done " +
-                " Timeouts object " + timeouts.toString() +
-                " Method was: " + method.getName() +
-                " Args were: " + Arrays.toString(args) +
-                " Result is " + result +
-                " Action time is " + actionTime.getDelta());
+        if (log.isTraceEnabled())
+            log.trace("Timeouts event done Timeouts object {} Method was: {} Args were: {} Result is {} Action time " +
+                    "is {}", timeouts, method.getName(), args, result, timer.elapsedMillis());
+        timer.stop(timeouts, method);
     }
 
     @Override
@@ -70,11 +64,9 @@ public final class TimeoutsListener implements WebDriverListener {
 
     @Override
     public void afterImplicitlyWait(WebDriver.Timeouts timeouts, Duration duration) {
-        actionTime.captureEndTime();
-        log.debug("After implicit wait " +
-                " Timeouts object " + timeouts.toString() +
-                " Duration object " + duration.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After implicit wait Timeouts object {} Duration object {} Action time: {}",
+                    timeouts, duration, timer.elapsedMillis());
     }
 
     @Override
@@ -84,11 +76,9 @@ public final class TimeoutsListener implements WebDriverListener {
 
     @Override
     public void afterSetScriptTimeout(WebDriver.Timeouts timeouts, Duration duration) {
-        actionTime.captureEndTime();
-        log.debug("After set script timeout " +
-                " Timeouts object " + timeouts.toString() +
-                " Duration object " + duration.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After set script timeout Timeouts object {} Duration object {} Action time: {}",
+                    timeouts, duration, timer.elapsedMillis());
     }
 
     @Override
@@ -98,10 +88,21 @@ public final class TimeoutsListener implements WebDriverListener {
 
     @Override
     public void afterPageLoadTimeout(WebDriver.Timeouts timeouts, Duration duration) {
-        actionTime.captureEndTime();
-        log.debug("After page load timeout " +
-                " Timeouts object " + timeouts.toString() +
-                " Duration object " + duration.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After page load timeout Timeouts object {} Duration object {} Action time: {}",
+                    timeouts, duration, timer.elapsedMillis());
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
     }
 }
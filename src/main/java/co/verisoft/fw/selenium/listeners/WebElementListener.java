@@ -16,7 +16,7 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -26,8 +26,8 @@ import org.openqa.selenium.Point;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -47,22 +47,21 @@ import java.util.List;
  */
 public final class WebElementListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
     @Override
     public void beforeAnyWebElementCall(WebElement element, Method method, Object[] args) {
-        actionTime = ActionTime.getMeasureTime();
-        log.trace("WebElement " + element.toString() +
-                " event is fired. Method is: " + method.getName() +
-                "Args are: " + Arrays.toString(args));
+        startTiming(element, method);
+        if (log.isTraceEnabled())
+            log.trace("WebElement {} event is fired. Method is: {} Args are: {}", element, method.getName(), args);
     }
 
     @Override
     public void afterAnyWebElementCall(WebElement element, Method method, Object[] args, Object result) {
-        log.trace("WebElement " + element.toString() +
-                " event is done. Method was: " + method.getName() +
-                "Args were: " + Arrays.toString(args) +
-                "Result is: " + result);
+        if (log.isTraceEnabled())
+            log.trace("WebElement {} event is done. Method was: {} Args were: {} Result is: {}",
+                    element, method.getName(), args, result);
+        timer.stop(element, method);
     }
 
 
@@ -73,8 +72,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterClick(WebElement element) {
-        actionTime.captureEndTime();
-        log.debug("Clicked on element " + element.toString() + " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Clicked on element {} Action time: {}", element, timer.elapsedMillis());
     }
 
     @Override
@@ -84,8 +83,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterSubmit(WebElement element) {
-        actionTime.captureEndTime();
-        log.debug("Submitted (clicked) on element " + element.toString() + " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Submitted (clicked) on element {} Action time: {}", element, timer.elapsedMillis());
     }
 
     @Override
@@ -95,10 +94,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterSendKeys(WebElement element, CharSequence... keysToSend) {
-        actionTime.captureEndTime();
-        log.debug("Sent keys for element " + element.toString() +
-                " Keys were: " + keysToSend +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Sent keys for element {} Keys were: {} Action time: {}",
+                    element, keysToSend, timer.elapsedMillis());
     }
 
     @Override
@@ -108,9 +106,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterClear(WebElement element) {
-        actionTime.captureEndTime();
-        log.debug("Cleared element " + element.toString() +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("Cleared element {} Action time {}", element, timer.elapsedMillis());
     }
 
     @Override
@@ -120,11 +117,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetTagName(WebElement element, String result) {
-        actionTime.captureEndTime();
-        log.debug("After Get Tag Name. Element " +
-                element.toString() +
-                " Tag - " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After Get Tag Name. Element {} Tag - {} Action time {}", element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -134,11 +128,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetAttribute(WebElement element, String name, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get attribute. Element " +
-                element.toString() +
-                ", attribute: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get attribute. Element {}, attribute: {} Action time {}",
+                    element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -148,11 +140,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterIsSelected(WebElement element, boolean result) {
-        actionTime.captureEndTime();
-        log.debug("After is selected. Element " +
-                element.toString() +
-                ", isSelected?: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After is selected. Element {}, isSelected?: {} Action time {}",
+                    element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -162,10 +152,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterIsEnabled(WebElement element, boolean result) {
-        actionTime.captureEndTime();
-        log.debug("After is enabled. Element " + element.toString() +
-                ", isEnabled?: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After is enabled. Element {}, isEnabled?: {} Action time {}",
+                    element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -175,11 +164,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetText(WebElement element, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get text. Element " +
-                element.toString() +
-                ", text: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get text. Element {}, text: {} Action time {}", element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -189,11 +175,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterFindElement(WebElement element, By locator, WebElement result) {
-        actionTime.captureEndTime();
-        log.debug("After find Element. Element " + element.toString() +
-                " Locator " + locator.toString() +
-                ", result Element: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After find Element. Element {} Locator {}, result Element: {} Action time {}",
+                    element, locator, result, timer.elapsedMillis());
     }
 
     @Override
@@ -203,11 +187,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterFindElements(WebElement element, By locator, List<WebElement> result) {
-        actionTime.captureEndTime();
-        log.debug("After find Elements. Found " + result.size() + "Elements " +
-                " using locator" + locator.toString() +
-                " Action time " + actionTime.getDelta() +
-                " Elements list: " + Arrays.toString(result.toArray()));
+        if (log.isDebugEnabled())
+            log.debug("After find Elements. Found {} Elements using locator {} Action time {} Elements list: {}",
+                    result.size(), locator, timer.elapsedMillis(), result);
 
     }
 
@@ -218,10 +200,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterIsDisplayed(WebElement element, boolean result) {
-        actionTime.captureEndTime();
-        log.debug("After is displayed. Element " + element.toString() +
-                ", isDisplayed?: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After is displayed. Element {}, isDisplayed?: {} Action time {}",
+                    element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -231,10 +212,9 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetLocation(WebElement element, Point result) {
-        actionTime.captureEndTime();
-        log.debug("After get location. Element " + element.toString() +
-                ", location: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get location. Element {}, location: {} Action time {}",
+                    element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -244,10 +224,8 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetSize(WebElement element, Dimension result) {
-        actionTime.captureEndTime();
-        log.debug("After get size. Element " + element.toString() +
-                ", size: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get size. Element {}, size: {} Action time {}", element, result, timer.elapsedMillis());
     }
 
     @Override
@@ -257,11 +235,21 @@ public final class WebElementListener implements WebDriverListener {
 
     @Override
     public void afterGetCssValue(WebElement element, String propertyName, String result) {
-        actionTime.captureEndTime();
-        log.debug("After get Css value. Element " + element.toString() +
-                " Property name " + propertyName +
-                ", value: " + result +
-                " Action time " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get Css value. Element {} Property name {}, value: {} Action time {}",
+                    element, propertyName, result, timer.elapsedMillis());
     }
 
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
+    }
 }
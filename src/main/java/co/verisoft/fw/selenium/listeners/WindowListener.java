@@ -16,7 +16,7 @@ package co.verisoft.fw.selenium.listeners;
  * limitations under the License.
  */
 
-import co.verisoft.fw.utils.ActionTime;
+import co.verisoft.fw.selenium.metrics.CallTimer;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -25,8 +25,8 @@ import org.openqa.selenium.Point;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.events.WebDriverListener;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 
 /**
  * Listener class for window events
@@ -39,29 +39,22 @@ import java.util.Arrays;
 @Slf4j
 public final class WindowListener implements WebDriverListener {
 
-    private ActionTime actionTime;
+    private final CallTimer timer = new CallTimer();
 
 
     @Override
     public void beforeAnyWindowCall(WebDriver.Window window, Method method, Object[] args) {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureStartTime();
-        log.trace("Window event fired " +
-                " Window object " + window.toString() +
-                "  Method is: " + method.getName() +
-                " Args are: " + Arrays.toString(args));
+        startTiming(window, method);
+        if (log.isTraceEnabled())
+            log.trace("Window event fired Window object {} Method is: {} Args are: {}", window, method.getName(), args);
     }
 
     @Override
     public void afterAnyWindowCall(WebDriver.Window window, Method method, Object[] args, Object result) {
-        actionTime = ActionTime.getMeasureTime();
-        actionTime.captureEndTime();
-        log.trace("Window event done " +
-                " Window object " + window.toString() +
-                " Method was: " + method.getName() +
-                " Args were: " + Arrays.toString(args) +
-                " Result is " + result +
-                " Action time is " + actionTime.getDelta());
+        if (log.isTraceEnabled())
+            log.trace("Window event done Window object {} Method was: {} Args were: {} Result is {} Action time is {}",
+                    window, method.getName(), args, result, timer.elapsedMillis());
+        timer.stop(window, method);
     }
 
     @Override
@@ -71,11 +64,9 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterGetSize(WebDriver.Window window, Dimension result) {
-        actionTime.captureEndTime();
-        log.debug("After set size " +
-                " Window object " + window.toString() +
-                " Dimensions object " + result +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After set size Window object {} Dimensions object {} Action time: {}",
+                    window, result, timer.elapsedMillis());
     }
 
     @Override
@@ -85,11 +76,9 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterSetSize(WebDriver.Window window, Dimension size) {
-        actionTime.captureEndTime();
-        log.debug("After set size " +
-                " Window object " + window.toString() +
-                " Dimensions object " + size.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After set size Window object {} Dimensions object {} Action time: {}",
+                    window, size, timer.elapsedMillis());
     }
 
     @Override
@@ -99,11 +88,9 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterGetPosition(WebDriver.Window window, Point result) {
-        actionTime.captureEndTime();
-        log.debug("After get position " +
-                " Window object " + window.toString() +
-                " Point object " + result +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After get position Window object {} Point object {} Action time: {}",
+                    window, result, timer.elapsedMillis());
     }
 
     @Override
@@ -113,11 +100,9 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterSetPosition(WebDriver.Window window, Point position) {
-        actionTime.captureEndTime();
-        log.debug("After set position " +
-                " Window object " + window.toString() +
-                " Point object " + position.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After set position Window object {} Point object {} Action time: {}",
+                    window, position, timer.elapsedMillis());
     }
 
     @Override
@@ -127,10 +112,8 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterMaximize(WebDriver.Window window) {
-        actionTime.captureEndTime();
-        log.debug("After maximize " +
-                " Window object " + window.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After maximize Window object {} Action time: {}", window, timer.elapsedMillis());
     }
 
     @Override
@@ -140,9 +123,20 @@ public final class WindowListener implements WebDriverListener {
 
     @Override
     public void afterFullscreen(WebDriver.Window window) {
-        actionTime.captureEndTime();
-        log.debug("After full screen " +
-                " Window object " + window.toString() +
-                " Action time: " + actionTime.getDelta());
+        if (log.isDebugEnabled())
+            log.debug("After full screen Window object {} Action time: {}", window, timer.elapsedMillis());
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        // A failed call gets no after events
+        timer.stop(target, method);
+    }
+
+
+    private void startTiming(Object target, Method method) {
+        if (log.isDebugEnabled())
+            timer.start(target, method);
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times WebDriver calls from a listener's before / after hooks.<br>
+ * A listener which keeps the start time of "the current call" in a field gets wrong durations as soon as calls nest
+ * (e.g. a findElement inside a wait condition, or a listener which calls the driver) or the driver is used by more
+ * than one thread. CallTimer keeps a stack of running calls per thread, so every call is measured from its own start.
+ * <pre>{@code
+ * public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
+ *     timer.start(driver, method);
+ * }
+ *
+ * public void afterAnyWebDriverCall(WebDriver driver, Method method, Object[] args, Object result) {
+ *     CallTiming timing = timer.stop(driver, method);
+ * }
+ *
+ * public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+ *     timer.stop(target, method);
+ * }
+ * }</pre>
+ * A call which fails does not get its after hooks, so the timer must also be stopped in onError. Stopping a call
+ * which is not the innermost running one is ignored.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class CallTimer {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final ThreadLocal<ArrayDeque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+
+    /**
+     * Start timing a call
+     *
+     * @param target the object the call is made on
+     * @param method the method called
+     */
+    public void start(Object target, Method method) {
+        ArrayDeque<Frame> stack = frames.get();
+        if (stack.size() >= MAX_DEPTH) {
+            // Calls which were started but never stopped - a listener without onError
+            log.debug("Discarding {} unfinished call timings", stack.size());
+            stack.clear();
+        }
+        stack.push(new Frame(target, method, System.nanoTime()));
+    }
+
+
+    /**
+     * Stop timing a call
+     *
+     * @param target the object the call was made on
+     * @param method the method called
+     * @return the timing of the call, or null if it is not the innermost call being timed on this thread
+     */
+    public CallTiming stop(Object target, Method method) {
+        long now = System.nanoTime();
+        ArrayDeque<Frame> stack = frames.get();
+        Frame frame = stack.peek();
+        if (frame == null || frame.target != target || !frame.method.equals(method))
+            return null;
+
+        stack.pop();
+        return new CallTiming(target, method, frame.start, now - frame.start, stack.size());
+    }
+
+
+    /**
+     * @return milliseconds the innermost call of this thread has been running, or -1 if no call is being timed
+     */
+    public long elapsedMillis() {
+        Frame frame = frames.get().peek();
+        return frame == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - frame.start);
+    }
+
+
+    /**
+     * @return the number of calls being timed on this thread
+     */
+    public int depth() {
+        return frames.get().size();
+    }
+
+
+    private static final class Frame {
+        private final Object target;
+        private final Method method;
+        private final long start;
+
+        private Frame(Object target, Method method, long start) {
+            this.target = target;
+            this.method = method;
+            this.start = start;
+        }
+    }
+}
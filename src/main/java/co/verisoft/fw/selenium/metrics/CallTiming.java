@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measured duration of one WebDriver call, as returned by {@link CallTimer#stop(Object, Method)}
+ *
+ * @since 2.3.2
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class CallTiming {
+
+    /**
+     * The object the call was made on - driver, element, navigation etc.
+     */
+    @ToString.Exclude
+    private final Object target;
+
+    /**
+     * The method called
+     */
+    private final Method method;
+
+    /**
+     * {@link System#nanoTime()} at the start of the call
+     */
+    private final long startNanos;
+
+    private final long durationNanos;
+
+    /**
+     * Number of timed calls of the same thread which were running when this call started. 0 for a top level call,
+     * e.g. 1 for a findElement made inside another call
+     */
+    private final int depth;
+
+
+    /**
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+}
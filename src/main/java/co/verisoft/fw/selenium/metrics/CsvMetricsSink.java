@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the metrics report as driver-metrics.csv, one row per command, locator strategy and driver. Times are in
+ * milliseconds
+ *
+ * @since 2.3.2
+ */
+public class CsvMetricsSink implements MetricsSink {
+
+    private static final String HEADER = "dimension,name,count,total_ms,mean_ms,min_ms,p50_ms,p95_ms,p99_ms,max_ms";
+
+    private final Path directory;
+
+
+    /**
+     * C-tor
+     *
+     * @param directory directory to write to. Created if missing
+     */
+    public CsvMetricsSink(Path directory) {
+        this.directory = directory;
+    }
+
+
+    @Override
+    public void export(MetricsReport report) throws IOException {
+        Files.createDirectories(directory);
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve("driver-metrics.csv"),
+                StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            write(writer, "command", report.getCommands());
+            write(writer, "locator", report.getLocators());
+            write(writer, "driver", report.getDrivers());
+        }
+    }
+
+
+    private static void write(BufferedWriter writer, String dimension, List<LatencyStats> rows) throws IOException {
+        for (LatencyStats stats : rows) {
+            writer.write(String.join(",", dimension, escape(stats.getName()), Long.toString(stats.getCount()),
+                    millis(stats.getTotalMicros()), millis(stats.getMeanMicros()), millis(stats.getMinMicros()),
+                    millis(stats.getP50Micros()), millis(stats.getP95Micros()), millis(stats.getP99Micros()),
+                    millis(stats.getMaxMicros())));
+            writer.newLine();
+        }
+    }
+
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+    }
+
+
+    private static String escape(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        return value;
+    }
+}
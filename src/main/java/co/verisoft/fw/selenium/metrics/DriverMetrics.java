@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Latency histograms of the WebDriver calls of the run, per command, per locator strategy and per driver.<br>
+ * Calls are recorded by {@link MetricsListener}, which VerisoftDriver registers on every driver when metrics are
+ * enabled. At JVM exit the metrics are exported to every registered {@link MetricsSink} - by default as JSON and CSV
+ * files under target/metrics, with count, total, mean, p50, p95, p99 and max per entry:
+ * <pre>{@code
+ * dimension,name,count,total_ms,mean_ms,min_ms,p50_ms,p95_ms,p99_ms,max_ms
+ * command,findElement,1840,95120.113,51.696,3.001,12.031,310.271,1002.495,5003.775
+ * }</pre>
+ * Settings (root.config.properties or -D system properties):
+ * <ul>
+ *     <li>driver.metrics.enabled - register the metrics listener on new drivers, and keep the time breakdown of
+ *     tests. Default false - timing every call has a cost, so runs opt in</li>
+ *     <li>driver.metrics.export - write the JSON and CSV files at exit. Default true</li>
+ *     <li>driver.metrics.dir - directory of the files. Default target/metrics</li>
+ * </ul>
+ * The JSON file also has the time breakdown of every test and of the whole run, see {@link TestTimeline}.
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class DriverMetrics {
+
+    private static final Map<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> locators = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> drivers = new ConcurrentHashMap<>();
+    private static final List<MetricsSink> sinks = new CopyOnWriteArrayList<>();
+    private static final int MAX_TESTS = 10_000;
+    private static final List<TestBreakdown> tests = new ArrayList<>();
+    private static final TestBreakdown NO_TESTS = new TestBreakdown("all tests", 0, 0, 0, 0, 0, 0);
+    private static TestBreakdown testTotal;
+
+    static {
+        if (ConfigValues.getBoolean("driver.metrics.export", true)) {
+            Path directory = Paths.get(ConfigValues.getString("driver.metrics.dir", "target/metrics"));
+            sinks.add(new JsonMetricsSink(directory));
+            sinks.add(new CsvMetricsSink(directory));
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverMetrics::export, "driver-metrics-export"));
+    }
+
+
+    private DriverMetrics() {
+    }
+
+
+    /**
+     * @return true if new drivers should record metrics
+     */
+    public static boolean isEnabled() {
+        return ConfigValues.getBoolean("driver.metrics.enabled", false);
+    }
+
+
+    /**
+     * Record a WebDriver call
+     *
+     * @param driver   name of the driver, e.g. the browser name
+     * @param command  the command, e.g. findElement
+     * @param locator  locator strategy of a find command, e.g. css selector, null for other commands
+     * @param nanos    duration of the call
+     */
+    public static void record(String driver, String command, @Nullable String locator, long nanos) {
+        commands.computeIfAbsent(command, k -> new LatencyHistogram()).recordNanos(nanos);
+        drivers.computeIfAbsent(driver, k -> new LatencyHistogram()).recordNanos(nanos);
+        if (locator != null)
+            locators.computeIfAbsent(locator, k -> new LatencyHistogram()).recordNanos(nanos);
+    }
+
+
+    /**
+     * Record the time breakdown of a test, see {@link TestTimeline}
+     *
+     * @param breakdown breakdown of the test
+     */
+    public static synchronized void recordTest(TestBreakdown breakdown) {
+        testTotal = (testTotal == null ? NO_TESTS : testTotal).plus(breakdown, NO_TESTS.getTest());
+        if (tests.size() < MAX_TESTS)
+            tests.add(breakdown);
+    }
+
+
+    /**
+     * @return the metrics recorded so far
+     */
+    public static synchronized MetricsReport snapshot() {
+        return new MetricsReport(Instant.now().toString(), stats(commands), stats(locators), stats(drivers),
+                SlowCommandDetector.getSlowCalls(), testTotal, List.copyOf(tests));
+    }
+
+
+    /**
+     * Add a destination for the metrics exported at exit
+     *
+     * @param sink sink to add
+     */
+    public static void addSink(MetricsSink sink) {
+        sinks.add(sink);
+    }
+
+
+    /**
+     * @param sink sink to remove, e.g. one of the default file sinks
+     * @return true if the sink was registered
+     */
+    public static boolean removeSink(MetricsSink sink) {
+        return sinks.remove(sink);
+    }
+
+
+    /**
+     * @return the registered sinks
+     */
+    public static List<MetricsSink> getSinks() {
+        return List.copyOf(sinks);
+    }
+
+
+    /**
+     * Export the metrics recorded so far to all sinks. Called at JVM exit, does nothing if no call was recorded
+     */
+    public static void export() {
+        if (commands.isEmpty())
+            return;
+
+        MetricsReport report = snapshot();
+        if (report.getTestTotal() != null)
+            log.info("Test time {}", report.getTestTotal().format());
+        for (MetricsSink sink : sinks) {
+            try {
+                sink.export(report);
+            } catch (Exception e) {
+                log.warn("Could not export driver metrics to {}", sink, e);
+            }
+        }
+    }
+
+
+    /**
+     * Discard everything recorded so far, including slow calls and test breakdowns
+     */
+    public static synchronized void reset() {
+        commands.clear();
+        locators.clear();
+        drivers.clear();
+        tests.clear();
+        testTotal = null;
+        SlowCommandDetector.reset();
+    }
+
+
+    private static List<LatencyStats> stats(Map<String, LatencyHistogram> histograms) {
+        return histograms.entrySet().stream()
+                .map(e -> e.getValue().toStats(e.getKey()))
+                .sorted(Comparator.comparingLong(LatencyStats::getTotalMicros).reversed())
+                .collect(Collectors.toList());
+    }
+}
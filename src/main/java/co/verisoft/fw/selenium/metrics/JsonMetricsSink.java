@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the metrics report as driver-metrics.json
+ *
+ * @since 2.3.2
+ */
+public class JsonMetricsSink implements MetricsSink {
+
+    private final Path directory;
+
+
+    /**
+     * C-tor
+     *
+     * @param directory directory to write to. Created if missing
+     */
+    public JsonMetricsSink(Path directory) {
+        this.directory = directory;
+    }
+
+
+    @Override
+    public void export(MetricsReport report) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+                .writeValue(directory.resolve("driver-metrics.json").toFile(), report);
+    }
+}
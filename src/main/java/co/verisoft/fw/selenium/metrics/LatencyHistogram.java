@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free latency histogram with log-linear buckets, in the spirit of HdrHistogram.<br>
+ * Values are recorded in microseconds. Every power of two range is split into 64 linear buckets, so any recorded value
+ * is reported with an error of less than 1.6%, from single microseconds up to days, in a fixed ~30KB of counters.
+ * Recording is a few atomic increments and safe from any number of threads.
+ *
+ * @since 2.3.2
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * @param nanos duration to record, in nanoseconds. Negative values are recorded as 0
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(index(micros));
+        count.incrementAndGet();
+        total.addAndGet(micros);
+        min.accumulateAndGet(micros, Math::min);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+
+    /**
+     * @return sum of the recorded values, in microseconds
+     */
+    public long getTotalMicros() {
+        return total.get();
+    }
+
+
+    /**
+     * @return smallest recorded value in microseconds, 0 if nothing was recorded
+     */
+    public long getMinMicros() {
+        return count.get() == 0 ? 0 : min.get();
+    }
+
+
+    /**
+     * @return largest recorded value in microseconds
+     */
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+
+    /**
+     * @param percentile percentile, 0 to 100
+     * @return the value in microseconds that the given percentage of the recorded values are at or below, 0 if
+     * nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = count.get();
+        if (recorded == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(highestValue(i), getMaxMicros());
+        }
+        return getMaxMicros();
+    }
+
+
+    /**
+     * @param name name of the summary, e.g. the command measured
+     * @return a summary of this histogram
+     */
+    public LatencyStats toStats(String name) {
+        return new LatencyStats(name, getCount(), getTotalMicros(), getMinMicros(), getMaxMicros(),
+                getValueAtPercentile(50), getValueAtPercentile(95), getValueAtPercentile(99));
+    }
+
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return SUB_BUCKETS * (exponent + 1) + (int) (value >>> exponent) - SUB_BUCKETS;
+    }
+
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int exponent = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
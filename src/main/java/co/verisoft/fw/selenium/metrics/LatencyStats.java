@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Summary of the latencies recorded for one command, locator strategy or driver. Times are in microseconds
+ *
+ * @since 2.3.2
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class LatencyStats {
+
+    /**
+     * What was measured, e.g. "findElement", "css selector" or "chrome"
+     */
+    private final String name;
+    private final long count;
+    private final long totalMicros;
+    private final long minMicros;
+    private final long maxMicros;
+    private final long p50Micros;
+    private final long p95Micros;
+    private final long p99Micros;
+
+
+    /**
+     * @return average latency in microseconds
+     */
+    public long getMeanMicros() {
+        return count == 0 ? 0 : totalMicros / count;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.By;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Records the latency of every WebDriver call of a driver - driver, element, navigation, window etc. calls - in
+ * {@link DriverMetrics}. Failed calls are recorded too: a findElement which waits for the implicit timeout and fails
+ * is exactly the kind of call that dominates the run time. Calls slower than their threshold are passed on to
+ * {@link SlowCommandDetector}, and calls are added to the {@link TestTimeline} and the {@link TraceRecorder} spans.
+ *
+ * @since 2.3.2
+ */
+@ToString
+public final class MetricsListener implements WebDriverListener {
+
+    private static final String SCREENSHOT = "getScreenshotAs";
+
+    @ToString.Exclude
+    private final CallTimer timer = new CallTimer();
+    private volatile String driverName;
+    @ToString.Exclude
+    private volatile WebDriver driver;
+
+
+    /**
+     * C-tor. The driver is named by its browser name
+     */
+    public MetricsListener() {
+    }
+
+
+    /**
+     * C-tor
+     *
+     * @param driverName name to record the driver's calls under, e.g. its @DriverName. null to name it by its
+     *                   browser name
+     */
+    public MetricsListener(@Nullable String driverName) {
+        this.driverName = driverName;
+    }
+
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        timer.start(target, method);
+    }
+
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(timer.stop(target, method), args);
+    }
+
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(timer.stop(target, method), args);
+    }
+
+
+    private void record(CallTiming timing, Object[] args) {
+        if (timing == null)
+            return;
+
+        // The targets are undecorated - calls made on them here do not reach the listeners
+        if (driver == null && timing.getTarget() instanceof WebDriver)
+            driver = (WebDriver) timing.getTarget();
+        if (driverName == null && timing.getTarget() instanceof HasCapabilities)
+            driverName = ((HasCapabilities) timing.getTarget()).getCapabilities().getBrowserName();
+
+        String name = driverName == null ? "unknown" : driverName;
+        String command = timing.getMethod().getName();
+        String locator = args != null && args.length > 0 && args[0] instanceof By ? strategy((By) args[0]) : null;
+        DriverMetrics.record(name, command, locator, timing.getDurationNanos());
+        if (timing.getDepth() == 0)
+            TestTimeline.record(TestTimeline.Phase.COMMAND, timing.getDurationNanos());
+        TraceRecorder.complete(SCREENSHOT.equals(command) ? "screenshot" : "command", command,
+                timing.getStartNanos(), timing.getDurationNanos());
+        SlowCommandDetector.check(driver, name, timing);
+    }
+
+
+    private static String strategy(By by) {
+        if (by instanceof By.Remotable)
+            return ((By.Remotable) by).getRemoteParameters().using();
+        return by.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A point in time view of the WebDriver call latencies recorded by {@link DriverMetrics}. Every list is sorted by total
+ * time, descending, so the first entries are the ones which dominate the run time.
+ *
+ * @since 2.3.2
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class MetricsReport {
+
+    /**
+     * ISO-8601 time the report was taken
+     */
+    private final String createdAt;
+
+    /**
+     * Latencies per WebDriver command, e.g. findElement, click, get
+     */
+    private final List<LatencyStats> commands;
+
+    /**
+     * Latencies of find calls per locator strategy, e.g. css selector, xpath
+     */
+    private final List<LatencyStats> locators;
+
+    /**
+     * Latencies of all calls per driver
+     */
+    private final List<LatencyStats> drivers;
+
+    /**
+     * Calls which took longer than their threshold, see {@link SlowCommandDetector}
+     */
+    private final List<SlowCall> slowCalls;
+
+    /**
+     * Time breakdown of all the tests of the run, null if no test was timed, see {@link TestTimeline}
+     */
+    private final TestBreakdown testTotal;
+
+    /**
+     * Time breakdown per test, in the order the tests ended
+     */
+    private final List<TestBreakdown> tests;
+}
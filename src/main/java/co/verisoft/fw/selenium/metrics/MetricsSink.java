@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import java.io.IOException;
+
+/**
+ * Destination of the metrics exported at the end of the run, see {@link DriverMetrics#addSink(MetricsSink)}
+ *
+ * @since 2.3.2
+ */
+@FunctionalInterface
+public interface MetricsSink {
+
+    /**
+     * Export a report
+     *
+     * @param report the metrics recorded so far
+     * @throws IOException if the report could not be written
+     */
+    void export(MetricsReport report) throws IOException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A WebDriver call which took longer than its threshold, see {@link SlowCommandDetector}
+ *
+ * @since 2.3.2
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class SlowCall {
+
+    /**
+     * ISO-8601 time the call ended
+     */
+    private final String time;
+    private final String driver;
+    private final String command;
+    private final long durationMillis;
+    private final long thresholdMillis;
+
+    /**
+     * Base path of the diagnostics files (.png, .html, .timings.json), null if nothing is captured. Files which could
+     * not be captured, e.g. the page source of a native app, are missing
+     */
+    private final String diagnostics;
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import co.verisoft.fw.report.observer.Report;
+import co.verisoft.fw.utils.internal.ConfigValues;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Flags WebDriver calls which take longer than a configured threshold, and captures diagnostics for them.<br>
+ * For every slow call a warning is reported on the test thread, and a screenshot, the page source and the browser's
+ * navigation and resource timings are captured in the background, so the capture does not slow the test down further.
+ * Slow calls are listed in the metrics report ({@link MetricsReport#getSlowCalls()}).
+ * <br><br>
+ * Calls are checked by {@link MetricsListener}. Settings (root.config.properties or -D system properties):
+ * <ul>
+ *     <li>driver.slow.threshold.ms - threshold of every command. Default 0, no detection</li>
+ *     <li>driver.slow.threshold.&lt;command&gt;.ms - threshold of one command, e.g. driver.slow.threshold.click.ms</li>
+ *     <li>driver.slow.capture - capture diagnostics. Default true. Files go to &lt;driver.metrics.dir&gt;/slow</li>
+ * </ul>
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class SlowCommandDetector {
+
+    private static final int MAX_SLOW_CALLS = 1000;
+    private static final Set<String> NO_CAPTURE = new HashSet<>(Arrays.asList("quit", "close"));
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+    private static final String TIMINGS_SCRIPT = "return JSON.stringify({" +
+            "navigation: performance.getEntriesByType('navigation'), " +
+            "resources: performance.getEntriesByType('resource').slice(-100)});";
+
+    private static final Map<String, Long> thresholds = new ConcurrentHashMap<>();
+    private static final List<SlowCall> slowCalls = new CopyOnWriteArrayList<>();
+
+    // One capture at a time, a few queued - when the browser is that slow, more screenshots do not help
+    private static final ThreadPoolExecutor capturer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(8), r -> {
+        Thread t = new Thread(r, "slow-command-capture");
+        t.setDaemon(true);
+        return t;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    static {
+        capturer.allowCoreThreadTimeOut(true);
+    }
+
+
+    private SlowCommandDetector() {
+    }
+
+
+    /**
+     * @param command a WebDriver command, e.g. findElement
+     * @return the threshold of the command in milliseconds, 0 if slow calls of the command are not detected
+     */
+    public static long getThresholdMillis(String command) {
+        return thresholds.computeIfAbsent(command, c -> ConfigValues.getLong("driver.slow.threshold." + c + ".ms",
+                ConfigValues.getLong("driver.slow.threshold.ms", 0)));
+    }
+
+
+    /**
+     * Check a call and handle it if it is slow
+     *
+     * @param driver     the driver the call was made with, undecorated. Null if unknown, then nothing is captured
+     * @param driverName name of the driver
+     * @param timing     the call
+     * @return true if the call was slow
+     */
+    public static boolean check(@Nullable WebDriver driver, String driverName, CallTiming timing) {
+        String command = timing.getMethod().getName();
+        long threshold = getThresholdMillis(command);
+        if (threshold <= 0 || timing.getDurationMillis() < threshold)
+            return false;
+
+        Instant now = Instant.now();
+        boolean capture = driver != null && !NO_CAPTURE.contains(command)
+                && ConfigValues.getBoolean("driver.slow.capture", true);
+        Path base = capture ? Paths.get(ConfigValues.getString("driver.metrics.dir", "target/metrics"), "slow",
+                FILE_TIME.format(now) + "-" + driverName + "-" + command) : null;
+
+        SlowCall call = new SlowCall(now.toString(), driverName, command, timing.getDurationMillis(), threshold,
+                base == null ? null : base.toString());
+        if (slowCalls.size() < MAX_SLOW_CALLS)
+            slowCalls.add(call);
+
+        String message = String.format("Slow WebDriver call: %s took %d ms (threshold %d ms)%s", command,
+                call.getDurationMillis(), threshold, base == null ? "" : ". Diagnostics: " + base + ".*");
+        log.warn(message);
+        Report.warn(message);
+
+        if (base != null)
+            capturer.execute(() -> capture(driver, base));
+        return true;
+    }
+
+
+    /**
+     * @return the slow calls of the run
+     */
+    public static List<SlowCall> getSlowCalls() {
+        return List.copyOf(slowCalls);
+    }
+
+
+    /**
+     * Discard the slow calls recorded so far and re-read the thresholds
+     */
+    public static void reset() {
+        slowCalls.clear();
+        thresholds.clear();
+    }
+
+
+    private static void capture(WebDriver driver, Path base) {
+        String name = base.getFileName().toString();
+        try {
+            Files.createDirectories(base.getParent());
+        } catch (Exception e) {
+            log.warn("Cannot create diagnostics directory {}", base.getParent(), e);
+            return;
+        }
+
+        if (driver instanceof TakesScreenshot) {
+            try {
+                Files.write(base.resolveSibling(name + ".png"),
+                        ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+            } catch (Exception e) {
+                log.debug("Could not capture screenshot of slow call {}", name, e);
+            }
+        }
+
+        try {
+            String source = driver.getPageSource();
+            if (source != null)
+                Files.write(base.resolveSibling(name + ".html"), source.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.debug("Could not capture page source of slow call {}", name, e);
+        }
+
+        if (driver instanceof JavascriptExecutor) {
+            try {
+                Object timings = ((JavascriptExecutor) driver).executeScript(TIMINGS_SCRIPT);
+                if (timings != null)
+                    Files.write(base.resolveSibling(name + ".timings.json"),
+                            timings.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                log.debug("Could not capture performance timings of slow call {}", name, e);
+            }
+        }
+    }
+}
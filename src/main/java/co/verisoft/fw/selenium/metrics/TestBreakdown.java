@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Locale;
+
+/**
+ * Where the wall-clock time of a test went, see {@link TestTimeline}. Also used for the sum of all the tests of the
+ * run. Times are in milliseconds
+ *
+ * @since 2.3.2
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class TestBreakdown {
+
+    /**
+     * Name of the test, or of the aggregate
+     */
+    private final String test;
+
+    /**
+     * Number of tests summed up, 1 for a single test
+     */
+    private final int tests;
+
+    private final long wallMillis;
+
+    /**
+     * Driver session creation, including waiting for a pooled or pre-started driver
+     */
+    private final long startupMillis;
+
+    /**
+     * Polling in Waits, including the commands polled
+     */
+    private final long waitMillis;
+
+    /**
+     * WebDriver commands outside waits
+     */
+    private final long commandMillis;
+
+    private final long commands;
+
+
+    /**
+     * @return time spent in the test code between driver calls
+     */
+    public long getIdleMillis() {
+        return Math.max(0, wallMillis - startupMillis - waitMillis - commandMillis);
+    }
+
+
+    /**
+     * @param other breakdown to add
+     * @param name  name of the sum
+     * @return the sum of this breakdown and the other
+     */
+    public TestBreakdown plus(TestBreakdown other, String name) {
+        return new TestBreakdown(name, tests + other.tests, wallMillis + other.wallMillis,
+                startupMillis + other.startupMillis, waitMillis + other.waitMillis,
+                commandMillis + other.commandMillis, commands + other.commands);
+    }
+
+
+    /**
+     * @return one line summary, e.g. for the test report
+     */
+    public String format() {
+        return String.format(Locale.ROOT,
+                "%s: %d ms - startup %d ms (%s), waits %d ms (%s), commands %d ms in %d calls (%s), idle %d ms (%s)",
+                test, wallMillis, startupMillis, percent(startupMillis), waitMillis, percent(waitMillis),
+                commandMillis, commands, percent(commandMillis), getIdleMillis(), percent(getIdleMillis()));
+    }
+
+
+    private String percent(long millis) {
+        return wallMillis == 0 ? "0%" : String.format(Locale.ROOT, "%.0f%%", 100.0 * millis / wallMillis);
+    }
+}
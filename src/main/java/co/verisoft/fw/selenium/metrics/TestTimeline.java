@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Splits the wall-clock time of one test into driver startup, waits, WebDriver commands and idle time - the time the
+ * test code itself took between them.<br>
+ * A timeline is bound to the test thread by DriverInjectionExtension. Time is added to it in spans:
+ * <pre>{@code
+ * long start = TestTimeline.enter();
+ * try {
+ *     return super.until(condition);
+ * } finally {
+ *     TestTimeline.exit(TestTimeline.Phase.WAIT, start);
+ * }
+ * }</pre>
+ * Spans nest - only the outermost span of the thread is counted, so the findElement calls polled by a wait are wait
+ * time and not also command time. Commands are added by {@link MetricsListener}.
+ *
+ * @since 2.3.2
+ */
+@ToString
+public final class TestTimeline {
+
+    /**
+     * Where the time of a test goes. Idle time is whatever is left
+     */
+    public enum Phase {
+        STARTUP, WAIT, COMMAND
+    }
+
+    private static final ThreadLocal<TestTimeline> current = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> openSpans = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Getter
+    private final String test;
+    @Getter
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final int[] phaseCounts = new int[Phase.values().length];
+
+
+    private TestTimeline(String test) {
+        this.test = test;
+    }
+
+
+    /**
+     * Start the timeline of a test and bind it to the current thread
+     *
+     * @param test name of the test
+     * @return the new timeline
+     */
+    public static TestTimeline begin(String test) {
+        TestTimeline timeline = new TestTimeline(test);
+        bind(timeline);
+        return timeline;
+    }
+
+
+    /**
+     * @param timeline timeline spans of the current thread are added to, null to stop adding them
+     */
+    public static void bind(@Nullable TestTimeline timeline) {
+        if (timeline == null)
+            current.remove();
+        else
+            current.set(timeline);
+    }
+
+
+    /**
+     * @return the timeline bound to the current thread, null if none
+     */
+    public static @Nullable TestTimeline current() {
+        return current.get();
+    }
+
+
+    /**
+     * Open a span on the current thread. Every call must be followed by {@link #exit(Phase, long)}
+     *
+     * @return start of the span, to pass to exit
+     */
+    public static long enter() {
+        openSpans.get()[0]++;
+        return System.nanoTime();
+    }
+
+
+    /**
+     * Close a span, adding its duration to the bound timeline if it is the outermost span
+     *
+     * @param phase      what the span was spent on
+     * @param startNanos the value returned by {@link #enter()}
+     */
+    public static void exit(Phase phase, long startNanos) {
+        int[] depth = openSpans.get();
+        if (--depth[0] > 0)
+            return;
+        depth[0] = 0;
+        TestTimeline timeline = current.get();
+        if (timeline != null)
+            timeline.add(phase, System.nanoTime() - startNanos);
+    }
+
+
+    /**
+     * Add a span which was measured elsewhere, e.g. a command timed by a listener. Ignored inside another span
+     *
+     * @param phase what the span was spent on
+     * @param nanos duration of the span
+     */
+    public static void record(Phase phase, long nanos) {
+        TestTimeline timeline = current.get();
+        if (timeline != null && openSpans.get()[0] == 0)
+            timeline.add(phase, nanos);
+    }
+
+
+    /**
+     * End the timeline. It is unbound from the current thread if bound to it
+     *
+     * @return the time breakdown of the test
+     */
+    public TestBreakdown end() {
+        if (current.get() == this)
+            current.remove();
+
+        long wall = System.nanoTime() - startNanos;
+        return new TestBreakdown(test, 1, nanosToMillis(wall),
+                nanosToMillis(phaseNanos[Phase.STARTUP.ordinal()]),
+                nanosToMillis(phaseNanos[Phase.WAIT.ordinal()]),
+                nanosToMillis(phaseNanos[Phase.COMMAND.ordinal()]),
+                phaseCounts[Phase.COMMAND.ordinal()]);
+    }
+
+
+    private void add(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+        phaseCounts[phase.ordinal()]++;
+    }
+
+
+    private static long nanosToMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
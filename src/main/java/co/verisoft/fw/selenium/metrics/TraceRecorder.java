@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.selenium.metrics;
+
+import co.verisoft.fw.utils.internal.ConfigValues;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records framework spans - tests, drivers, driver startup, page construction, object repository initialization,
+ * waits, commands and screenshots - and writes them at JVM exit in the Chrome trace event format, which
+ * chrome://tracing and ui.perfetto.dev load. Every worker thread is a track, so a parallel run shows where threads
+ * wait for each other and where they are idle.<br>
+ * Spans are recorded on the thread they ran on:
+ * <pre>{@code
+ * long start = TraceRecorder.begin();
+ * try {
+ *     ObjectReporsitoryFactory.initObjects(driver, this, path);
+ * } finally {
+ *     TraceRecorder.end("page", "initObjects " + getClass().getSimpleName(), start);
+ * }
+ * }</pre>
+ * Commands are recorded by {@link MetricsListener}, so they are only traced when driver metrics are enabled.
+ * Settings (root.config.properties or -D system properties):
+ * <ul>
+ *     <li>driver.trace.enabled - record spans. Default false</li>
+ *     <li>driver.trace.dir - directory of the trace files. Default target/trace</li>
+ *     <li>driver.trace.max.events - events kept, later ones are dropped. Default 1000000</li>
+ * </ul>
+ *
+ * @since 2.3.2
+ */
+@Slf4j
+public final class TraceRecorder {
+
+    private static final long BASE_NANOS = System.nanoTime();
+    private static final int MAX_EVENTS = ConfigValues.getInt("driver.trace.max.events", 1_000_000);
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private static final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger eventCount = new AtomicInteger();
+    private static final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = ConfigValues.getBoolean("driver.trace.enabled", false);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TraceRecorder::export, "driver-trace-export"));
+    }
+
+
+    private TraceRecorder() {
+    }
+
+
+    /**
+     * @return true if spans are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * @param enabled record spans from now on, or stop recording them
+     */
+    public static void setEnabled(boolean enabled) {
+        TraceRecorder.enabled = enabled;
+    }
+
+
+    /**
+     * @return start of a span, to pass to {@link #end(String, String, long)}
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+
+    /**
+     * Record a span of the current thread which started at startNanos and ends now
+     *
+     * @param category   category of the span, e.g. wait
+     * @param name       name of the span
+     * @param startNanos the value returned by {@link #begin()}
+     */
+    public static void end(String category, String name, long startNanos) {
+        if (enabled)
+            complete(category, name, startNanos, System.nanoTime() - startNanos);
+    }
+
+
+    /**
+     * Record a span of the current thread which was timed elsewhere
+     *
+     * @param category      category of the span, e.g. command
+     * @param name          name of the span
+     * @param startNanos    {@link System#nanoTime()} at the start of the span
+     * @param durationNanos duration of the span
+     */
+    public static void complete(String category, String name, long startNanos, long durationNanos) {
+        if (!enabled)
+            return;
+        Thread thread = Thread.currentThread();
+        threadNames.putIfAbsent(thread.getId(), thread.getName());
+        add(new Event('X', category, name, startNanos, durationNanos, thread.getId(), 0));
+    }
+
+
+    /**
+     * Start a span which may end on another thread, e.g. the life of a driver. Async spans are shown on their own
+     * track
+     *
+     * @param category category of the span, e.g. driver
+     * @param name     name of the span
+     * @param id       identifies the span, must be passed to {@link #asyncEnd(String, String, long)}
+     */
+    public static void asyncBegin(String category, String name, long id) {
+        if (enabled)
+            add(new Event('b', category, name, System.nanoTime(), 0, Thread.currentThread().getId(), id));
+    }
+
+
+    /**
+     * End a span started by {@link #asyncBegin(String, String, long)}
+     *
+     * @param category category of the span
+     * @param name     name of the span
+     * @param id       id of the span
+     */
+    public static void asyncEnd(String category, String name, long id) {
+        if (enabled)
+            add(new Event('e', category, name, System.nanoTime(), 0, Thread.currentThread().getId(), id));
+    }
+
+
+    /**
+     * Write the spans recorded so far to a new file under driver.trace.dir. Called at JVM exit, does nothing if no
+     * span was recorded
+     *
+     * @return the file written, null if nothing was written
+     */
+    public static Path export() {
+        if (events.isEmpty())
+            return null;
+
+        Path directory = Paths.get(ConfigValues.getString("driver.trace.dir", "target/trace"));
+        Path file = directory.resolve("trace-" + FILE_TIME.format(Instant.now()) + ".json");
+        try {
+            Files.createDirectories(directory);
+            write(file, new ArrayList<>(events));
+            log.info("Trace of {} spans written to {}", eventCount.get(), file.toAbsolutePath());
+            return file;
+        } catch (IOException e) {
+            log.warn("Could not write trace to {}", file, e);
+            return null;
+        }
+    }
+
+
+    /**
+     * Discard the spans recorded so far
+     */
+    public static void reset() {
+        events.clear();
+        eventCount.set(0);
+        threadNames.clear();
+    }
+
+
+    private static void add(Event event) {
+        if (eventCount.incrementAndGet() <= MAX_EVENTS)
+            events.add(event);
+        else
+            eventCount.decrementAndGet();
+    }
+
+
+    private static void write(Path file, List<Event> snapshot) throws IOException {
+        long pid = ProcessHandle.current().pid();
+        try (JsonGenerator json = new JsonFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("displayTimeUnit", "ms");
+            json.writeArrayFieldStart("traceEvents");
+
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("ph", "M");
+                json.writeStringField("name", "thread_name");
+                json.writeNumberField("pid", pid);
+                json.writeNumberField("tid", thread.getKey());
+                json.writeObjectFieldStart("args");
+                json.writeStringField("name", thread.getValue());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+
+            for (Event event : snapshot) {
+                json.writeStartObject();
+                json.writeStringField("ph", String.valueOf(event.phase));
+                json.writeStringField("cat", event.category);
+                json.writeStringField("name", event.name);
+                json.writeNumberField("pid", pid);
+                json.writeNumberField("tid", event.threadId);
+                json.writeNumberField("ts", (event.startNanos - BASE_NANOS) / 1000.0);
+                if (event.phase == 'X')
+                    json.writeNumberField("dur", event.durationNanos / 1000.0);
+                else
+                    json.writeStringField("id", Long.toHexString(event.id));
+                json.writeEndObject();
+            }
+
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+
+    private static final class Event {
+        private final char phase;
+        private final String category;
+        private final String name;
+        private final long startNanos;
+        private final long durationNanos;
+        private final long threadId;
+        private final long id;
+
+        private Event(char phase, String category, String name, long startNanos, long durationNanos, long threadId,
+                      long id) {
+            this.phase = phase;
+            this.category = category;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.threadId = threadId;
+            this.id = id;
+        }
+    }
+}
@@ -9,7 +9,6 @@ import co.verisoft.fw.store.StoreType;
 import com.perfecto.reportium.client.ReportiumClient;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.openqa.selenium.WebDriver;
 
 
 /**
@@ -69,7 +68,9 @@ public class PerfectoLogObserver extends BaseObserver {
         // Build the report message
         String reportMsg = reportEntry.getMsg();
         try {
-            WebDriver driver = VerisoftDriverManager.getDriver();
+            // Nothing to report to once the drivers of the current context are gone
+            if (VerisoftDriverManager.getDrivers() == null)
+                throw new IllegalStateException("No driver in the current driver context");
             // Write to perfecto
             ReportiumClient reportiumClient = StoreManager.getStore(StoreType.LOCAL_THREAD).getValueFromStore("REPORTIUM");
             if (level == ReportLevel.DEBUG)
@@ -18,6 +18,8 @@
 package co.verisoft.fw.utils;
 
 
+import co.verisoft.fw.selenium.metrics.TestTimeline;
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -30,6 +32,7 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 
@@ -51,13 +54,40 @@ public final class Waits {
      * @param milliseconds
      */
     public static void milliseconds(int milliseconds) {
+        long start = TestTimeline.enter();
         try {
             Thread.sleep(milliseconds);
         } catch (InterruptedException e) {
+        } finally {
+            TestTimeline.exit(TestTimeline.Phase.WAIT, start);
+            TraceRecorder.end("wait", "sleep " + milliseconds + " ms", start);
         }
     }
 
 
+    /**
+     * A WebDriverWait whose polling is counted as wait time of the running test, see {@link TestTimeline}, and traced
+     *
+     * @param driver  the driver
+     * @param timeOut timeout in seconds
+     * @return the wait
+     */
+    private static WebDriverWait waitFor(WebDriver driver, int timeOut) {
+        return new WebDriverWait(driver, Duration.ofSeconds(timeOut)) {
+            @Override
+            public <V> V until(Function<? super WebDriver, V> isTrue) {
+                long start = TestTimeline.enter();
+                try {
+                    return super.until(isTrue);
+                } finally {
+                    TestTimeline.exit(TestTimeline.Phase.WAIT, start);
+                    TraceRecorder.end("wait", String.valueOf(isTrue), start);
+                }
+            }
+        };
+    }
+
+
     /**
      * wait for alert to be on page
      *
@@ -67,7 +97,7 @@ public final class Waits {
      * @return Alert
      */
     public static Alert alertIsPresent(WebDriver driver, int timeOut, By by) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.alertIsPresent());
     }
 
@@ -82,7 +112,7 @@ public final class Waits {
      */
     public static boolean attributeContains(WebDriver driver, int timeOut, By locator,
                                             String attribute, String value) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.attributeContains(locator, attribute, value));
     }
 
@@ -97,7 +127,7 @@ public final class Waits {
      */
     public static boolean attributeContains(WebDriver driver, int timeOut, WebElement element,
                                             String attribute, String value) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.attributeContains(element, attribute, value));
     }
 
@@ -110,7 +140,7 @@ public final class Waits {
      * @return Boolean true when element has css or html attribute with the value
      */
     public static boolean attributeToBe(WebDriver driver, int timeOut, By locator, String attribute, String value) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.attributeToBe(locator, attribute, value));
     }
 
@@ -124,7 +154,7 @@ public final class Waits {
      */
     public static boolean attributeToBe(WebDriver driver, int timeOut, WebElement element,
                                         String attribute, String value) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.attributeToBe(element, attribute, value));
     }
 
@@ -136,7 +166,7 @@ public final class Waits {
      * @return Boolean true when element has css or html attribute with non empty value
      */
     public static boolean attributeToBeNotEmpty(WebDriver driver, int timeOut, WebElement element, String attribute) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.attributeToBeNotEmpty(element, attribute));
     }
 
@@ -153,7 +183,7 @@ public final class Waits {
      * false other wise
      */
     public static boolean elementSelectionStateToBe(WebDriver driver, int timeOut, By by, boolean selected) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementSelectionStateToBe(by, selected));
     }
 
@@ -171,7 +201,7 @@ public final class Waits {
      */
     public static boolean elementSelectionStateToBe(WebDriver driver, int timeOut,
                                                     WebElement element, boolean selected) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementSelectionStateToBe(element, selected));
     }
 
@@ -182,7 +212,7 @@ public final class Waits {
      * @return the WebElement once it is located and clickable (visible and enabled)
      */
     public static WebElement elementToBeClickable(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementToBeClickable(locator));
     }
 
@@ -193,7 +223,7 @@ public final class Waits {
      * @return the (same) WebElement once it is clickable (visible and enabled)
      */
     public static WebElement elementToBeClickable(WebDriver driver, int timeOut, WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementToBeClickable(element));
     }
 
@@ -204,7 +234,7 @@ public final class Waits {
      * @return true once the element is selected
      */
     public static boolean elementToBeSelected(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementToBeSelected(locator));
     }
 
@@ -215,7 +245,7 @@ public final class Waits {
      * @return true once the element is selected
      */
     public static boolean elementToBeSelected(WebDriver driver, int timeOut, WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.elementToBeSelected(element));
     }
 
@@ -227,7 +257,7 @@ public final class Waits {
      * @return WebDriver instance after frame has been switched
      */
     public static WebDriver frameToBeAvailableAndSwitchToIt(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(locator));
     }
 
@@ -239,7 +269,7 @@ public final class Waits {
      * @return WebDriver instance after frame has been switched
      */
     public static WebDriver frameToBeAvailableAndSwitchToIt(WebDriver driver, int timeOut, int frameLocator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(frameLocator));
     }
 
@@ -251,7 +281,7 @@ public final class Waits {
      * @return WebDriver instance after frame has been switched
      */
     public static WebDriver frameToBeAvailableAndSwitchToIt(WebDriver driver, int timeOut, String frameLocator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(frameLocator));
     }
 
@@ -264,7 +294,7 @@ public final class Waits {
      * @return WebDriver instance after frame has been switched
      */
     public static WebDriver frameToBeAvailableAndSwitchToIt(WebDriver driver, int timeOut, WebElement frameLocator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.frameToBeAvailableAndSwitchToIt(frameLocator));
     }
 
@@ -275,7 +305,7 @@ public final class Waits {
      * @return Boolean true when elements is not visible anymore
      */
     public static boolean invisibilityOf(WebDriver driver, int timeOut, WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.invisibilityOf(element));
     }
 
@@ -286,7 +316,7 @@ public final class Waits {
      * @return Boolean true when all elements are not visible anymore
      */
     public static boolean invisibilityOfAllElements(WebDriver driver, int timeOut, List<WebElement> elements) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.invisibilityOfAllElements(elements));
     }
 
@@ -297,7 +327,7 @@ public final class Waits {
      * @return Boolean true when all elements are not visible anymore
      */
     public static boolean invisibilityOfAllElements(WebDriver driver, int timeOut, WebElement... elements) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.invisibilityOfAllElements(elements));
     }
 
@@ -308,7 +338,7 @@ public final class Waits {
      * @return true if the element is not displayed or the element doesn't exist or stale element
      */
     public static boolean invisibilityOfElementLocated(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.invisibilityOfElementLocated(locator));
     }
 
@@ -321,7 +351,7 @@ public final class Waits {
      * @return true if no such element, stale element or displayed text not equal that provided
      */
     public static boolean invisibilityOfElementWithText(WebDriver driver, int timeOut, By locator, String text) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.invisibilityOfElementWithText(locator, text));
     }
 
@@ -333,7 +363,7 @@ public final class Waits {
      * @return Boolean true when size of elements list is equal to defined
      */
     public static List<WebElement> numberOfElementsToBe(WebDriver driver, int timeOut, By locator, int number) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.numberOfElementsToBe(locator, number));
     }
 
@@ -346,7 +376,7 @@ public final class Waits {
      * @return Boolean true when size of elements list is less than defined
      */
     public static List<WebElement> numberOfElementsToBeLessThan(WebDriver driver, int timeOut, By locator, int number) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.numberOfElementsToBeLessThan(locator, number));
     }
 
@@ -359,7 +389,7 @@ public final class Waits {
      */
     public static List<WebElement> numberOfElementsToBeMoreThan(WebDriver driver, int timeOut,
                                                                 By locator, int number) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.numberOfElementsToBeMoreThan(locator, number));
     }
 
@@ -372,7 +402,7 @@ public final class Waits {
      * @return true if the number of window with expectedNumberOfWindows is correct
      */
     public static boolean numberOfWindowsToBe(WebDriver driver, int timeOut, int expectedNumberOfWindows) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.numberOfWindowsToBe(expectedNumberOfWindows));
     }
 
@@ -383,7 +413,7 @@ public final class Waits {
      * @return the list of WebElements once they are located
      */
     public static List<WebElement> presenceOfAllElementsLocatedBy(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
     }
 
@@ -397,7 +427,7 @@ public final class Waits {
      * @author David Yehezkel
      */
     public static List<WebElement> presenceOfAllElements(WebDriver driver, int timeOut, WebElement... elements) {
-        return (new WebDriverWait(driver, Duration.ofSeconds(timeOut)))
+        return waitFor(driver, timeOut)
                 .until(new ExpectedCondition<List<WebElement>>() {
                     @Override
                     public @Nullable List<WebElement> apply(WebDriver d) {
@@ -418,7 +448,7 @@ public final class Waits {
      * @return the WebElement once it is located
      */
     public static WebElement presenceOfElementLocated(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.presenceOfElementLocated(locator));
     }
 
@@ -429,7 +459,7 @@ public final class Waits {
      * @return false if the element is still attached to the DOM, true otherwise.
      */
     public static boolean stalenessOf(WebDriver driver, int timeOut, WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.stalenessOf(element));
     }
 
@@ -442,7 +472,7 @@ public final class Waits {
      * @return Boolean true when element has text value containing @value
      */
     public static boolean textMatches(WebDriver driver, int timeOut, By locator, Pattern pattern) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textMatches(locator, pattern));
     }
 
@@ -454,7 +484,7 @@ public final class Waits {
      * @return Boolean true when element has text value equal to @value
      */
     public static boolean textToBe(WebDriver driver, int timeOut, By locator, String value) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textToBe(locator, value));
     }
 
@@ -467,7 +497,7 @@ public final class Waits {
      */
     public static boolean textToBePresentInElement(WebDriver driver, int timeOut,
                                                    WebElement element, String text) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textToBePresentInElement(element, text));
     }
 
@@ -481,7 +511,7 @@ public final class Waits {
      */
     public static boolean textToBePresentInElementLocated(WebDriver driver, int timeOut,
                                                           By locator, String text) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textToBePresentInElementLocated(locator, text));
     }
 
@@ -496,7 +526,7 @@ public final class Waits {
      */
     public static boolean textToBePresentInElementValue(WebDriver driver, int timeOut,
                                                         By locator, String text) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textToBePresentInElementValue(locator, text));
     }
 
@@ -510,7 +540,7 @@ public final class Waits {
      */
     public static boolean textToBePresentInElementValue(WebDriver driver, int timeOut, WebElement element,
                                                         String text) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.textToBePresentInElementValue(element, text));
     }
 
@@ -521,7 +551,7 @@ public final class Waits {
      * @return true when the title matches, false otherwise
      */
     public static boolean titleContains(WebDriver driver, int timeOut, String title) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.titleContains(title));
     }
 
@@ -532,7 +562,7 @@ public final class Waits {
      * @return true when the title matches, false otherwise
      */
     public static boolean titleIs(WebDriver driver, int timeOut, String title) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.titleIs(title));
     }
 
@@ -544,7 +574,7 @@ public final class Waits {
      * @return <code>true</code> when the URL contains the text
      */
     public static boolean urlContains(WebDriver driver, int timeOut, String fraction) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.urlContains(fraction));
     }
 
@@ -555,7 +585,7 @@ public final class Waits {
      * @return <code>true</code> if the URL matches the specified regular expression
      */
     public static boolean urlMatches(WebDriver driver, int timeOut, String regex) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.urlMatches(regex));
     }
 
@@ -567,7 +597,7 @@ public final class Waits {
      * @return <code>true</code> when the URL is what it should be
      */
     public static boolean urlToBe(WebDriver driver, int timeOut, String url) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.urlToBe(url));
     }
 
@@ -580,7 +610,7 @@ public final class Waits {
      * @return the (same) WebElement once it is visible
      */
     public static WebElement visibilityOf(WebDriver driver, int timeOut, WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.visibilityOf(element));
     }
 
@@ -593,7 +623,7 @@ public final class Waits {
      * @return the list of WebElements once they are located
      */
     public static List<WebElement> visibilityOfAllElements(WebDriver driver, int timeOut, List<WebElement> elements) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.visibilityOfAllElements(elements));
     }
 
@@ -606,7 +636,7 @@ public final class Waits {
      * @return the list of WebElements once they are located
      */
     public static List<WebElement> visibilityOfAllElements(WebDriver driver, int timeOut, WebElement... elements) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.visibilityOfAllElements(elements));
     }
 
@@ -619,7 +649,7 @@ public final class Waits {
      * @return the list of WebElements once they are located
      */
     public static List<WebElement> visibilityOfAllElementsLocatedBy(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
     }
 
@@ -632,7 +662,7 @@ public final class Waits {
      * @return the WebElement once it is located and visible
      */
     public static WebElement visibilityOfElementLocated(WebDriver driver, int timeOut, By locator) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeOut))
+        return waitFor(driver, timeOut)
                 .until(ExpectedConditions.visibilityOfElementLocated(locator));
     }
 
@@ -645,7 +675,7 @@ public final class Waits {
      * @return
      */
     public static boolean containsText(WebDriver driver, int timeOut, By by, String textToBeContains) {
-        (new WebDriverWait(driver, Duration.ofSeconds(timeOut)))
+        waitFor(driver, timeOut)
                 .until(new ExpectedCondition<Boolean>() {
                     @Override
                     public Boolean apply(WebDriver d) {
@@ -659,7 +689,7 @@ public final class Waits {
     }
 
     public static void pageToFullyLoad(WebDriver driver, int timeOut) {
-        (new WebDriverWait(driver, Duration.ofSeconds(timeOut))).until(new ExpectedCondition<Boolean>() {
+        waitFor(driver, timeOut).until(new ExpectedCondition<Boolean>() {
             @Override
             public Boolean apply(WebDriver d) {
                 return ((JavascriptExecutor) driver)
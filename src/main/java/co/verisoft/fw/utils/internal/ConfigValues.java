@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package co.verisoft.fw.utils.internal;
+
+import co.verisoft.fw.utils.Property;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads optional infrastructure settings from root.config.properties, with a code default for every key.<br>
+ * A JVM system property with the same key (-Dkey=value) takes precedence over the file, so settings can be
+ * changed per CI run without touching the properties file.
+ */
+@Slf4j
+public final class ConfigValues {
+
+    private ConfigValues() {
+    }
+
+
+    /**
+     * Get a raw value
+     *
+     * @param key          property key
+     * @param defaultValue value to return when the key is missing or blank
+     * @return the configured value, or the default
+     */
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            try {
+                value = new Property().getProperty(key);
+            } catch (Exception e) {
+                log.trace("Could not read property {} from root.config.properties", key, e);
+                value = null;
+            }
+        }
+        return (value == null || value.isBlank()) ? defaultValue : value.trim();
+    }
+
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            log.warn("Property {} has an illegal int value '{}'. Using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Property {} has an illegal long value '{}'. Using default {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
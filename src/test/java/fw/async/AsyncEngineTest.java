@@ -0,0 +1,205 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fw.async;
+
+import co.verisoft.fw.async.AsyncEngine;
+import co.verisoft.fw.async.AsyncListenerImp;
+import co.verisoft.fw.async.ScheduledSeleniumTask;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerRegistry;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncEngineTest {
+
+    @Test
+    public void taskRunsAtItsRateUntilDone() throws InterruptedException {
+        AsyncEngine engine = new AsyncEngine();
+        CountDownLatch latch = new CountDownLatch(3);
+        ScheduledSeleniumTask task = engine.schedule(() -> {
+            latch.countDown();
+            return latch.getCount() == 0;
+        }, Duration.ofMillis(20));
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        awaitTrue(task::isDone);
+        assertEquals(3, task.getRuns());
+        assertTrue(engine.getTasks().isEmpty());
+    }
+
+
+    @Test
+    public void slowTaskDropsTicksInsteadOfPilingUp() throws InterruptedException {
+        AsyncEngine engine = new AsyncEngine();
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        ScheduledSeleniumTask task = engine.schedule(() -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+            }
+            concurrent.decrementAndGet();
+            return false;
+        }, Duration.ofMillis(10));
+
+        // Every tick while a run takes its 100 ms is dropped
+        awaitTrue(() -> task.getRuns() >= 3 && task.getOverruns() > 0);
+        task.cancel();
+        assertEquals(1, maxConcurrent.get());
+    }
+
+
+    @Test
+    public void taskDoesNotRunWhileTheTestUsesTheDriver() throws Exception {
+        AsyncListenerImp listener = new AsyncListenerImp();
+        ListenerRegistry registry = new ListenerRegistry(listener);
+        listener.attach(registry);
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebDriver driver = new ListenerDispatchDecorator(registry).decorate(blockingDriver(inCall, release));
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledSeleniumTask task = listener.schedule(() -> runs.incrementAndGet() < 0, Duration.ofMillis(10));
+
+        Thread test = new Thread(driver::getTitle);
+        test.start();
+        try {
+            assertTrue(inCall.await(10, TimeUnit.SECONDS));
+            int before = runs.get();
+            awaitTrue(() -> task.getBusy() > 0);
+            assertEquals(before, runs.get());
+        } finally {
+            release.countDown();
+            test.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        int after = runs.get();
+        awaitTrue(() -> runs.get() > after);
+        listener.shutdown();
+        assertTrue(task.isDone());
+    }
+
+
+    @Test
+    public void callsWithoutTasksAreNotDispatched() throws Exception {
+        AsyncListenerImp listener = new AsyncListenerImp();
+        ListenerRegistry registry = new ListenerRegistry(listener);
+        listener.attach(registry);
+        ListenerDispatchDecorator decorator = new ListenerDispatchDecorator(registry);
+        CountDownLatch release = new CountDownLatch(0);
+        WebDriver driver = decorator.decorate(blockingDriver(new CountDownLatch(1), release));
+
+        assertEquals("title", driver.getTitle());
+        assertEquals(0, decorator.getDispatchedCalls());
+
+        ScheduledSeleniumTask task = listener.schedule(() -> false, Duration.ofSeconds(10));
+        assertEquals("title", driver.getTitle());
+        assertEquals(1, decorator.getDispatchedCalls());
+
+        task.cancel();
+        assertEquals("title", driver.getTitle());
+        assertEquals(1, decorator.getDispatchedCalls());
+    }
+
+
+    @Test
+    public void wrappersOfASharedSessionShareTheLockAndReleaseCancelsTheirTasks() throws Exception {
+        // A pooled or @SingleSession driver gets a new VerisoftDriver wrapper, with its own listener, in every test
+        WebDriver session = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebDriver.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("hashCode"))
+                        return System.identityHashCode(proxy);
+                    if (method.getName().equals("equals"))
+                        return proxy == args[0];
+                    return null;
+                });
+        AsyncListenerImp firstTest = new AsyncListenerImp();
+        firstTest.bindSession(session);
+        AsyncListenerImp secondTest = new AsyncListenerImp();
+        secondTest.bindSession(session);
+        assertSame(firstTest.getEngine(), secondTest.getEngine());
+        ListenerRegistry secondRegistry = new ListenerRegistry(secondTest);
+        secondTest.attach(secondRegistry);
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebDriver secondDriver = new ListenerDispatchDecorator(secondRegistry)
+                .decorate(blockingDriver(inCall, release));
+
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledSeleniumTask task = firstTest.schedule(() -> runs.incrementAndGet() < 0, Duration.ofMillis(10));
+
+        // A call of the second test holds back the task of the first one
+        Thread test = new Thread(secondDriver::getTitle);
+        test.start();
+        try {
+            assertTrue(inCall.await(10, TimeUnit.SECONDS));
+            int before = runs.get();
+            awaitTrue(() -> task.getBusy() > 0);
+            assertEquals(before, runs.get());
+        } finally {
+            release.countDown();
+            test.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        // The first test gives the session back
+        AsyncEngine.release(session);
+        assertTrue(task.isDone());
+        assertNotSame(firstTest.getEngine(), AsyncEngine.forSession(session));
+        AsyncEngine.release(session);
+    }
+
+
+    /**
+     * A driver whose getTitle signals it was called and returns when released
+     */
+    private static WebDriver blockingDriver(CountDownLatch inCall, CountDownLatch release) {
+        return (WebDriver) Proxy.newProxyInstance(AsyncEngineTest.class.getClassLoader(),
+                new Class[]{WebDriver.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "getTitle":
+                            inCall.countDown();
+                            assertTrue(release.await(10, TimeUnit.SECONDS));
+                            return "title";
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() - deadline < 0, "Condition not met within 10 seconds");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package fw.async;
+
+import co.verisoft.fw.async.AsyncListenerImp;
+import co.verisoft.fw.async.Observer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncListenerImpTest {
+
+    @Test
+    public void disposedObserversAreCollected() {
+        AsyncListenerImp listener = new AsyncListenerImp();
+        AtomicInteger updates = new AtomicInteger();
+        List<CountingObserver> observers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            CountingObserver observer = new CountingObserver(updates, i % 2 == 0 ? 1 : Integer.MAX_VALUE);
+            observers.add(observer);
+            listener.register(observer);
+        }
+
+        listener.notifyObservers();
+        listener.collectGarbage();
+        assertEquals(1000, updates.get());
+        assertEquals(500, listener.getObservers().size());
+
+        listener.unregister(observers.get(0));
+        listener.unregister(observers.get(1));
+        assertEquals(499, listener.getObservers().size());
+
+        listener.unregisterAll();
+        assertTrue(listener.getObservers().isEmpty());
+        listener.shutdown();
+    }
+
+
+    private static final class CountingObserver implements Observer {
+        private final AtomicInteger updates;
+        private final int maxUpdates;
+        private int count;
+
+        private CountingObserver(AtomicInteger updates, int maxUpdates) {
+            this.updates = updates;
+            this.maxUpdates = maxUpdates;
+        }
+
+        @Override
+        public void update() {
+            count++;
+            updates.incrementAndGet();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return count >= maxUpdates;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package objectrepository;
+
+import co.verisoft.fw.objectrepository.DynamicWebElement;
+import co.verisoft.fw.objectrepository.Locator;
+import co.verisoft.fw.objectrepository.LocatorObject;
+import co.verisoft.fw.objectrepository.ObjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicWebElementTest {
+
+    private final AtomicInteger finds = new AtomicInteger();
+    private final AtomicBoolean stale = new AtomicBoolean();
+
+    @AfterEach
+    public void disableCache() {
+        DynamicWebElement.setCacheEnabled(false);
+    }
+
+
+    @Test
+    public void foundElementIsReusedUntilItGoesStale() {
+        DynamicWebElement.setCacheEnabled(true);
+        ObjectRepository repository = new ObjectRepository(List.of(new LocatorObject("title", null,
+                List.of(new Locator("id", "title", 10)))));
+        DynamicWebElement handler = new DynamicWebElement(driver(), repository, "title", null);
+        WebElement element = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebElement.class}, handler);
+
+        assertEquals("text 1", element.getText());
+        assertEquals("text 1", element.getText());
+        assertTrue(element.isDisplayed());
+        assertEquals(1, finds.get());
+
+        // The page re-rendered - the call is retried on the element found again
+        stale.set(true);
+        assertEquals("text 2", element.getText());
+        assertEquals(2, finds.get());
+
+        handler.invalidate();
+        assertEquals("text 3", element.getText());
+        assertEquals(3, finds.get());
+    }
+
+
+    @Test
+    public void elementIsLookedUpOnEveryCallWhenCacheIsDisabled() {
+        ObjectRepository repository = new ObjectRepository(List.of(new LocatorObject("title", null,
+                List.of(new Locator("id", "title", 10)))));
+        WebElement element = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebElement.class}, new DynamicWebElement(driver(), repository, "title", null));
+
+        element.getText();
+        element.getText();
+        assertEquals(2, finds.get());
+    }
+
+
+    private WebDriver driver() {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    String text = "text " + finds.incrementAndGet();
+                    stale.set(false);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebElement.class},
+                            (element, elementMethod, elementArgs) -> {
+                                if (stale.get())
+                                    throw new StaleElementReferenceException("stale");
+                                return elementMethod.getName().equals("getText") ? text : Boolean.TRUE;
+                            });
+                });
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package objectrepository;
+
+import co.verisoft.fw.objectrepository.DynamicWebElement;
+import co.verisoft.fw.objectrepository.Locator;
+import co.verisoft.fw.objectrepository.LocatorObject;
+import co.verisoft.fw.objectrepository.LocatorRace;
+import co.verisoft.fw.objectrepository.ObjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocatorRaceTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private boolean failScriptOnce;
+
+    @AfterEach
+    public void disableRace() {
+        LocatorRace.setEnabled(false);
+    }
+
+
+    @Test
+    public void allLocatorsAreTriedInOneScript() {
+        LocatorRace.setEnabled(true);
+        WebElement element = element(driver(true), "race-" + System.nanoTime());
+
+        assertEquals("raced", element.getText());
+        assertEquals(List.of("executeScript"), calls);
+    }
+
+
+    @Test
+    public void driverWhichCannotRunScriptsFallsBackToFindElement() {
+        LocatorRace.setEnabled(true);
+        WebDriver driver = driver(false);
+
+        assertEquals("found", element(driver, "native-" + System.nanoTime()).getText());
+        assertEquals(List.of("executeScript", "findElement", "findElement"), calls);
+
+        // The driver is not asked to run the script again
+        calls.clear();
+        assertEquals("found", element(driver, "native-" + System.nanoTime()).getText());
+        assertEquals(List.of("findElement", "findElement"), calls);
+    }
+
+
+    @Test
+    public void scriptFailureFallsBackForThatCallOnly() {
+        LocatorRace.setEnabled(true);
+        failScriptOnce = true;
+        WebElement element = element(driver(true), "unloaded-" + System.nanoTime());
+
+        assertEquals("found", element.getText());
+        assertEquals(List.of("executeScript", "findElement", "findElement"), calls);
+
+        calls.clear();
+        assertEquals("raced", element.getText());
+        assertEquals(List.of("executeScript"), calls);
+    }
+
+
+    private WebElement element(WebDriver driver, String objectId) {
+        ObjectRepository repository = new ObjectRepository(List.of(new LocatorObject(objectId, null, List.of(
+                new Locator("id", "broken", 90),
+                new Locator("xpath", "//input", 10)))));
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebElement.class},
+                new DynamicWebElement(driver, repository, objectId, null));
+    }
+
+
+    private WebDriver driver(boolean runsScripts) {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "driver";
+                        case "executeScript":
+                            calls.add("executeScript");
+                            if (!runsScripts)
+                                throw new UnsupportedCommandException("Method is not implemented");
+                            if (failScriptOnce) {
+                                failScriptOnce = false;
+                                throw new JavascriptException("document unloaded while waiting for result");
+                            }
+                            return List.of(1L, List.of(text("raced")));
+                        case "findElement":
+                            calls.add("findElement");
+                            if (args[0].toString().contains("broken"))
+                                throw new NoSuchElementException("not found");
+                            return text("found");
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+
+    private WebElement text(String text) {
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebElement.class},
+                (proxy, method, args) -> text);
+    }
+}
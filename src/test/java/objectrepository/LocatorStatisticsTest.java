@@ -0,0 +1,128 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package objectrepository;
+
+import co.verisoft.fw.objectrepository.DynamicWebElement;
+import co.verisoft.fw.objectrepository.Locator;
+import co.verisoft.fw.objectrepository.LocatorObject;
+import co.verisoft.fw.objectrepository.LocatorStatistics;
+import co.verisoft.fw.objectrepository.ObjectRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocatorStatisticsTest {
+
+    private final List<By> tried = new ArrayList<>();
+    private boolean brokenFixed;
+
+    @BeforeEach
+    public void enable() {
+        LocatorStatistics.reset();
+        LocatorStatistics.setEnabled(true);
+    }
+
+    @AfterEach
+    public void disable() {
+        LocatorStatistics.setEnabled(false);
+    }
+
+
+    @Test
+    public void brokenLocatorIsMovedBehindTheWorkingOne() {
+        String objectId = "adaptive-search";
+        WebElement element = element(objectId);
+
+        assertEquals("found", element.getText());
+        assertEquals(List.of(By.id("broken"), By.cssSelector("#works")), tried);
+
+        tried.clear();
+        assertEquals("found", element.getText());
+        assertEquals(List.of(By.cssSelector("#works")), tried);
+
+        LocatorStatistics.Stat broken = LocatorStatistics.getFailingLocators().stream()
+                .filter(stat -> stat.getObjectId().equals(objectId))
+                .findFirst().orElseThrow();
+        assertEquals("broken", broken.getValue());
+        assertEquals(1, broken.getFailures());
+        assertEquals(0, broken.getSuccesses());
+    }
+
+
+    @Test
+    public void fixedLocatorGetsItsPlaceBack() {
+        WebElement element = element("adaptive-fixed");
+        element.getText();
+        brokenFixed = true;
+
+        // Tried by grade again within object.repository.adaptive.retry resolutions, default 50
+        for (int i = 0; i < 50; i++)
+            element.getText();
+
+        tried.clear();
+        element.getText();
+        assertEquals(List.of(By.id("broken")), tried);
+    }
+
+
+    @Test
+    public void locatorsAreTriedByGradeOnlyWhenDisabled() {
+        LocatorStatistics.setEnabled(false);
+        WebElement element = element("adaptive-disabled");
+        element.getText();
+        element.getText();
+
+        assertEquals(List.of(By.id("broken"), By.cssSelector("#works"), By.id("broken"), By.cssSelector("#works")),
+                tried);
+        assertTrue(LocatorStatistics.getFailingLocators().stream()
+                .noneMatch(stat -> stat.getObjectId().equals("adaptive-disabled")));
+    }
+
+
+    private WebElement element(String objectId) {
+        ObjectRepository repository = new ObjectRepository(List.of(new LocatorObject(objectId, null, List.of(
+                new Locator("id", "broken", 90),
+                new Locator("cssSelector", "#works", 10)))));
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebElement.class}, new DynamicWebElement(driver(), repository, objectId, null));
+    }
+
+
+    private WebDriver driver() {
+        WebElement found = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebElement.class}, (proxy, method, args) -> "found");
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    By by = (By) args[0];
+                    tried.add(by);
+                    if (by.equals(By.id("broken")) && !brokenFixed)
+                        throw new NoSuchElementException("not found");
+                    return found;
+                });
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package objectrepository;
+
+import co.verisoft.fw.objectrepository.ObjectRepository;
+import co.verisoft.fw.objectrepository.ObjectRepositoryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectRepositoryCacheTest {
+
+    private static final String REPOSITORY = "{\"objectsRepository\": [{\"objectId\": \"search\", " +
+            "\"locators\": [{\"type\": \"id\", \"value\": \"q\", \"grade\": 50}]}]}";
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void clear() {
+        ObjectRepositoryCache.clear();
+    }
+
+
+    @Test
+    public void relativeAndAbsolutePathsShareOneRepository() throws Exception {
+        Path file = Files.writeString(dir.resolve("repository.json"), REPOSITORY);
+        ObjectRepository repository = ObjectRepositoryCache.get(file.toString());
+
+        assertEquals(1, repository.getObjectsRepository().size());
+        assertSame(repository, ObjectRepositoryCache.get(file.toString()));
+        assertSame(repository, ObjectRepositoryCache.get(dir.resolve("sub/../repository.json").toString()));
+    }
+
+
+    @Test
+    public void missingFileIsNotCached() throws Exception {
+        Path file = dir.resolve("repository.json");
+        assertTrue(ObjectRepositoryCache.get(file.toString()).getObjectsRepository().isEmpty());
+
+        Files.writeString(file, REPOSITORY);
+        assertEquals(1, ObjectRepositoryCache.get(file.toString()).getObjectsRepository().size());
+    }
+
+
+    @Test
+    public void malformedFileIsNotCached() throws Exception {
+        Path file = Files.writeString(dir.resolve("repository.json"), "{\"objectsRepository\": [");
+        assertTrue(ObjectRepositoryCache.get(file.toString()).getObjectsRepository().isEmpty());
+
+        Files.writeString(file, REPOSITORY);
+        assertEquals(1, ObjectRepositoryCache.get(file.toString()).getObjectsRepository().size());
+    }
+}
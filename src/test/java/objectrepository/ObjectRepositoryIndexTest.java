@@ -0,0 +1,73 @@
+/*
+ * (C) Copyright 2022 VeriSoft (http://www.verisoft.co)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package objectrepository;
+
+import co.verisoft.fw.objectrepository.Locator;
+import co.verisoft.fw.objectrepository.LocatorObject;
+import co.verisoft.fw.objectrepository.ObjectRepository;
+import co.verisoft.fw.objectrepository.ObjectRepositoryIndex;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectRepositoryIndexTest {
+
+    @Test
+    public void findsItemsIgnoringCaseWithLocatorsSortedByGrade() {
+        ObjectRepository repository = new ObjectRepository(List.of(
+                new LocatorObject("SEARCH", null, List.of(new Locator("id", "q", 50))),
+                new LocatorObject("search", "HomePage", List.of(
+                        new Locator("id", "home-q", 10),
+                        new Locator("unknown", "x", 100),
+                        new Locator("cssSelector", "#home-q", 90))),
+                new LocatorObject("Search", "homepage", List.of(new Locator("id", "shadowed", 99)))));
+
+        ObjectRepositoryIndex index = ObjectRepositoryIndex.of(repository);
+        assertSame(index, ObjectRepositoryIndex.of(repository));
+        assertEquals(1, index.size());
+
+        assertEquals(List.of(By.id("q")), index.get("Search", null).getBys());
+        ObjectRepositoryIndex.Entry home = index.get("SEARCH", "homePAGE");
+        assertEquals(List.of(By.cssSelector("#home-q"), By.id("home-q")), home.getBys());
+        assertEquals(90, home.getLocators().get(0).getGrade());
+
+        assertNull(index.find("search", "OtherPage"));
+        assertThrows(IllegalArgumentException.class, () -> index.get("missing", null));
+    }
+
+
+    @Test
+    public void largeRepositoryIsIndexedByIdAndPage() {
+        List<LocatorObject> objects = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++)
+            objects.add(new LocatorObject("item-" + i, "Page" + (i % 50), List.of(
+                    new Locator("xpath", "//*[@data-i='" + i + "']", 10),
+                    new Locator("id", "item-" + i, 80))));
+
+        ObjectRepositoryIndex index = ObjectRepositoryIndex.build(objects);
+        assertEquals(20_000, index.size());
+        for (int i = 0; i < 20_000; i += 997) {
+            ObjectRepositoryIndex.Entry entry = index.get("ITEM-" + i, "page" + (i % 50));
+            assertEquals(By.id("item-" + i), entry.getBys().get(0));
+        }
+    }
+}
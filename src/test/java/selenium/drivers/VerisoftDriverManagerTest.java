@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.drivers;
+
+import co.verisoft.fw.selenium.drivers.DriverContext;
+import co.verisoft.fw.selenium.drivers.VerisoftDriverManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registry behaviour of VerisoftDriverManager, using driver stubs - no browser needed
+ */
+public class VerisoftDriverManagerTest {
+
+    @AfterEach
+    public void unbind() {
+        DriverContext.bind(null);
+    }
+
+
+    @Test
+    public void driversAreIsolatedByContext() {
+        WebDriver first = stubDriver();
+        WebDriver second = stubDriver();
+
+        DriverContext.bind(DriverContext.create("first", null));
+        VerisoftDriverManager.addDriverToMap("driver", first);
+        DriverContext.bind(DriverContext.create("second", null));
+        VerisoftDriverManager.addDriverToMap("driver", second);
+
+        assertSame(second, VerisoftDriverManager.getDriver("driver"));
+        assertSame(second, VerisoftDriverManager.getDriver());
+    }
+
+
+    @Test
+    public void contextIsNotTiedToThread() throws Exception {
+        DriverContext context = DriverContext.create("test", null);
+        WebDriver driver = stubDriver();
+        DriverContext.bind(context);
+        VerisoftDriverManager.addDriverToMap("driver", driver);
+
+        WebDriver fromOtherThread = CompletableFuture.supplyAsync(() -> {
+            DriverContext.bind(context);
+            return VerisoftDriverManager.<WebDriver>getDriver("driver");
+        }).get();
+
+        assertSame(driver, fromOtherThread);
+    }
+
+
+    @Test
+    public void wrappedTaskRunsWithCallerContext() throws Exception {
+        WebDriver driver = stubDriver();
+        DriverContext.bind(DriverContext.create("test", null));
+        VerisoftDriverManager.addDriverToMap("driver", driver);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            WebDriver wrapped = executor.submit(DriverContext.wrap(
+                    () -> VerisoftDriverManager.<WebDriver>getDriver("driver"))).get();
+            WebDriver notWrapped = executor.submit(
+                    () -> VerisoftDriverManager.<WebDriver>getDriver("driver")).get();
+
+            assertSame(driver, wrapped);
+            assertNull(notWrapped);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Test
+    public void parentContextDriversAreVisible() {
+        DriverContext classContext = DriverContext.create("class", null);
+        WebDriver driver = stubDriver();
+        DriverContext.bind(classContext);
+        VerisoftDriverManager.addDriverToMap(null, driver);
+
+        DriverContext.bind(DriverContext.create("method", classContext));
+
+        assertSame(driver, VerisoftDriverManager.getDriver());
+        assertSame(driver, VerisoftDriverManager.getDriver(VerisoftDriverManager.DEFAULT_DRIVER_NAME));
+    }
+
+
+    @Test
+    public void removedDriverIsNoLongerRegistered() {
+        DriverContext.bind(DriverContext.create("test", null));
+        WebDriver driver = stubDriver();
+        VerisoftDriverManager.addDriverToMap("driver", driver);
+
+        VerisoftDriverManager.removeDriver(driver);
+
+        assertNull(VerisoftDriverManager.getDriver("driver"));
+        assertNull(VerisoftDriverManager.getDrivers());
+    }
+
+
+    @Test
+    public void driversOfAnAbandonedContextAreReleased() throws Exception {
+        WeakReference<WebDriver>[] drivers = registerInAbandonedContext();
+
+        // Registering another driver drops the registrations of collected contexts
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while ((drivers[0].get() != null || drivers[1].get() != null) && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+            DriverContext.bind(DriverContext.create("next", null));
+            VerisoftDriverManager.addDriverToMap("driver", stubDriver());
+        }
+
+        assertNull(drivers[0].get(), "first driver of the abandoned context is still referenced");
+        assertNull(drivers[1].get(), "second driver of the abandoned context is still referenced");
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<WebDriver>[] registerInAbandonedContext() {
+        WebDriver first = stubDriver();
+        WebDriver second = stubDriver();
+        DriverContext.bind(DriverContext.create("abandoned", null));
+        VerisoftDriverManager.addDriverToMap("first", first);
+        VerisoftDriverManager.addDriverToMap("second", second);
+        DriverContext.bind(null);
+        return new WeakReference[]{new WeakReference<>(first), new WeakReference<>(second)};
+    }
+
+
+    private static WebDriver stubDriver() {
+        return (WebDriver) Proxy.newProxyInstance(VerisoftDriverManagerTest.class.getClassLoader(),
+                new Class[]{WebDriver.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubDriver@" + System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.drivers.batch;
+
+import co.verisoft.fw.selenium.drivers.batch.BatchElementReader;
+import co.verisoft.fw.selenium.drivers.batch.ElementRead;
+import co.verisoft.fw.selenium.drivers.batch.ElementReadResult;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch reads against a scripted driver stub - no browser needed
+ */
+public class BatchElementReaderTest {
+
+    private final AtomicInteger scriptCalls = new AtomicInteger();
+    private final List<Object[]> scriptArgs = new ArrayList<>();
+
+
+    @Test
+    public void elementsAreReadInOneRoundTrip() {
+        WebElement first = stub(WebElement.class);
+        WebElement second = stub(WebElement.class);
+        WebDriver driver = driverReturning(Arrays.asList(
+                Arrays.asList(first, "first", true, Arrays.asList(10.7, 20L, 100L, 30L)),
+                Arrays.asList(second, "second", false, Arrays.asList(0L, 0L, 0L, 0L))));
+
+        List<ElementReadResult> results = BatchElementReader.read(driver, Arrays.asList(first, second),
+                ElementRead.text(), ElementRead.displayed(), ElementRead.rect());
+
+        assertEquals(1, scriptCalls.get());
+        assertEquals(2, results.size());
+        assertSame(first, results.get(0).getElement());
+        assertEquals("first", results.get(0).getText());
+        assertTrue(results.get(0).isDisplayed());
+        assertEquals(new Rectangle(10, 20, 30, 100), results.get(0).getRect());
+        assertEquals("second", results.get(1).getText());
+        assertFalse(results.get(1).isDisplayed());
+    }
+
+
+    @Test
+    public void cssLocatorIsEvaluatedInThePage() {
+        WebElement found = stub(WebElement.class);
+        WebDriver driver = driverReturning(Arrays.asList(Arrays.asList(found, "42", "red")));
+
+        List<ElementReadResult> results = BatchElementReader.read(driver, By.cssSelector("tr > td"),
+                ElementRead.attribute("data-id"), ElementRead.cssValue("color"));
+
+        assertEquals(1, scriptCalls.get());
+        assertNull(scriptArgs.get(0)[0]);
+        assertEquals("css selector", scriptArgs.get(0)[2]);
+        assertEquals("tr > td", scriptArgs.get(0)[3]);
+        assertSame(found, results.get(0).getElement());
+        assertEquals("42", results.get(0).getAttribute("data-id"));
+        assertEquals("red", results.get(0).getCssValue("color"));
+        assertThrows(IllegalArgumentException.class, () -> results.get(0).getText());
+    }
+
+
+    private WebDriver driverReturning(Object result) {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("executeScript")) {
+                        scriptCalls.incrementAndGet();
+                        scriptArgs.add((Object[]) args[1]);
+                        return result;
+                    }
+                    return null;
+                });
+    }
+
+
+    private static <T> T stub(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(BatchElementReaderTest.class.getClassLoader(), new Class[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                }));
+    }
+}
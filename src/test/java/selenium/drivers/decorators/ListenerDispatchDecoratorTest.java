@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.drivers.decorators;
+
+import co.verisoft.fw.selenium.drivers.decorators.ListenerDispatchDecorator;
+import co.verisoft.fw.selenium.drivers.decorators.ListenerRegistry;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The dispatch decorator against Selenium's EventFiringDecorator, on a driver stub - no browser needed
+ */
+public class ListenerDispatchDecoratorTest {
+
+    @Test
+    public void eventsAreFiredInEventFiringDecoratorOrder() {
+        List<String> expected = new ArrayList<>();
+        exercise(new EventFiringDecorator<>(new RecordingListener("a", expected), new RecordingListener("b", expected))
+                .decorate(stubDriver()));
+
+        List<String> actual = new ArrayList<>();
+        exercise(new ListenerDispatchDecorator(new RecordingListener("a", actual), new RecordingListener("b", actual))
+                .decorate(stubDriver()));
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+
+    @Test
+    public void anonymousListenersGetSpecificHooks() {
+        List<String> events = new ArrayList<>();
+        WebDriver driver = new ListenerDispatchDecorator(new WebDriverListener() {
+            @Override
+            public void beforeGet(WebDriver driver, String url) {
+                events.add("beforeGet " + url);
+            }
+        }).decorate(stubDriver());
+
+        driver.get("http://localhost");
+        driver.getTitle();
+
+        assertEquals(List.of("beforeGet http://localhost"), events);
+    }
+
+
+    @Test
+    public void listenersChangeWithoutRedecorating() {
+        ListenerRegistry registry = new ListenerRegistry();
+        WebDriver driver = new ListenerDispatchDecorator(registry).decorate(stubDriver());
+        WebElement element = driver.findElement(By.id("found"));
+
+        List<String> events = new ArrayList<>();
+        RecordingListener listener = new RecordingListener("late", events);
+        registry.add(listener);
+        element.click();
+        assertEquals(List.of("late:beforeAnyCall click", "late:beforeClick", "late:afterAnyWebElementCall click",
+                "late:afterAnyCall click"), events);
+
+        events.clear();
+        assertTrue(registry.remove(listener));
+        element.click();
+        driver.getTitle();
+        assertTrue(events.isEmpty());
+    }
+
+
+    @Test
+    public void callsNoListenerTakesPartInAreNotDispatched() {
+        List<String> events = new ArrayList<>();
+        ListenerDispatchDecorator decorator = new ListenerDispatchDecorator(new WebDriverListener() {
+            @Override
+            public void beforeGet(WebDriver driver, String url) {
+                events.add("beforeGet " + url);
+            }
+        });
+        WebDriver driver = decorator.decorate(stubDriver());
+
+        assertEquals("title", driver.getTitle());
+        driver.findElement(By.id("found")).getText();
+        assertEquals(0, decorator.getDispatchedCalls());
+
+        driver.get("http://localhost");
+        assertEquals(1, decorator.getDispatchedCalls());
+        assertEquals(List.of("beforeGet http://localhost"), events);
+
+        ListenerDispatchDecorator empty = new ListenerDispatchDecorator();
+        empty.decorate(stubDriver()).getTitle();
+        assertEquals(0, empty.getDispatchedCalls());
+    }
+
+
+    private static void exercise(WebDriver driver) {
+        driver.get("http://localhost");
+        driver.getTitle();
+        WebElement element = driver.findElement(By.id("found"));
+        element.click();
+        element.getText();
+        assertThrows(NoSuchElementException.class, () -> driver.findElement(By.id("missing")));
+    }
+
+
+    private static WebDriver stubDriver() {
+        WebElement element = (WebElement) Proxy.newProxyInstance(ListenerDispatchDecoratorTest.class.getClassLoader(),
+                new Class[]{WebElement.class}, (proxy, method, args) ->
+                        method.getName().equals("getText") ? "text" : null);
+
+        return (WebDriver) Proxy.newProxyInstance(ListenerDispatchDecoratorTest.class.getClassLoader(),
+                new Class[]{WebDriver.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getTitle":
+                            return "title";
+                        case "findElement":
+                            if (args[0].toString().contains("missing"))
+                                throw new NoSuchElementException("missing");
+                            return element;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+
+    /**
+     * Public, so EventFiringDecorator can call its specific hooks reflectively
+     */
+    public static class RecordingListener implements WebDriverListener {
+        private final String name;
+        private final List<String> events;
+
+        public RecordingListener(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        private void record(String event) {
+            events.add(name + ":" + event);
+        }
+
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            record("beforeAnyCall " + method.getName());
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            record("afterAnyCall " + method.getName());
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            record("onError " + method.getName());
+        }
+
+        @Override
+        public void beforeAnyWebDriverCall(WebDriver driver, Method method, Object[] args) {
+            record("beforeAnyWebDriverCall " + method.getName());
+        }
+
+        @Override
+        public void afterAnyWebElementCall(WebElement element, Method method, Object[] args, Object result) {
+            record("afterAnyWebElementCall " + method.getName());
+        }
+
+        @Override
+        public void beforeGet(WebDriver driver, String url) {
+            record("beforeGet " + url);
+        }
+
+        @Override
+        public void afterGetTitle(WebDriver driver, String result) {
+            record("afterGetTitle " + result);
+        }
+
+        @Override
+        public void afterFindElement(WebDriver driver, By locator, WebElement result) {
+            record("afterFindElement " + locator);
+        }
+
+        @Override
+        public void beforeClick(WebElement element) {
+            record("beforeClick");
+        }
+
+        @Override
+        public void afterGetText(WebElement element, String result) {
+            record("afterGetText " + result);
+        }
+    }
+}
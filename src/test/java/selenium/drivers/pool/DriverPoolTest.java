@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.drivers.pool;
+
+import co.verisoft.fw.selenium.drivers.pool.DriverPool;
+import co.verisoft.fw.selenium.drivers.pool.DriverPoolConfig;
+import co.verisoft.fw.selenium.drivers.pool.DriverPoolKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pool behaviour with in-memory fake drivers - no browser needed
+ */
+public class DriverPoolTest {
+
+    private final List<FakeSession> sessions = new CopyOnWriteArrayList<>();
+    private final DriverPool pool = new DriverPool(
+            new DriverPoolConfig(0, 2, Duration.ofMinutes(5), Duration.ofMillis(300), Duration.ofMinutes(1)),
+            key -> {
+                FakeSession session = new FakeSession();
+                sessions.add(session);
+                return session.driver;
+            });
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+
+    @Test
+    public void releasedSessionIsResetAndReused() {
+        DriverPoolKey key = new DriverPoolKey(null, chrome());
+
+        WebDriver first = pool.borrow(key);
+        pool.release(first);
+        WebDriver second = pool.borrow(new DriverPoolKey(null, chrome()));
+
+        assertSame(first, second);
+        assertEquals(1, sessions.size());
+        assertEquals("about:blank", sessions.get(0).url);
+        assertTrue(sessions.get(0).cookiesDeleted);
+        assertEquals(1, pool.getMetrics().getCreated());
+        assertEquals(1, pool.getMetrics().getReused());
+    }
+
+
+    @Test
+    public void differentCapabilitiesUseDifferentSessions() {
+        DesiredCapabilities firefox = new DesiredCapabilities();
+        firefox.setBrowserName("firefox");
+
+        WebDriver chromeDriver = pool.borrow(new DriverPoolKey(null, chrome()));
+        pool.release(chromeDriver);
+        WebDriver firefoxDriver = pool.borrow(new DriverPoolKey(null, firefox));
+
+        assertNotSame(chromeDriver, firefoxDriver);
+        assertEquals(2, sessions.size());
+    }
+
+
+    @Test
+    public void borrowTimesOutWhenMaxSizeIsReached() {
+        DriverPoolKey key = new DriverPoolKey(null, chrome());
+        pool.borrow(key);
+        pool.borrow(key);
+
+        assertThrows(IllegalStateException.class, () -> pool.borrow(key));
+        assertEquals(1, pool.getMetrics().getBorrowTimeouts());
+    }
+
+
+    @Test
+    public void deadSessionIsReplaced() {
+        DriverPoolKey key = new DriverPoolKey(null, chrome());
+        WebDriver first = pool.borrow(key);
+        pool.release(first);
+        sessions.get(0).alive = false;
+
+        WebDriver second = pool.borrow(key);
+
+        assertNotSame(first, second);
+        assertTrue(sessions.get(0).quit);
+        assertEquals(1, pool.getMetrics().getHealthCheckFailures());
+    }
+
+
+    private static DesiredCapabilities chrome() {
+        DesiredCapabilities capabilities = new DesiredCapabilities();
+        capabilities.setBrowserName("chrome");
+        capabilities.setCapability("headless", true);
+        return capabilities;
+    }
+
+
+    /**
+     * Minimal driver implementation supporting the calls the pool makes
+     */
+    private static class FakeSession {
+        private volatile boolean alive = true;
+        private volatile boolean quit;
+        private volatile boolean cookiesDeleted;
+        private volatile String url = "https://example.com";
+        private final WebDriver driver = (WebDriver) proxy(WebDriver.class);
+
+        private Object proxy(Class<?> type) {
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{type}, (p, method, args) -> {
+                if (!alive && !method.getName().equals("quit"))
+                    throw new NoSuchSessionException("Session is gone");
+                switch (method.getName()) {
+                    case "getWindowHandle":
+                        return "main";
+                    case "getWindowHandles":
+                        Set<String> handles = new LinkedHashSet<>();
+                        handles.add("main");
+                        return handles;
+                    case "switchTo":
+                        return proxy(WebDriver.TargetLocator.class);
+                    case "alert":
+                        throw new NoAlertPresentException();
+                    case "window":
+                        return driver;
+                    case "manage":
+                        return proxy(WebDriver.Options.class);
+                    case "deleteAllCookies":
+                        cookiesDeleted = true;
+                        return null;
+                    case "get":
+                        url = (String) args[0];
+                        return null;
+                    case "quit":
+                        quit = true;
+                        alive = false;
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == args[0];
+                    case "toString":
+                        return "FakeSession@" + System.identityHashCode(p);
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.metrics;
+
+import co.verisoft.fw.selenium.metrics.CallTimer;
+import co.verisoft.fw.selenium.metrics.CallTiming;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallTimerTest {
+
+    private final Object driver = new Object();
+    private final Object element = new Object();
+
+
+    @Test
+    public void nestedCallsAreTimedFromTheirOwnStart() throws Exception {
+        Method wait = WebDriver.class.getMethod("getTitle");
+        Method find = WebDriver.class.getMethod("findElement", By.class);
+        CallTimer timer = new CallTimer();
+
+        timer.start(driver, wait);
+        Thread.sleep(20);
+        timer.start(element, find);
+        CallTiming inner = timer.stop(element, find);
+        CallTiming outer = timer.stop(driver, wait);
+
+        assertEquals(1, inner.getDepth());
+        assertEquals(0, outer.getDepth());
+        assertTrue(inner.getDurationNanos() < outer.getDurationNanos());
+        assertTrue(outer.getDurationMillis() >= 20);
+        assertEquals(0, timer.depth());
+    }
+
+
+    @Test
+    public void onlyTheInnermostCallCanBeStopped() throws Exception {
+        Method get = WebDriver.class.getMethod("get", String.class);
+        Method quit = WebDriver.class.getMethod("quit");
+        CallTimer timer = new CallTimer();
+
+        timer.start(driver, get);
+        assertNull(timer.stop(driver, quit));
+        assertNull(timer.stop(element, get));
+        assertNotNull(timer.stop(driver, get));
+        assertEquals(-1, timer.elapsedMillis());
+    }
+
+
+    @Test
+    public void threadsAreTimedSeparately() throws Exception {
+        Method get = WebDriver.class.getMethod("get", String.class);
+        CallTimer timer = new CallTimer();
+        timer.start(driver, get);
+
+        Thread other = new Thread(() -> timer.start(driver, get));
+        other.start();
+        other.join();
+
+        assertEquals(1, timer.depth());
+        assertNotNull(timer.stop(driver, get));
+    }
+}
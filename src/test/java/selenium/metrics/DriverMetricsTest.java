@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.metrics;
+
+import co.verisoft.fw.selenium.metrics.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DriverMetricsTest {
+
+    @AfterEach
+    public void reset() {
+        System.clearProperty("driver.slow.threshold.ms");
+        System.clearProperty("driver.slow.threshold.click.ms");
+        DriverMetrics.reset();
+    }
+
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++)
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(ms));
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000, histogram.getMinMicros());
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.016);
+        assertEquals(950_000, histogram.getValueAtPercentile(95), 950_000 * 0.016);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.016);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+
+
+    @Test
+    public void reportIsSortedByTotalTimeAndExportedAsCsv(@TempDir Path dir) throws Exception {
+        DriverMetrics.record("chrome", "click", null, TimeUnit.MILLISECONDS.toNanos(5));
+        DriverMetrics.record("chrome", "findElement", "css selector", TimeUnit.MILLISECONDS.toNanos(300));
+        DriverMetrics.record("chrome", "findElement", "xpath", TimeUnit.MILLISECONDS.toNanos(700));
+
+        MetricsReport report = DriverMetrics.snapshot();
+        assertEquals("findElement", report.getCommands().get(0).getName());
+        assertEquals(2, report.getCommands().get(0).getCount());
+        assertEquals("xpath", report.getLocators().get(0).getName());
+        assertEquals(3, report.getDrivers().get(0).getCount());
+
+        new CsvMetricsSink(dir).export(report);
+        List<String> lines = Files.readAllLines(dir.resolve("driver-metrics.csv"));
+        assertEquals(1 + 2 + 2 + 1, lines.size());
+        assertTrue(lines.get(1).startsWith("command,findElement,2,1000.000,500.000,300.000,"));
+    }
+
+
+    @Test
+    public void callsOverThresholdAreListedAsSlow() throws Exception {
+        System.setProperty("driver.slow.threshold.ms", "1000");
+        System.setProperty("driver.slow.threshold.click.ms", "100");
+        Method click = WebElement.class.getMethod("click");
+        Method get = WebDriver.class.getMethod("get", String.class);
+
+        assertFalse(SlowCommandDetector.check(null, "chrome", timing(get, 500)));
+        assertTrue(SlowCommandDetector.check(null, "chrome", timing(click, 500)));
+
+        List<SlowCall> slowCalls = DriverMetrics.snapshot().getSlowCalls();
+        assertEquals(1, slowCalls.size());
+        assertEquals("click", slowCalls.get(0).getCommand());
+        assertEquals(100, slowCalls.get(0).getThresholdMillis());
+        assertNull(slowCalls.get(0).getDiagnostics());
+    }
+
+
+    @Test
+    public void driversOfOneBrowserAreRecordedUnderTheirOwnNames() throws Exception {
+        Method getTitle = WebDriver.class.getMethod("getTitle");
+        for (String name : List.of("login", "admin", "admin")) {
+            WebDriver chrome = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class[]{WebDriver.class, HasCapabilities.class},
+                    (proxy, method, args) -> method.getName().equals("getCapabilities")
+                            ? new ImmutableCapabilities("browserName", "chrome") : null);
+            MetricsListener listener = new MetricsListener(name);
+            listener.beforeAnyCall(chrome, getTitle, new Object[0]);
+            listener.afterAnyCall(chrome, getTitle, new Object[0], "title");
+        }
+
+        List<LatencyStats> drivers = DriverMetrics.snapshot().getDrivers();
+        assertEquals(2, drivers.size());
+        assertEquals(2, drivers.stream().filter(d -> d.getName().equals("admin")).findFirst().orElseThrow().getCount());
+        assertEquals(1, drivers.stream().filter(d -> d.getName().equals("login")).findFirst().orElseThrow().getCount());
+    }
+
+
+    private static CallTiming timing(Method method, long millis) {
+        return new CallTiming(new Object(), method, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(millis), 0);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.metrics;
+
+import co.verisoft.fw.selenium.metrics.TestBreakdown;
+import co.verisoft.fw.selenium.metrics.TestTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestTimelineTest {
+
+    @Test
+    public void onlyOutermostSpanIsCounted() throws Exception {
+        TestTimeline timeline = TestTimeline.begin("test");
+
+        long wait = TestTimeline.enter();
+        TestTimeline.record(TestTimeline.Phase.COMMAND, TimeUnit.MILLISECONDS.toNanos(500));
+        long nested = TestTimeline.enter();
+        Thread.sleep(20);
+        TestTimeline.exit(TestTimeline.Phase.STARTUP, nested);
+        TestTimeline.exit(TestTimeline.Phase.WAIT, wait);
+
+        TestTimeline.record(TestTimeline.Phase.COMMAND, TimeUnit.MILLISECONDS.toNanos(5));
+        Thread.sleep(20);
+
+        TestBreakdown breakdown = timeline.end();
+        assertNull(TestTimeline.current());
+        assertEquals(0, breakdown.getStartupMillis());
+        assertTrue(breakdown.getWaitMillis() >= 20);
+        assertEquals(5, breakdown.getCommandMillis());
+        assertEquals(1, breakdown.getCommands());
+        assertTrue(breakdown.getIdleMillis() >= 15);
+        assertEquals(breakdown.getWallMillis(), breakdown.getWaitMillis() + breakdown.getCommandMillis()
+                + breakdown.getIdleMillis());
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package selenium.metrics;
+
+import co.verisoft.fw.selenium.metrics.TraceRecorder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceRecorderTest {
+
+    @AfterEach
+    public void reset() {
+        TraceRecorder.setEnabled(false);
+        TraceRecorder.reset();
+        System.clearProperty("driver.trace.dir");
+    }
+
+
+    @Test
+    public void spansAreWrittenAsChromeTraceEvents(@TempDir Path dir) throws Exception {
+        System.setProperty("driver.trace.dir", dir.toString());
+        TraceRecorder.end("wait", "ignored while disabled", TraceRecorder.begin());
+
+        TraceRecorder.setEnabled(true);
+        TraceRecorder.asyncBegin("driver", "driver", 7);
+        long start = TraceRecorder.begin();
+        Thread.sleep(2);
+        TraceRecorder.end("command", "findElement", start);
+        TraceRecorder.asyncEnd("driver", "driver", 7);
+
+        JsonNode trace = new ObjectMapper().readTree(TraceRecorder.export().toFile());
+        List<String> phases = new ArrayList<>();
+        JsonNode command = null;
+        for (JsonNode event : trace.get("traceEvents")) {
+            phases.add(event.get("ph").asText());
+            if ("findElement".equals(event.path("name").asText()))
+                command = event;
+        }
+
+        assertEquals(List.of("M", "b", "X", "e"), phases);
+        assertNotNull(command);
+        assertEquals("command", command.get("cat").asText());
+        assertEquals(Thread.currentThread().getId(), command.get("tid").asLong());
+        assertTrue(command.get("dur").asDouble() >= 2000);
+    }
+}